@@ -0,0 +1,266 @@
+package com.app.task_manager;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.google.firebase.firestore.MemoryCacheSettings;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.WriteBatch;
+
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Load and latency test of the task CRUD and listing paths against the local Firestore and Auth
+ * emulators. Seeds N users with M tasks each, then signs in as each user and runs scripted
+ * workloads through TaskPager, TaskQueryBuilder and TaskSyncEngine, the same code the app uses.
+ * The p50/p95/p99 latency and the number of documents read and written per operation are logged
+ * under the "FirestoreLoadTest" tag. They are also written as JSON to the app's external files
+ * dir under load-tests/.
+ *
+ * Start the emulators with `firebase emulators:start --only auth,firestore`, then run, e.g.:
+ *   ./gradlew connectedDebugAndroidTest \
+ *     -Pandroid.testInstrumentationRunnerArguments.class=com.app.task_manager.FirestoreLoadTest \
+ *     -Pandroid.testInstrumentationRunnerArguments.users=3 \
+ *     -Pandroid.testInstrumentationRunnerArguments.tasksPerUser=5000
+ * The emulator data is wiped at the start of every run.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FirestoreLoadTest {
+
+    private static final String TAG = "FirestoreLoadTest";
+    private static final long TIMEOUT_SECONDS = 60;
+    private static final String PASSWORD = "load-test-password";
+
+    private final Bundle args = InstrumentationRegistry.getArguments();
+    private final String host = args.getString("emulatorHost", "10.0.2.2");
+    private final int users = intArg("users", 2);
+    private final int tasksPerUser = intArg("tasksPerUser", 1000);
+    private final int operations = intArg("operations", 50);
+
+    private final Map<String, LatencyRecorder> results = new LinkedHashMap<>();
+    private final ExecutorService callbackExecutor = Executors.newSingleThreadExecutor();
+
+    @Test
+    public void crudAndListing_scaleWithCollectionSize() throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        FirebaseAuth auth = FirebaseAuth.getInstance();
+        // Emulator, and no disk cache, so every read reaches the server and is counted
+        db.useEmulator(host, 8080);
+        db.setFirestoreSettings(new FirebaseFirestoreSettings.Builder()
+                .setLocalCacheSettings(MemoryCacheSettings.newBuilder().build())
+                .build());
+        auth.useEmulator(host, 9099);
+        resetEmulators();
+
+        List<String> userIds = new ArrayList<>();
+        for (int user = 0; user < users; user++) {
+            String email = "load-" + user + "@example.com";
+            userIds.add(Tasks.await(auth.createUserWithEmailAndPassword(email, PASSWORD), TIMEOUT_SECONDS,
+                    TimeUnit.SECONDS).getUser().getUid());
+            seed(db, userIds.get(user));
+        }
+
+        for (int user = 0; user < users; user++) {
+            Tasks.await(auth.signInWithEmailAndPassword("load-" + user + "@example.com", PASSWORD),
+                    TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            String userId = userIds.get(user);
+            TaskMigrator migrator = new TaskMigrator(db);
+
+            listAll(migrator, db.collection("tasks").whereEqualTo("userId", userId)
+                    .orderBy(FieldPath.documentId()));
+            listFiltered(db, migrator, userId);
+            crud(new TaskSyncEngine(context, db, userId, callbackExecutor), userId);
+        }
+        auth.signOut();
+
+        for (Map.Entry<String, LatencyRecorder> result : results.entrySet()) {
+            Log.i(TAG, result.getKey() + ": " + result.getValue());
+        }
+        File report = writeReport(context);
+        Log.i(TAG, "Report written to " + report);
+        assertTrue(results.get("listPage").count() > 0);
+    }
+
+    // Writes the tasks in batches as the seeding cost is part of what is tracked
+    private void seed(FirebaseFirestore db, String userId) throws Exception {
+        List<Task> tasks = new ArrayList<>();
+        Random random = new Random(userId.hashCode());
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < tasksPerUser; i++) {
+            Task task = new Task("Task " + i, "Seeded description " + i, random.nextInt(TaskPriority.COUNT),
+                    start + random.nextInt(30) * 86_400_000L, 0, userId);
+            task.setTaskId(db.collection("tasks").document().getId());
+            task.setUpdatedAt(start);
+            tasks.add(task);
+        }
+        int tasksPerBatch = TaskBatchWriter.MAX_BATCH_WRITES / 2; // Summary and detail document
+        for (int from = 0; from < tasks.size(); from += tasksPerBatch) {
+            WriteBatch batch = db.batch();
+            List<Task> chunk = tasks.subList(from, Math.min(tasks.size(), from + tasksPerBatch));
+            for (Task task : chunk) {
+                batch.set(db.collection("tasks").document(task.getTaskId()), TaskCodec.encode(task));
+                batch.set(db.collection(TaskSchema.DETAILS_COLLECTION).document(task.getTaskId()),
+                        TaskCodec.encodeDetail(task));
+            }
+            long begin = System.nanoTime();
+            Tasks.await(batch.commit(), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            recorder("seedBatch").record(System.nanoTime() - begin, 0, chunk.size() * 2);
+        }
+    }
+
+    // Pages through the whole collection like the backfill does
+    private void listAll(TaskMigrator migrator, Query orderedQuery) throws Exception {
+        TaskPager pager = new TaskPager(orderedQuery, IndexedTaskList.PAGE_SIZE, migrator, callbackExecutor);
+        while (!pager.isEndReached()) {
+            loadPage(pager, "listPage");
+        }
+    }
+
+    // First page of a filtered, server-sorted list
+    private void listFiltered(FirebaseFirestore db, TaskMigrator migrator, String userId) throws Exception {
+        TaskFilter filter = new TaskFilter();
+        filter.setPriorities(Collections.singletonList(TaskPriority.HIGH));
+        filter.setSortKey(TaskFilter.SortKey.DUE_AT);
+        for (int run = 0; run < operations; run++) {
+            TaskQueryBuilder.Plan plan = TaskQueryBuilder.build(db, userId, filter, System.currentTimeMillis());
+            loadPage(new TaskPager(plan.query, IndexedTaskList.PAGE_SIZE, migrator, callbackExecutor),
+                    "listFilteredFirstPage");
+        }
+    }
+
+    private void loadPage(TaskPager pager, String operation) throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Exception> error = new AtomicReference<>();
+        int[] documents = new int[1];
+        long begin = System.nanoTime();
+        pager.loadNextPage(new TaskPager.PageCallback() {
+            @Override
+            public void onPage(List<Task> tasks, boolean endReached) {
+                documents[0] = tasks.size();
+                done.countDown();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                error.set(e);
+                done.countDown();
+            }
+        });
+        assertTrue("Page timed out", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        long elapsed = System.nanoTime() - begin;
+        if (error.get() != null) throw error.get();
+        // A query is billed at least one read even when it matches nothing
+        recorder(operation).record(elapsed, Math.max(1, documents[0]), 0);
+    }
+
+    // Creates, edits and deletes tasks through the sync engine, which writes summary and detail
+    private void crud(TaskSyncEngine engine, String userId) throws Exception {
+        List<Task> created = new ArrayList<>();
+        for (int i = 0; i < operations; i++) {
+            Task task = new Task("Load " + i, "Created by the load test", TaskPriority.MEDIUM,
+                    System.currentTimeMillis() + 86_400_000L, 0, userId);
+            task.setTaskId(FirebaseFirestore.getInstance().collection("tasks").document().getId());
+            long begin = System.nanoTime();
+            Tasks.await(engine.create(task), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            recorder("create").record(System.nanoTime() - begin, 0, 2);
+            created.add(task);
+        }
+
+        for (Task task : created) {
+            Task updated = new Task(task);
+            updated.setTitle(task.getTitle() + " (edited)");
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("title", updated.getTitle());
+            long begin = System.nanoTime();
+            Tasks.await(engine.update(updated, fields), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            recorder("update").record(System.nanoTime() - begin, 0, 1);
+        }
+
+        for (Task task : created) {
+            long begin = System.nanoTime();
+            Tasks.await(engine.delete(task), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            recorder("delete").record(System.nanoTime() - begin, 0, 2); // Tombstone plus detail delete
+        }
+    }
+
+    private LatencyRecorder recorder(String operation) {
+        LatencyRecorder recorder = results.get(operation);
+        if (recorder == null) {
+            recorder = new LatencyRecorder();
+            results.put(operation, recorder);
+        }
+        return recorder;
+    }
+
+    private File writeReport(Context context) throws Exception {
+        JSONObject report = new JSONObject();
+        report.put("timestamp", System.currentTimeMillis());
+        report.put("device", Build.MANUFACTURER + " " + Build.MODEL + " (API " + Build.VERSION.SDK_INT + ")");
+        report.put("users", users);
+        report.put("tasksPerUser", tasksPerUser);
+        report.put("operationsPerUser", operations);
+        JSONObject operationsJson = new JSONObject();
+        for (Map.Entry<String, LatencyRecorder> result : results.entrySet()) {
+            operationsJson.put(result.getKey(), result.getValue().toJson());
+        }
+        report.put("operations", operationsJson);
+
+        File dir = new File(context.getExternalFilesDir(null), "load-tests");
+        assertTrue(dir.isDirectory() || dir.mkdirs());
+        File file = new File(dir, "firestore-" + users + "x" + tasksPerUser + "-" + System.currentTimeMillis() + ".json");
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(report.toString(2));
+        }
+        return file;
+    }
+
+    // Deletes all documents and accounts through the emulators' REST endpoints
+    private void resetEmulators() throws Exception {
+        String projectId = FirebaseApp.getInstance().getOptions().getProjectId();
+        httpDelete("http://" + host + ":8080/emulator/v1/projects/" + projectId + "/databases/(default)/documents");
+        httpDelete("http://" + host + ":9099/emulator/v1/projects/" + projectId + "/accounts");
+    }
+
+    private static void httpDelete(String url) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try {
+            connection.setRequestMethod("DELETE");
+            assertEquals("Reset failed: " + url, 200, connection.getResponseCode());
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private int intArg(String name, int defaultValue) {
+        String value = args.getString(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+}
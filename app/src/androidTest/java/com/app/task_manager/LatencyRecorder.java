@@ -0,0 +1,60 @@
+package com.app.task_manager;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Latency samples and document counts of one kind of operation, summarised as nearest-rank percentiles.
+ */
+class LatencyRecorder {
+
+    private final List<Long> nanos = new ArrayList<>();
+    private long documentsRead;
+    private long documentsWritten;
+
+    void record(long elapsedNanos, int read, int written) {
+        nanos.add(elapsedNanos);
+        documentsRead += read;
+        documentsWritten += written;
+    }
+
+    int count() {
+        return nanos.size();
+    }
+
+    // p in (0, 100]; 0 when nothing was recorded
+    double percentileMillis(double p) {
+        if (nanos.isEmpty()) {
+            return 0;
+        }
+        List<Long> sorted = new ArrayList<>(nanos);
+        Collections.sort(sorted);
+        int rank = (int) Math.ceil(p / 100 * sorted.size());
+        return sorted.get(Math.max(0, rank - 1)) / 1e6;
+    }
+
+    JSONObject toJson() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("count", count());
+        json.put("p50Ms", percentileMillis(50));
+        json.put("p95Ms", percentileMillis(95));
+        json.put("p99Ms", percentileMillis(99));
+        json.put("maxMs", percentileMillis(100));
+        json.put("documentsRead", documentsRead);
+        json.put("documentsWritten", documentsWritten);
+        json.put("readsPerOp", count() == 0 ? 0 : (double) documentsRead / count());
+        json.put("writesPerOp", count() == 0 ? 0 : (double) documentsWritten / count());
+        return json;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(java.util.Locale.US, "n=%d p50=%.1fms p95=%.1fms p99=%.1fms reads/op=%.1f",
+                count(), percentileMillis(50), percentileMillis(95), percentileMillis(99),
+                count() == 0 ? 0 : (double) documentsRead / count());
+    }
+}
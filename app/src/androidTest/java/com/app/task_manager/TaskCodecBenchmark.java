@@ -0,0 +1,87 @@
+package com.app.task_manager;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.firebase.firestore.util.CustomClassMapper;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares TaskCodec with the reflection-based mapper behind DocumentSnapshot.toObject()
+ * on a few thousand task documents. Results are written to logcat under the "TaskCodecBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskCodecBenchmark {
+
+    private static final String TAG = "TaskCodecBenchmark";
+    private static final int DOCUMENTS = 5000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 10;
+
+    @Test
+    public void decode_codecVersusReflection() {
+        List<Map<String, Object>> documents = new ArrayList<>();
+        for (int i = 0; i < DOCUMENTS; i++) {
+            Task task = new Task("Task " + i, "Description " + i, i % TaskPriority.COUNT,
+                    1700000000000L + i * 60_000L, 1700000000000L + i * 60_000L, "user");
+            task.setUpdatedAt(1690000000000L + i);
+            Map<String, Object> data = TaskCodec.encode(task);
+            // Firestore hands integers back as Long
+            data.put("priority", (long) task.getPriority());
+            data.put("schemaVersion", (long) task.getSchemaVersion());
+            documents.add(data);
+        }
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            decodeWithCodec(documents);
+            decodeWithReflection(documents);
+        }
+
+        long codecNanos = 0;
+        long reflectionNanos = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            decodeWithCodec(documents);
+            codecNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            decodeWithReflection(documents);
+            reflectionNanos += System.nanoTime() - start;
+        }
+
+        long perDocumentCodec = codecNanos / ((long) MEASURED_ROUNDS * DOCUMENTS);
+        long perDocumentReflection = reflectionNanos / ((long) MEASURED_ROUNDS * DOCUMENTS);
+        Log.i(TAG, DOCUMENTS + " documents: codec " + perDocumentCodec + " ns/doc, reflection "
+                + perDocumentReflection + " ns/doc");
+
+        // Both paths must agree on the decoded values
+        Task viaCodec = TaskCodec.decode("t0", documents.get(1));
+        Task viaReflection = CustomClassMapper.convertToCustomClass(documents.get(1), Task.class, null);
+        assertEquals(viaReflection.getTitle(), viaCodec.getTitle());
+        assertEquals(viaReflection.getPriority(), viaCodec.getPriority());
+        assertEquals(viaReflection.getDueAt(), viaCodec.getDueAt());
+        assertEquals(viaReflection.getUpdatedAt(), viaCodec.getUpdatedAt());
+    }
+
+    private static void decodeWithCodec(List<Map<String, Object>> documents) {
+        for (int i = 0; i < documents.size(); i++) {
+            TaskCodec.decode("t" + i, documents.get(i));
+        }
+    }
+
+    private static void decodeWithReflection(List<Map<String, Object>> documents) {
+        for (int i = 0; i < documents.size(); i++) {
+            Task task = CustomClassMapper.convertToCustomClass(documents.get(i), Task.class, null);
+            task.setTaskId("t" + i);
+        }
+    }
+}
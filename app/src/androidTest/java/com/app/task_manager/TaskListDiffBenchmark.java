@@ -0,0 +1,80 @@
+package com.app.task_manager;
+
+import android.util.Log;
+
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the two ways TaskListPipeline publishes a change to one task: diffing every row with
+ * DiffUtil, as resets and large batches still do, and putting the one row into RowUpdates. Each
+ * change reschedules a task, so its row moves. Results are written to logcat under the
+ * "TaskListDiffBenchmark" tag; the RowUpdates side alone is also measured by JMH in :core.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskListDiffBenchmark {
+
+    private static final String TAG = "TaskListDiffBenchmark";
+    private static final int[] ROW_COUNTS = {1000, 10000};
+    private static final int CHANGES = 50;
+    private static final long HOUR_MS = 3_600_000L;
+
+    @Test
+    public void oneChange_diffVersusRowUpdates() {
+        for (int rows : ROW_COUNTS) {
+            measure(rows); // Warm up
+        }
+        for (int rows : ROW_COUNTS) {
+            long[] nanos = measure(rows);
+            Log.i(TAG, rows + " rows: diff " + nanos[0] / CHANGES / 1000 + " us/change, row updates "
+                    + nanos[1] / CHANGES / 1000 + " us/change");
+        }
+    }
+
+    // Total nanoseconds for CHANGES changes, diffed and put
+    private static long[] measure(int count) {
+        RankedList.Builder<TaskRow> builder = new RankedList.Builder<>();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Task task = new Task("Task " + i, "", i % TaskPriority.COUNT, 1700000000000L + i * HOUR_MS,
+                    1700000000000L + i * HOUR_MS, "user");
+            task.setTaskId(String.format("task%08d", i));
+            tasks.add(task);
+            builder.add(task.getDueAt(), task.getTaskId(), TaskRow.of(i, task, false, false, task.getDueAt()));
+        }
+        RowUpdates<TaskRow> rows = new RowUpdates<>();
+        rows.reset(builder);
+
+        long diffNanos = 0;
+        long updateNanos = 0;
+        for (int change = 0; change < CHANGES; change++) {
+            int index = (change * 7919) % count;
+            Task moved = new Task(tasks.get(index));
+            moved.setDueAt(moved.getDueAt() + (count / 2) * HOUR_MS);
+            tasks.set(index, moved);
+            TaskRow row = TaskRow.of(index, moved, false, false, moved.getDueAt());
+            RankedList<TaskRow> before = rows.getRows();
+
+            long start = System.nanoTime();
+            rows.put(moved.getTaskId(), moved.getDueAt(), row);
+            List<RowUpdates.Change> changes = rows.takeChanges();
+            updateNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new TaskListPipeline.RowDiff(before, rows.getRows()), false);
+            diffNanos += System.nanoTime() - start;
+
+            assertFalse(changes.isEmpty());
+            assertNotNull(diff);
+        }
+        return new long[]{diffNanos, updateNanos};
+    }
+}
@@ -0,0 +1,50 @@
+package com.app.task_manager;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.util.Log;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+// Debug builds only: shows the TaskMetrics timers and counters of this process, and exports them
+// as JSON through the share sheet. The same JSON is logged under the "TaskMetrics" tag, so
+//   adb shell am start -n com.app.task_manager/.MetricsActivity && adb logcat -s TaskMetrics
+// dumps them without touching the screen.
+public class MetricsActivity extends AppCompatActivity {
+
+    private TextView metricsText;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_metrics);
+
+        metricsText = findViewById(R.id.metricsText);
+        findViewById(R.id.metricsRefreshButton).setOnClickListener(view -> refresh());
+        findViewById(R.id.metricsResetButton).setOnClickListener(view -> {
+            TaskMetrics.reset();
+            refresh();
+        });
+        findViewById(R.id.metricsExportButton).setOnClickListener(view -> export());
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        refresh();
+        Log.i("TaskMetrics", TaskMetrics.toJson());
+    }
+
+    private void refresh() {
+        metricsText.setText(TaskMetrics.isEnabled() ? TaskMetrics.dump() : "Metrics are disabled in this build.");
+    }
+
+    private void export() {
+        Intent send = new Intent(Intent.ACTION_SEND);
+        send.setType("application/json");
+        send.putExtra(Intent.EXTRA_SUBJECT, "Task manager metrics");
+        send.putExtra(Intent.EXTRA_TEXT, TaskMetrics.toJson());
+        startActivity(Intent.createChooser(send, "Export metrics"));
+    }
+}
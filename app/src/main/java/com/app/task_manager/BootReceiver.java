@@ -0,0 +1,19 @@
+package com.app.task_manager;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+// Alarms do not survive a reboot or an app update, so the next reminders are armed again from the store
+public class BootReceiver extends BroadcastReceiver {
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        String action = intent.getAction();
+        if (!Intent.ACTION_BOOT_COMPLETED.equals(action) && !Intent.ACTION_MY_PACKAGE_REPLACED.equals(action)) {
+            return;
+        }
+        PendingResult result = goAsync();
+        ReminderScheduler.getInstance(context).rebuild(result::finish);
+    }
+}
@@ -0,0 +1,43 @@
+package com.app.task_manager;
+
+import com.google.android.gms.tasks.Task;
+
+import java.util.concurrent.Executor;
+
+// TaskMetrics names and helpers for Firestore calls. Reads and writes are counted in documents,
+// as they are billed; a query that matches nothing still counts as one read.
+final class FirestoreMetrics {
+
+    static final String DOCS_READ = "firestore.docs.read";
+    static final String DOCS_WRITTEN = "firestore.docs.written";
+    static final String ERRORS = "firestore.errors";
+
+    // Completion only stops a timer, so it runs on whichever thread completes the call
+    private static final Executor DIRECT = Runnable::run;
+
+    private FirestoreMetrics() {
+    }
+
+    // Times the call from start until it completes; with a start taken while disabled nothing is attached
+    static <T> Task<T> time(String timer, Task<T> call, long start) {
+        if (start != 0) {
+            call.addOnCompleteListener(DIRECT, done -> {
+                TaskMetrics.stop(timer, start);
+                if (!done.isSuccessful()) TaskMetrics.count(ERRORS, 1);
+            });
+        }
+        return call;
+    }
+
+    // Like time(), for a write of the given number of documents
+    static <T> Task<T> write(String timer, Task<T> call, int documents, long start) {
+        if (start != 0) {
+            TaskMetrics.count(DOCS_WRITTEN, documents);
+        }
+        return time(timer, call, start);
+    }
+
+    static void read(int documents) {
+        TaskMetrics.count(DOCS_READ, Math.max(1, documents));
+    }
+}
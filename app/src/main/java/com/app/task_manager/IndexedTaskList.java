@@ -0,0 +1,196 @@
+package com.app.task_manager;
+
+import java.util.*;
+import java.util.function.ToIntFunction;
+
+// Task list whose positions are implicit, so snapshot deltas can be applied one document at a
+// time instead of rebuilding the whole list. Rows sit in a RankedList ordered by when they were
+// added: finding a row's position, inserting or removing one is O(log n), and nothing after it is
+// renumbered. Rows far from the viewport drop their Task objects (the row keeps its id and
+// position) and are reloaded on demand.
+public class IndexedTaskList {
+
+    public static final int PAGE_SIZE = 50;
+    // Pages kept resident on each side of the visible ones
+    static final int RESIDENT_PAGE_MARGIN = 2;
+
+    private RankedList<Task> rows = RankedList.empty(); // null for evicted rows
+    // taskId -> the row's key in rows; increases with the position
+    private final Map<String, Long> orders = new HashMap<>();
+    private long nextOrder;
+    // Rows that hold Task objects, so eviction only visits those instead of every row
+    private final Set<String> resident = new HashSet<>();
+    private ChangeListener changeListener;
+
+    public void setChangeListener(ChangeListener listener) {
+        this.changeListener = listener;
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    public Task get(int position) {
+        return rows.get(position);
+    }
+
+    // Known even for evicted rows
+    public String getTaskId(int position) {
+        return rows.idAt(position);
+    }
+
+    // Returns null if the task is unknown or its page is currently evicted
+    public Task find(String taskId) {
+        Long order = orders.get(taskId);
+        return order == null ? null : rows.find(order, taskId);
+    }
+
+    public int indexOf(String taskId) {
+        Long order = orders.get(taskId);
+        return order == null ? -1 : rows.indexOf(order, taskId);
+    }
+
+    // Increases with the position and stays the same until the task is removed, so it can order
+    // the task's row elsewhere; only valid for a task in the list
+    public long orderOf(String taskId) {
+        return orders.get(taskId);
+    }
+
+    // Inserts the task at the end, or replaces it in place if it is already present
+    public void upsert(Task task) {
+        String taskId = task.getTaskId();
+        Long order = orders.get(taskId);
+        boolean inserted = order == null;
+        if (inserted) {
+            order = nextOrder++;
+            orders.put(taskId, order);
+        }
+        rows = rows.with(order, taskId, task);
+        resident.add(taskId);
+        if (changeListener == null) {
+            return;
+        }
+        int position = rows.indexOf(order, taskId);
+        if (inserted) {
+            changeListener.onInserted(position);
+        } else {
+            changeListener.onChanged(position);
+        }
+    }
+
+    public boolean remove(String taskId) {
+        Long order = orders.remove(taskId);
+        if (order == null) {
+            return false;
+        }
+        int position = rows.indexOf(order, taskId);
+        rows = rows.without(order, taskId);
+        resident.remove(taskId);
+        if (changeListener != null) changeListener.onRemoved(position, taskId);
+        return true;
+    }
+
+    // Re-renders a row whose data did not change but whose state did (e.g. a write was confirmed)
+    public void refresh(String taskId) {
+        int position = indexOf(taskId);
+        if (position >= 0 && changeListener != null) changeListener.onChanged(position);
+    }
+
+    // Bulk load, e.g. from the local store; the adapter is rebound once instead of per row.
+    // Only the tasks passed in are resident, the remaining ids start out evicted.
+    public void replaceAll(List<String> taskIds, List<Task> residentTasks) {
+        Map<String, Task> byId = new HashMap<>();
+        for (Task task : residentTasks) {
+            byId.put(task.getTaskId(), task);
+        }
+        orders.clear();
+        resident.clear();
+        RankedList.Builder<Task> builder = new RankedList.Builder<>();
+        for (String taskId : taskIds) {
+            if (orders.containsKey(taskId)) {
+                continue;
+            }
+            long order = nextOrder++;
+            orders.put(taskId, order);
+            Task task = byId.get(taskId);
+            if (task != null) resident.add(taskId);
+            builder.add(order, taskId, task);
+        }
+        rows = builder.build();
+        if (changeListener != null) changeListener.onReset();
+    }
+
+    // Drops the Task objects of pages outside the visible range plus a margin. Only rows still
+    // holding tasks are visited. Returns true if anything was evicted.
+    public boolean evictOutside(int firstVisible, int lastVisible) {
+        return evictOutside(firstVisible, lastVisible, this::indexOf);
+    }
+
+    // Like evictOutside, for a view that shows the rows at other positions, e.g. in sections
+    public boolean evictOutside(int firstVisible, int lastVisible, ToIntFunction<String> positionOf) {
+        if (firstVisible < 0 || resident.isEmpty()) {
+            return false;
+        }
+        int keepFrom = Math.max(0, firstVisible / PAGE_SIZE - RESIDENT_PAGE_MARGIN) * PAGE_SIZE;
+        int keepTo = (lastVisible / PAGE_SIZE + RESIDENT_PAGE_MARGIN + 1) * PAGE_SIZE;
+        List<String> evicted = new ArrayList<>();
+        for (String taskId : resident) {
+            int position = positionOf.applyAsInt(taskId);
+            if (position < keepFrom || position >= keepTo) evicted.add(taskId);
+        }
+        for (String taskId : evicted) {
+            evict(taskId);
+        }
+        return !evicted.isEmpty();
+    }
+
+    // Drops one row's Task object, like evictOutside; true if it was resident
+    public boolean evict(String taskId) {
+        if (!resident.remove(taskId)) {
+            return false;
+        }
+        rows = rows.with(orders.get(taskId), taskId, null);
+        if (changeListener != null) changeListener.onEvicted(taskId);
+        return true;
+    }
+
+    // Ids of evicted rows in the pages covering the given range, i.e. what needs reloading
+    public List<String> missingIds(int from, int to) {
+        List<String> missing = new ArrayList<>();
+        int start = Math.max(0, from / PAGE_SIZE * PAGE_SIZE);
+        int end = Math.min(rows.size(), (to / PAGE_SIZE + 1) * PAGE_SIZE);
+        for (int i = start; i < end; i++) {
+            if (rows.get(i) == null) missing.add(rows.idAt(i));
+        }
+        return missing;
+    }
+
+    // Puts reloaded tasks back into their evicted rows; rows that were refilled meanwhile are kept
+    public void restore(List<Task> reloaded) {
+        for (Task task : reloaded) {
+            String taskId = task.getTaskId();
+            Long order = orders.get(taskId);
+            if (order == null || resident.contains(taskId)) {
+                continue;
+            }
+            rows = rows.with(order, taskId, task);
+            resident.add(taskId);
+            if (changeListener != null) changeListener.onChanged(rows.indexOf(order, taskId));
+        }
+    }
+
+    public void clear() {
+        rows = RankedList.empty();
+        orders.clear();
+        resident.clear();
+    }
+
+    public interface ChangeListener {
+        void onInserted(int position);
+        void onChanged(int position);
+        void onRemoved(int position, String taskId);
+        // The row's Task object was dropped; it is off-screen and reloaded when bound again
+        void onEvicted(String taskId);
+        void onReset();
+    }
+}
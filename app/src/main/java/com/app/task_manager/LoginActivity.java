@@ -20,11 +20,20 @@ public class LoginActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        setContentView(R.layout.activity_login);
 
         // Initialize Firebase Auth
         firebaseAuth = FirebaseAuth.getInstance();
 
+        // A cached session skips the login screen without inflating it. The task list's first
+        // screen is read from disk meanwhile; this runs only for launches, not receiver cold starts
+        if (firebaseAuth.getCurrentUser() != null) {
+            TaskSyncEngine.prefetchLocal(getApplicationContext(), firebaseAuth.getCurrentUser().getUid());
+            startActivity(new Intent(this, TaskActivity.class));
+            finish();
+            return;
+        }
+        setContentView(R.layout.activity_login);
+
         // Bind views
         emailInput = findViewById(R.id.emailInput);
         passwordInput = findViewById(R.id.passwordInput);
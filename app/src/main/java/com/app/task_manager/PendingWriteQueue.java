@@ -0,0 +1,127 @@
+package com.app.task_manager;
+
+import java.util.*;
+
+// Applies creates, updates and deletes to the local list immediately and remembers
+// what each write replaced, so it can be confirmed or rolled back once Firestore answers.
+public class PendingWriteQueue {
+
+    public enum Op { CREATE, UPDATE, DELETE }
+
+    private final IndexedTaskList taskList;
+    // Pending writes in submission order, keyed by taskId
+    private final LinkedHashMap<String, List<PendingWrite>> pending = new LinkedHashMap<>();
+
+    public PendingWriteQueue(IndexedTaskList taskList) {
+        this.taskList = taskList;
+    }
+
+    // The task must already carry its id; creates use the client-generated document id
+    // as a temporary id until the write is acknowledged.
+    public PendingWrite create(Task task) {
+        PendingWrite write = enqueue(Op.CREATE, task.getTaskId(), null);
+        taskList.upsert(task);
+        return write;
+    }
+
+    public PendingWrite update(Task updated) {
+        Task current = taskList.find(updated.getTaskId());
+        PendingWrite write = enqueue(Op.UPDATE, updated.getTaskId(), current == null ? null : new Task(current));
+        taskList.upsert(updated);
+        return write;
+    }
+
+    public PendingWrite delete(String taskId) {
+        Task current = taskList.find(taskId);
+        PendingWrite write = enqueue(Op.DELETE, taskId, current == null ? null : new Task(current));
+        taskList.remove(taskId);
+        return write;
+    }
+
+    public boolean isPending(String taskId) {
+        return pending.containsKey(taskId);
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    // Copy of the ids with unacknowledged writes
+    public Set<String> pendingIds() {
+        return new HashSet<>(pending.keySet());
+    }
+
+    // True while a delete for this task has not been acknowledged, so listener
+    // echoes of the old document must not bring the row back
+    public boolean isPendingDelete(String taskId) {
+        List<PendingWrite> writes = pending.get(taskId);
+        return writes != null && writes.get(writes.size() - 1).op == Op.DELETE;
+    }
+
+    public void confirm(PendingWrite write) {
+        if (dequeue(write) < 0) {
+            return;
+        }
+        if (!isPending(write.taskId)) {
+            taskList.refresh(write.taskId); // Drop the pending marker
+        }
+    }
+
+    public void rollback(PendingWrite write) {
+        int index = dequeue(write);
+        if (index < 0) {
+            return;
+        }
+        List<PendingWrite> later = pending.get(write.taskId);
+        if (later != null && index < later.size()) {
+            // A newer write was built on top of this one; rolling that back must now restore our base state
+            later.get(index).previous = write.previous;
+            return;
+        }
+        if (write.previous == null) {
+            taskList.remove(write.taskId);
+        } else {
+            taskList.upsert(write.previous);
+        }
+    }
+
+    private PendingWrite enqueue(Op op, String taskId, Task previous) {
+        PendingWrite write = new PendingWrite(op, taskId, previous);
+        List<PendingWrite> writes = pending.get(taskId);
+        if (writes == null) {
+            writes = new ArrayList<>();
+            pending.put(taskId, writes);
+        }
+        writes.add(write);
+        return write;
+    }
+
+    // Returns the index the write had among the pending writes for its task, or -1 if unknown
+    private int dequeue(PendingWrite write) {
+        List<PendingWrite> writes = pending.get(write.taskId);
+        int index = writes == null ? -1 : writes.indexOf(write);
+        if (index < 0) {
+            return -1;
+        }
+        writes.remove(index);
+        if (writes.isEmpty()) {
+            pending.remove(write.taskId);
+        }
+        return index;
+    }
+
+    public static class PendingWrite {
+        final Op op;
+        final String taskId;
+        Task previous; // State before this write, null when the task did not exist
+
+        PendingWrite(Op op, String taskId, Task previous) {
+            this.op = op;
+            this.taskId = taskId;
+            this.previous = previous;
+        }
+
+        public Op getOp() { return op; }
+        public String getTaskId() { return taskId; }
+    }
+}
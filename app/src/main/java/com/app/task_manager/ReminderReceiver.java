@@ -0,0 +1,20 @@
+package com.app.task_manager;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+// Receives the armed reminder alarms; showing the notification and re-arming happen off the main thread
+public class ReminderReceiver extends BroadcastReceiver {
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        String taskId = intent.getStringExtra(ReminderScheduler.EXTRA_TASK_ID);
+        if (taskId == null) {
+            return;
+        }
+        long remindAt = intent.getLongExtra(ReminderScheduler.EXTRA_REMIND_AT, 0);
+        PendingResult result = goAsync();
+        ReminderScheduler.getInstance(context).onAlarm(taskId, remindAt, result::finish);
+    }
+}
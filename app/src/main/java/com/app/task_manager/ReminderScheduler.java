@@ -0,0 +1,242 @@
+package com.app.task_manager;
+
+import android.app.AlarmManager;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Keeps every upcoming reminder in a ReminderQueue but only arms the next few as alarms, so the
+// number of registered alarms stays fixed however many tasks there are. A fired alarm re-arms the
+// slots from the queue. The queue is rebuilt from the local store when the process starts or the
+// device reboots, reading only task ids and reminder times. A recurring task has one entry, for
+// its next occurrence, which moves on to the one after when it goes off.
+public class ReminderScheduler {
+
+    // Alarms registered with the system at any time
+    static final int ARMED_ALARMS = 5;
+
+    static final String EXTRA_TASK_ID = "taskId";
+    static final String EXTRA_REMIND_AT = "remindAt";
+    private static final String CHANNEL_ID = "task_reminders";
+    private static final int MAX_NOTIFIED = 64;
+
+    // All queue and alarm work runs here, so the queue needs no locking
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private static ReminderScheduler instance;
+
+    public static synchronized ReminderScheduler getInstance(Context context) {
+        if (instance == null) {
+            instance = new ReminderScheduler(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private final Context context;
+    private final TaskStore store;
+    private final AlarmManager alarmManager;
+    private final ReminderQueue queue = new ReminderQueue();
+    private final ReminderQueue.Entry[] armed = new ReminderQueue.Entry[ARMED_ALARMS];
+    private final OccurrenceExpander occurrences = new OccurrenceExpander(TimeZone.getDefault());
+    private boolean loaded;
+    // The signed-in user the queue was loaded for; null if nobody was
+    private String loadedUserId;
+    // Last reminder shown per task. A reminder handled with another alarm may still have its own
+    // alarm delivered; it is not shown twice.
+    private final Map<String, Long> notified = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_NOTIFIED;
+        }
+    };
+
+    private ReminderScheduler(Context context) {
+        this.context = context;
+        this.store = TaskStore.getInstance(context);
+        this.alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+    }
+
+    // Incremental update after local or server changes; tombstones, cleared reminders and tasks of
+    // another account than the signed-in one are dropped
+    public void onTasksChanged(List<Task> tasks) {
+        EXECUTOR.execute(() -> {
+            ensureLoaded();
+            long now = System.currentTimeMillis();
+            for (Task task : tasks) {
+                boolean signedIn = loadedUserId != null && loadedUserId.equals(task.getUserId());
+                long next = task.isDeleted() || !signedIn ? 0 : occurrences.nextReminder(task, now);
+                if (next == 0) {
+                    queue.remove(task.getTaskId());
+                } else {
+                    queue.upsert(task.getTaskId(), next);
+                }
+            }
+            rearm();
+        });
+    }
+
+    public void onTasksRemoved(List<String> taskIds) {
+        EXECUTOR.execute(() -> {
+            ensureLoaded();
+            for (String taskId : taskIds) {
+                queue.remove(taskId);
+                occurrences.invalidate(taskId);
+            }
+            rearm();
+        });
+    }
+
+    // Reloads the queue from the store, e.g. after a reboot cleared every alarm
+    public void rebuild(Runnable done) {
+        EXECUTOR.execute(() -> {
+            loaded = false;
+            ensureLoaded();
+            for (int slot = 0; slot < ARMED_ALARMS; slot++) {
+                armed[slot] = null; // The system forgot them, so every slot is set again
+            }
+            rearm();
+            done.run();
+        });
+    }
+
+    // Called by ReminderReceiver when an armed alarm goes off
+    void onAlarm(String taskId, long remindAt, Runnable done) {
+        EXECUTOR.execute(() -> {
+            ensureLoaded();
+            long now = System.currentTimeMillis();
+            List<ReminderQueue.Entry> fired = queue.pollFired(taskId, remindAt, now);
+            List<String> taskIds = new ArrayList<>();
+            for (ReminderQueue.Entry entry : fired) {
+                taskIds.add(entry.taskId);
+            }
+            Map<String, Task> tasks = new HashMap<>();
+            for (Task task : store.loadTasks(taskIds)) {
+                tasks.put(task.getTaskId(), task);
+            }
+            for (ReminderQueue.Entry entry : fired) {
+                Task task = tasks.get(entry.taskId);
+                // The alarm may be outdated if the task was edited or deleted without a re-arm reaching it
+                if (task != null && occurrences.nextReminder(task, entry.remindAt - 1) == entry.remindAt) {
+                    Long shown = notified.put(entry.taskId, entry.remindAt);
+                    if (shown == null || shown != entry.remindAt) notify(task, entry.remindAt);
+                }
+                long next = task == null ? 0 : occurrences.nextReminder(task, now);
+                if (next != 0) {
+                    queue.upsert(entry.taskId, next); // The next occurrence of a recurring task
+                }
+            }
+            rearm();
+            done.run();
+        });
+    }
+
+    // Only the signed-in user's tasks are reminded; after an account switch the queue is loaded again
+    private void ensureLoaded() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        String userId = user == null ? null : user.getUid();
+        if (loaded && (userId == null ? loadedUserId == null : userId.equals(loadedUserId))) {
+            return;
+        }
+        queue.clear();
+        loadedUserId = userId;
+        loaded = true;
+        if (userId == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Long> reminder : store.loadUpcomingReminders(userId, now).entrySet()) {
+            queue.upsert(reminder.getKey(), reminder.getValue());
+        }
+        for (Task task : store.loadRecurringReminders(userId)) {
+            long next = occurrences.nextReminder(task, now);
+            if (next != 0) queue.upsert(task.getTaskId(), next);
+        }
+    }
+
+    // Points the alarm slots at the earliest reminders; slots whose reminder did not change are left alone
+    private void rearm() {
+        List<ReminderQueue.Entry> next = queue.peekNext(ARMED_ALARMS);
+        for (int slot = 0; slot < ARMED_ALARMS; slot++) {
+            ReminderQueue.Entry entry = slot < next.size() ? next.get(slot) : null;
+            if (entry == null ? armed[slot] == null : entry.equals(armed[slot])) {
+                continue;
+            }
+            if (entry == null) {
+                alarmManager.cancel(alarmIntent(slot, null));
+            } else {
+                setAlarm(entry.remindAt, alarmIntent(slot, entry));
+            }
+            armed[slot] = entry;
+        }
+    }
+
+    private void setAlarm(long triggerAt, PendingIntent intent) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S && !alarmManager.canScheduleExactAlarms()) {
+            // Without the exact alarm permission the reminder may be delivered a little late
+            alarmManager.setAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerAt, intent);
+        } else {
+            alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerAt, intent);
+        }
+    }
+
+    // One PendingIntent per slot, so re-arming a slot replaces its previous alarm
+    private PendingIntent alarmIntent(int slot, ReminderQueue.Entry entry) {
+        Intent intent = new Intent(context, ReminderReceiver.class);
+        if (entry != null) {
+            intent.putExtra(EXTRA_TASK_ID, entry.taskId);
+            intent.putExtra(EXTRA_REMIND_AT, entry.remindAt);
+        }
+        return PendingIntent.getBroadcast(context, slot, intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+
+    private void notify(Task task, long remindAt) {
+        NotificationManager manager = context.getSystemService(NotificationManager.class);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && manager.getNotificationChannel(CHANNEL_ID) == null) {
+            manager.createNotificationChannel(new NotificationChannel(CHANNEL_ID, "Task reminders",
+                    NotificationManager.IMPORTANCE_HIGH));
+        }
+        if (!NotificationManagerCompat.from(context).areNotificationsEnabled()) {
+            return;
+        }
+
+        PendingIntent openTasks = PendingIntent.getActivity(context, 0,
+                new Intent(context, TaskActivity.class), PendingIntent.FLAG_IMMUTABLE);
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(R.mipmap.ic_launcher)
+                .setContentTitle(task.getTitle())
+                .setContentText(contentText(task, remindAt))
+                .setContentIntent(openTasks)
+                .setAutoCancel(true)
+                .setPriority(NotificationCompat.PRIORITY_HIGH);
+        manager.notify(task.getTaskId().hashCode(), builder.build());
+    }
+
+    // Summary rows carry no description, so the due time is shown instead
+    private static String contentText(Task task, long remindAt) {
+        String description = task.getDescription();
+        if (description != null && !description.isEmpty()) {
+            return description;
+        }
+        long dueAt = remindAt + task.getDueAt() - task.getRemindAt(); // This occurrence's
+        return "Due at " + TaskDates.formatTime(dueAt);
+    }
+}
@@ -1,35 +1,63 @@
 package com.app.task_manager;
 
-import android.app.AlarmManager;
 import android.app.AlertDialog;
 import android.app.DatePickerDialog;
-import android.app.PendingIntent;
+import android.Manifest;
 import android.app.TimePickerDialog;
 import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.net.Uri;
+import android.os.Build;
 import android.os.Bundle;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.text.Editable;
 import android.text.TextUtils;
+import android.text.TextWatcher;
 import android.util.Log;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.*;
 
 import android.view.View;
+import android.view.ViewTreeObserver;
 import android.widget.*;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.app.ActivityCompat;
+import androidx.core.content.ContextCompat;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.auth.FirebaseUser;
 
+// Shows the signed-in user's TaskSession. The session, kept by TaskRepository through
+// TaskListViewModel, owns the list and its sync; this screen binds the published rows and forwards
+// user actions, so recreating it re-renders from memory.
 public class TaskActivity extends AppCompatActivity implements TaskAdapter.OnTaskActionListener {
 
-    private FirebaseFirestore db = FirebaseFirestore.getInstance();
     private RecyclerView recyclerView;
     private TaskAdapter taskAdapter;
-    private List<Task> taskList = new ArrayList<>();
+    private TaskSession session; // Null when nobody is signed in
+    private boolean firstRenderReported; // Main thread only
+    private static boolean startupReported; // Once per process, main thread only
+
+    private static final int REQUEST_NOTIFICATIONS = 1;
     private Button addTaskButton;
+    private Button filterButton;
+    private View bulkActions;
+    private TextView selectionCount;
+    private TextView dashboardText;
+    private TextView transferStatus;
+    private boolean selectionMode; // Main thread copy of "any task selected"
+
+    // Registered before onCreate, so a file picked before the screen was recreated still arrives
+    private final ActivityResultLauncher<String> exportLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("application/x-ndjson"), this::exportTo);
+    private final ActivityResultLauncher<String[]> importLauncher = registerForActivityResult(
+            new ActivityResultContracts.OpenDocument(), this::importFrom);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -38,50 +66,280 @@ public class TaskActivity extends AppCompatActivity implements TaskAdapter.OnTas
 
         recyclerView = findViewById(R.id.recyclerView);
         addTaskButton = findViewById(R.id.addTaskButton);
+        filterButton = findViewById(R.id.filterButton);
+        bulkActions = findViewById(R.id.bulkActions);
+        selectionCount = findViewById(R.id.selectionCount);
+        dashboardText = findViewById(R.id.dashboardText);
+        transferStatus = findViewById(R.id.transferStatus);
 
         // Set up RecyclerView
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
-        taskAdapter = new TaskAdapter(taskList, this);
+        recyclerView.setHasFixedSize(true);
+        recyclerView.getRecycledViewPool().setMaxRecycledViews(TaskAdapter.TYPE_TASK, TaskAdapter.RECYCLED_VIEW_POOL_SIZE);
+        taskAdapter = new TaskAdapter(this);
         recyclerView.setAdapter(taskAdapter);
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user != null) {
+            session = new ViewModelProvider(this).get(TaskListViewModel.class).getSession(user.getUid());
+            session.getRows().observe(this, this::showRows);
+            session.getDashboard().observe(this, this::showDashboard);
+            session.getErrors().observe(this, message -> {
+                if (message.markShown()) Toast.makeText(this, message.text, Toast.LENGTH_SHORT).show();
+            });
+        }
+        TaskTransfer.getStatus().observe(this, this::showTransferStatus);
+        ((EditText) findViewById(R.id.searchInput)).addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                if (session != null) session.search(s.toString().trim());
+            }
+        });
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView view, int dx, int dy) {
+                if (session != null) {
+                    onListScrolled();
+                }
+            }
 
-        // Load tasks from Firestore
-        getTasks();
+            @Override
+            public void onScrollStateChanged(RecyclerView view, int newState) {
+                if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                    prefetchVisibleDetails();
+                }
+            }
+        });
 
         // Set up add task button
         addTaskButton.setOnClickListener(view -> openCreateTaskDialog());
+        filterButton.setOnClickListener(view -> openFilterDialog());
+        findViewById(R.id.backupButton).setOnClickListener(view -> openBackupDialog());
+        findViewById(R.id.bulkDeleteButton).setOnClickListener(view -> bulkDelete());
+        findViewById(R.id.bulkPriorityButton).setOnClickListener(view -> openBulkPriorityDialog());
+        findViewById(R.id.bulkRescheduleButton).setOnClickListener(view -> openBulkRescheduleDialog());
+        findViewById(R.id.bulkCancelButton).setOnClickListener(view -> {
+            if (session != null) session.clearSelection();
+        });
+
+        // Work the first frame does not need waits until the main thread runs out of messages
+        Looper.myQueue().addIdleHandler(() -> {
+            requestNotificationPermission();
+            return false;
+        });
     }
 
-    private void getTasks() {
-        FirebaseAuth auth = FirebaseAuth.getInstance();
-        if (auth.getCurrentUser() == null) {
+    // Reminders are posted as notifications, which need a runtime permission from Android 13
+    private void requestNotificationPermission() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ContextCompat.checkSelfPermission(this, Manifest.permission.POST_NOTIFICATIONS)
+                != PackageManager.PERMISSION_GRANTED) {
+            ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.POST_NOTIFICATIONS},
+                    REQUEST_NOTIFICATIONS);
+        }
+    }
+
+    private void showRows(TaskListPipeline.Snapshot snapshot) {
+        taskAdapter.submit(snapshot);
+        if (session.isFirstScreenListed() && !firstRenderReported) {
+            firstRenderReported = true;
+            reportFirstRender();
+        }
+        selectionMode = snapshot.selectedCount > 0;
+        bulkActions.setVisibility(selectionMode ? View.VISIBLE : View.GONE);
+        selectionCount.setText(snapshot.selectedCount + " selected");
+        if (recyclerView.getScrollState() == RecyclerView.SCROLL_STATE_IDLE) {
+            prefetchVisibleDetails();
+        }
+    }
+
+    private void showDashboard(TaskCounts.Snapshot counts) {
+        dashboardText.setText(count("All", counts.get(TaskCounts.Key.ALL))
+                + ", " + count("High", counts.get(TaskCounts.Key.HIGH))
+                + ", " + count("Medium", counts.get(TaskCounts.Key.MEDIUM))
+                + ", " + count("Low", counts.get(TaskCounts.Key.LOW))
+                + ", " + count("Overdue", counts.get(TaskCounts.Key.OVERDUE))
+                + ", " + count("Today", counts.get(TaskCounts.Key.DUE_TODAY)));
+    }
+
+    private static String count(String label, long value) {
+        return label + " " + (value < 0 ? "-" : String.valueOf(value));
+    }
+
+    // Startup metric: time from process start to the first drawn frame showing the stored tasks.
+    // Only the first activity of the process reports it, so warm starts do not count.
+    private void reportFirstRender() {
+        recyclerView.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                recyclerView.getViewTreeObserver().removeOnPreDrawListener(this);
+                if (!startupReported) {
+                    startupReported = true;
+                    long elapsed = SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+                    Log.i("Startup", "Time to first task rendered: " + elapsed + " ms");
+                    TaskMetrics.record("startup.firstContent", elapsed * 1_000_000);
+                }
+                reportFullyDrawn();
+                return true;
+            }
+        });
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        if (session == null) {
             Toast.makeText(this, "Please log in to view your tasks.", Toast.LENGTH_SHORT).show();
             return;
         }
+        session.onForeground();
+    }
 
-        String userId = auth.getCurrentUser().getUid();
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // Across a rotation the session keeps listening, the next instance picks it up as it is
+        if (session != null && !isChangingConfigurations()) {
+            session.onBackground();
+        }
+    }
 
-        db.collection("tasks")
-                .whereEqualTo("userId", userId) // Query for tasks with the current user's ID
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    taskList.clear();
-                    for (QueryDocumentSnapshot documentSnapshot : queryDocumentSnapshots) {
-                        Task task = documentSnapshot.toObject(Task.class);
-                        task.setTaskId(documentSnapshot.getId());
+    private void onListScrolled() {
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION) {
+            return;
+        }
+        session.onListScrolled(first, last);
+    }
 
-                        String reminderDateTime = task.getReminderDateTime();
-                        if (TextUtils.isEmpty(reminderDateTime)) {
-                            Log.e("TaskActivity", "ReminderDateTime is null or empty for task: " + task.getTitle());
-                            continue; // Skip tasks with invalid or empty reminderDateTime
-                        }
+    // Descriptions are not part of the list documents; fetch them for the rows the user is
+    // looking at, so the editor usually opens without waiting
+    private void prefetchVisibleDetails() {
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        int first = layoutManager.findFirstVisibleItemPosition();
+        if (session == null || first == RecyclerView.NO_POSITION) {
+            return;
+        }
+        session.getDetailCache().prefetch(taskAdapter.idsWithoutDescription(first, layoutManager.findLastVisibleItemPosition()));
+    }
 
-                        taskList.add(task);
+    private void openBackupDialog() {
+        if (session == null) {
+            Toast.makeText(this, "Please log in to back up your tasks.", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if (TaskTransfer.isRunning()) {
+            Toast.makeText(this, "An export or import is already running", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        new AlertDialog.Builder(this)
+                .setTitle("Backup")
+                .setItems(new String[]{"Export tasks to a file", "Import tasks from a file"}, (dialog, which) -> {
+                    if (which == 0) {
+                        exportLauncher.launch("tasks-" + TaskDates.formatDate(System.currentTimeMillis()) + ".ndjson");
+                    } else {
+                        // Many document providers do not know the NDJSON type, so any file can be picked
+                        importLauncher.launch(new String[]{"*/*"});
                     }
-                    taskAdapter.notifyDataSetChanged();
                 })
-                .addOnFailureListener(e -> {
-                    Toast.makeText(TaskActivity.this, "Error fetching tasks: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                });
+                .show();
+    }
+
+    private void exportTo(Uri uri) {
+        if (uri != null && session != null) TaskTransfer.export(this, uri, session.getUserId());
+    }
+
+    private void importFrom(Uri uri) {
+        if (uri != null && session != null) TaskTransfer.importFrom(this, uri, session.getUserId());
+    }
+
+    private void showTransferStatus(TaskTransfer.Status status) {
+        transferStatus.setVisibility(status.finished ? View.GONE : View.VISIBLE);
+        transferStatus.setText(status.text);
+        if (status.markShown()) Toast.makeText(this, status.text, Toast.LENGTH_LONG).show();
+    }
+
+    private void openFilterDialog() {
+        if (session == null) {
+            return;
+        }
+        TaskFilter filter = session.getFilter();
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle("Filter Tasks");
+
+        View dialogView = getLayoutInflater().inflate(R.layout.dialog_filter, null);
+        builder.setView(dialogView);
+
+        CheckBox[] priorityBoxes = {
+                dialogView.findViewById(R.id.filterLow),
+                dialogView.findViewById(R.id.filterMedium),
+                dialogView.findViewById(R.id.filterHigh)
+        };
+        CheckBox overdueBox = dialogView.findViewById(R.id.filterOverdue);
+        TextView dueFromText = dialogView.findViewById(R.id.filterDueFrom);
+        TextView dueToText = dialogView.findViewById(R.id.filterDueTo);
+        EditText titlePrefixInput = dialogView.findViewById(R.id.filterTitlePrefix);
+        Spinner sortSpinner = dialogView.findViewById(R.id.filterSort);
+
+        // Pre-fill with the current filter
+        for (int priority = 0; priority < priorityBoxes.length; priority++) {
+            priorityBoxes[priority].setChecked(filter.getPriorities().contains(priority));
+        }
+        overdueBox.setChecked(filter.isOverdueOnly());
+        showFilterDate(dueFromText, "Due from: ", filter.getDueFrom());
+        showFilterDate(dueToText, "Due before: ", filter.getDueTo());
+        titlePrefixInput.setText(filter.getTitlePrefix());
+        sortSpinner.setSelection(filter.getSortKey().ordinal());
+
+        dueFromText.setOnClickListener(v -> showFilterDatePicker(dueFromText, "Due from: "));
+        dueToText.setOnClickListener(v -> showFilterDatePicker(dueToText, "Due before: "));
+
+        builder.setPositiveButton("Apply", (dialog, which) -> {
+            TaskFilter newFilter = new TaskFilter();
+            List<Integer> priorities = new ArrayList<>();
+            for (int priority = 0; priority < priorityBoxes.length; priority++) {
+                if (priorityBoxes[priority].isChecked()) priorities.add(priority);
+            }
+            newFilter.setPriorities(priorities);
+            newFilter.setOverdueOnly(overdueBox.isChecked());
+            newFilter.setDueFrom(dueFromText.getTag() == null ? 0 : (Long) dueFromText.getTag());
+            newFilter.setDueTo(dueToText.getTag() == null ? 0 : (Long) dueToText.getTag());
+            newFilter.setTitlePrefix(titlePrefixInput.getText().toString());
+            newFilter.setSortKey(TaskFilter.SortKey.values()[sortSpinner.getSelectedItemPosition()]);
+            session.setFilter(newFilter);
+        });
+
+        builder.setNeutralButton("Clear", (dialog, which) -> session.setFilter(new TaskFilter()));
+        builder.setNegativeButton("Cancel", (dialog, which) -> dialog.dismiss());
+
+        builder.show();
+    }
+
+    private void showFilterDatePicker(TextView dateText, String label) {
+        Calendar calendar = Calendar.getInstance();
+        new DatePickerDialog(
+                this,
+                (view, year, month, dayOfMonth) -> {
+                    calendar.clear();
+                    calendar.set(year, month, dayOfMonth);
+                    showFilterDate(dateText, label, calendar.getTimeInMillis());
+                },
+                calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH), calendar.get(Calendar.DAY_OF_MONTH)
+        ).show();
+    }
+
+    private void showFilterDate(TextView dateText, String label, long epochMillis) {
+        dateText.setText(label + (epochMillis > 0 ? TaskDates.formatDate(epochMillis) : "any"));
+        dateText.setTag(epochMillis > 0 ? epochMillis : null);
     }
 
     private void openCreateTaskDialog() {
@@ -94,6 +352,7 @@ public class TaskActivity extends AppCompatActivity implements TaskAdapter.OnTas
         EditText inputTitle = dialogView.findViewById(R.id.inputTitle);
         EditText inputDescription = dialogView.findViewById(R.id.inputDescription);
         Spinner inputPriority = dialogView.findViewById(R.id.inputPriority);
+        Spinner inputRepeat = dialogView.findViewById(R.id.inputRepeat);
         TextView dueDateText = dialogView.findViewById(R.id.dueDateText);
         TextView timeText = dialogView.findViewById(R.id.timeText);
 
@@ -102,17 +361,15 @@ public class TaskActivity extends AppCompatActivity implements TaskAdapter.OnTas
         builder.setPositiveButton("Create", (dialog, which) -> {
             String title = inputTitle.getText().toString().trim();
             String description = inputDescription.getText().toString().trim();
-            String priority = inputPriority.getSelectedItem().toString().trim();
-            String dueDate = dueDateText.getText().toString().trim();
-            String dueTime = timeText.getText().toString().trim();
+            int priority = inputPriority.getSelectedItemPosition(); // Spinner order matches TaskPriority
+            Long dueAt = (Long) timeText.getTag();
 
-            if (TextUtils.isEmpty(title) || TextUtils.isEmpty(description) || TextUtils.isEmpty(priority) ||
-                    TextUtils.isEmpty(dueDate) || TextUtils.isEmpty(dueTime)) {
+            if (TextUtils.isEmpty(title) || TextUtils.isEmpty(description) || dueAt == null) {
                 Toast.makeText(TaskActivity.this, "Please fill all fields", Toast.LENGTH_SHORT).show();
                 return;
             }
 
-            createTask(title, description, priority, dueDate, dueTime);
+            createTask(title, description, priority, dueAt, recurrenceAt(inputRepeat.getSelectedItemPosition(), null));
         });
 
         builder.setNegativeButton("Cancel", (dialog, which) -> dialog.dismiss());
@@ -120,67 +377,150 @@ public class TaskActivity extends AppCompatActivity implements TaskAdapter.OnTas
         builder.show();
     }
 
+    // Picks a date then a time; the chosen instant is kept as epoch millis in the time view's tag
     private void showDateTimePickerDialog(TextView dueDateText, TextView timeText) {
+        Long current = (Long) timeText.getTag();
+        pickDateTime(current == null ? 0 : current, dueAt -> showDueAt(dueDateText, timeText, dueAt));
+    }
+
+    private void pickDateTime(long initial, DateTimeCallback callback) {
+        Calendar calendar = Calendar.getInstance();
+        if (initial != 0) {
+            calendar.setTimeInMillis(initial);
+        }
+
         DatePickerDialog datePickerDialog = new DatePickerDialog(
                 this,
                 (view, year, month, dayOfMonth) -> {
-                    String dueDate = year + "-" + (month + 1) + "-" + dayOfMonth;
-                    dueDateText.setText(dueDate);
+                    calendar.set(year, month, dayOfMonth);
 
                     TimePickerDialog timePickerDialog = new TimePickerDialog(
                             this,
                             (view1, hourOfDay, minute) -> {
-                                String dueTime = String.format("%02d:%02d", hourOfDay, minute);
-                                timeText.setText(dueTime);
+                                calendar.set(Calendar.HOUR_OF_DAY, hourOfDay);
+                                calendar.set(Calendar.MINUTE, minute);
+                                calendar.set(Calendar.SECOND, 0);
+                                calendar.set(Calendar.MILLISECOND, 0);
+                                callback.onPicked(calendar.getTimeInMillis());
                             },
-                            12, 0, true
+                            calendar.get(Calendar.HOUR_OF_DAY), calendar.get(Calendar.MINUTE), true
                     );
                     timePickerDialog.show();
                 },
-                2024, 0, 1
+                calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH), calendar.get(Calendar.DAY_OF_MONTH)
         );
         datePickerDialog.show();
     }
 
-    private void createTask(String taskName, String taskDescription, String taskPriority, String dueDate, String dueTime) {
-        FirebaseAuth auth = FirebaseAuth.getInstance();
-        if (auth.getCurrentUser() == null) {
+    private interface DateTimeCallback {
+        void onPicked(long epochMillis);
+    }
+
+    private void showDueAt(TextView dueDateText, TextView timeText, long dueAt) {
+        dueDateText.setText(TaskDates.formatDate(dueAt));
+        timeText.setText(TaskDates.formatTime(dueAt));
+        timeText.setTag(dueAt);
+    }
+
+    private void createTask(String taskName, String taskDescription, int taskPriority, long dueAt, String recurrence) {
+        if (session == null) {
             Toast.makeText(this, "Please log in to create a task.", Toast.LENGTH_SHORT).show();
             return;
         }
+        session.createTask(taskName, taskDescription, taskPriority, dueAt, recurrence);
+    }
 
-        String userId = auth.getCurrentUser().getUid();
-        String reminderDateTime = dueDate + " " + dueTime;
-
-        Task newTask = new Task(taskName, taskDescription, taskPriority, dueDate, reminderDateTime, userId);
+    // The rule for a position of the repeat spinner. Keeping the frequency keeps the current
+    // rule, so an interval or end set elsewhere survives an edit.
+    private static String recurrenceAt(int position, String current) {
+        if (position <= 0) {
+            return null;
+        }
+        Recurrence.Frequency frequency = Recurrence.Frequency.values()[position - 1];
+        return repeatPosition(current) == position ? current : new Recurrence(frequency, 1, 0, 0).format();
+    }
 
-        db.collection("tasks")
-                .add(newTask)
-                .addOnSuccessListener(documentReference -> {
-                    Toast.makeText(TaskActivity.this, "Task created successfully", Toast.LENGTH_SHORT).show();
-                    getTasks(); // Refresh tasks
-                })
-                .addOnFailureListener(e -> {
-                    Toast.makeText(TaskActivity.this, "Error creating task: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                });
+    private static int repeatPosition(String rule) {
+        try {
+            Recurrence recurrence = Recurrence.parse(rule);
+            return recurrence == null ? 0 : recurrence.getFrequency().ordinal() + 1;
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
     }
 
     @Override
     public void onDeleteTask(String taskId) {
-        db.collection("tasks").document(taskId)
-                .delete()
-                .addOnSuccessListener(aVoid -> {
-                    Toast.makeText(TaskActivity.this, "Task deleted", Toast.LENGTH_SHORT).show();
-                    getTasks();  // Refresh the list
-                })
-                .addOnFailureListener(e -> {
-                    Toast.makeText(TaskActivity.this, "Error deleting task: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                });
+        if (session != null) session.deleteTask(taskId);
     }
 
     @Override
     public void onEditTask(Task task) {
-        openEditTaskDialog(task);
+        if (task.getDescription() != null || session == null) {
+            openEditTaskDialog(task); // Created here or read from an older document that had it inline
+            return;
+        }
+        session.getDetailCache().get(task.getTaskId(), new TaskDetailCache.Callback() {
+            @Override
+            public void onLoaded(String description) {
+                Task editing = new Task(task);
+                editing.setDescription(description);
+                openEditTaskDialog(editing);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Toast.makeText(TaskActivity.this, "Error loading task: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    @Override
+    public void onTaskClicked(String taskId) {
+        if (selectionMode && session != null) {
+            session.toggleSelected(taskId);
+        }
+    }
+
+    @Override
+    public void onTaskLongClicked(String taskId) {
+        if (session != null) session.toggleSelected(taskId);
+    }
+
+    private void bulkDelete() {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("deleted", true);
+        applyBulk("delete", fields, task -> task.setDeleted(true));
+    }
+
+    private void openBulkPriorityDialog() {
+        new AlertDialog.Builder(this)
+                .setTitle("Set Priority")
+                .setItems(R.array.task_priorities, (dialog, priority) -> {
+                    Map<String, Object> fields = new HashMap<>();
+                    fields.put("priority", priority);
+                    applyBulk("update", fields, task -> task.setPriority(priority));
+                })
+                .show();
+    }
+
+    private void openBulkRescheduleDialog() {
+        pickDateTime(0, dueAt -> {
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("dueAt", dueAt);
+            fields.put("remindAt", dueAt);
+            // As in TaskSession.updateTask: exceptions are keyed by where the old first due time put each occurrence
+            fields.put("recurrenceExceptions", null);
+            applyBulk("reschedule", fields, task -> {
+                task.setDueAt(dueAt);
+                task.setRemindAt(dueAt);
+                task.setRecurrenceExceptions(null);
+            });
+        });
+    }
+
+    private void applyBulk(String action, Map<String, Object> fields, TaskSession.BulkEdit edit) {
+        if (session != null) session.applyBulk(action, fields, edit);
     }
 
     private void openEditTaskDialog(Task task) {
@@ -194,32 +534,21 @@ public class TaskActivity extends AppCompatActivity implements TaskAdapter.OnTas
         EditText inputTitle = dialogView.findViewById(R.id.inputTitle);
         EditText inputDescription = dialogView.findViewById(R.id.inputDescription);
         Spinner inputPriority = dialogView.findViewById(R.id.inputPriority);
+        Spinner inputRepeat = dialogView.findViewById(R.id.inputRepeat);
         TextView dueDateText = dialogView.findViewById(R.id.dueDateText);
         TextView timeText = dialogView.findViewById(R.id.timeText);
 
         // Pre-fill the dialog with the task's current data
         inputTitle.setText(task.getTitle());
         inputDescription.setText(task.getDescription());
-        dueDateText.setText(task.getDueDate());
-
-        // Extract the time from reminderDateTime (e.g., "2024-11-30 14:30")
-        if (!TextUtils.isEmpty(task.getReminderDateTime())) {
-            String[] dateTimeParts = task.getReminderDateTime().split(" ");
-            if (dateTimeParts.length == 2) {
-                dueDateText.setText(dateTimeParts[0]);
-                timeText.setText(dateTimeParts[1]);
-            }
-        }
+        showDueAt(dueDateText, timeText, task.getRemindAt() != 0 ? task.getRemindAt() : task.getDueAt());
 
         // Set the spinner to the current priority
         ArrayAdapter<CharSequence> adapter = ArrayAdapter.createFromResource(this, R.array.task_priorities, android.R.layout.simple_spinner_item);
         adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
         inputPriority.setAdapter(adapter);
-
-        if (task.getPriority() != null) {
-            int priorityPosition = adapter.getPosition(task.getPriority());
-            inputPriority.setSelection(priorityPosition);
-        }
+        inputPriority.setSelection(task.getPriority());
+        inputRepeat.setSelection(repeatPosition(task.getRecurrence()));
 
         // Date and time picker dialog setup
         dueDateText.setOnClickListener(v -> showDateTimePickerDialog(dueDateText, timeText));
@@ -228,45 +557,31 @@ public class TaskActivity extends AppCompatActivity implements TaskAdapter.OnTas
         builder.setPositiveButton("Update", (dialog, which) -> {
             String newTitle = inputTitle.getText().toString().trim();
             String newDescription = inputDescription.getText().toString().trim();
-            String newPriority = inputPriority.getSelectedItem().toString().trim();
-            String newDueDate = dueDateText.getText().toString().trim();
-            String newDueTime = timeText.getText().toString().trim();
+            int newPriority = inputPriority.getSelectedItemPosition();
+            Long newDueAt = (Long) timeText.getTag();
 
             // Validate input fields
-            if (TextUtils.isEmpty(newTitle) || TextUtils.isEmpty(newDescription) || TextUtils.isEmpty(newPriority) ||
-                    TextUtils.isEmpty(newDueDate) || TextUtils.isEmpty(newDueTime)) {
+            if (TextUtils.isEmpty(newTitle) || TextUtils.isEmpty(newDescription) || newDueAt == null) {
                 Toast.makeText(TaskActivity.this, "Please fill all fields", Toast.LENGTH_SHORT).show();
                 return;
             }
 
             // Update the task
-            updateTask(task.getTaskId(), newTitle, newDescription, newPriority, newDueDate, newDueTime);
+            String newRecurrence = recurrenceAt(inputRepeat.getSelectedItemPosition(), task.getRecurrence());
+            if (session != null) {
+                session.updateTask(task, newTitle, newDescription, newPriority, newDueAt, newRecurrence);
+            }
         });
 
+        if (task.getRecurrence() != null) {
+            builder.setNeutralButton("Skip next", (dialog, which) -> {
+                if (session != null) session.skipNextOccurrence(task.getTaskId());
+            });
+        }
+
         builder.setNegativeButton("Cancel", (dialog, which) -> dialog.dismiss());
 
         builder.show();
     }
 
-
-    private void updateTask(String taskId, String newTitle, String newDescription, String newPriority, String newDueDate, String newDueTime) {
-        String reminderDateTime = newDueDate + " " + newDueTime;
-
-        Map<String, Object> updates = new HashMap<>();
-        updates.put("title", newTitle);
-        updates.put("description", newDescription);
-        updates.put("priority", newPriority);
-        updates.put("dueDate", newDueDate);
-        updates.put("reminderDateTime", reminderDateTime);
-
-        db.collection("tasks").document(taskId)
-                .update(updates)
-                .addOnSuccessListener(aVoid -> {
-                    Toast.makeText(TaskActivity.this, "Task updated", Toast.LENGTH_SHORT).show();
-                    getTasks();  // Refresh the list
-                })
-                .addOnFailureListener(e -> {
-                    Toast.makeText(TaskActivity.this, "Error updating task: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                });
-    }
 }
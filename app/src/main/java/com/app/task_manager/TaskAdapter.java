@@ -14,53 +14,200 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.*;
 
-public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder> {
+// Binds precomputed TaskRow models; nothing is formatted or allocated per bind. Section headers
+// are rows of their own view type.
+public class TaskAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
 
-    private List<Task> taskList;
+    static final int TYPE_TASK = 0;
+    static final int TYPE_HEADER = 1;
+
+    // Enough recycled rows to cover a fast fling on a tall screen without inflating
+    static final int RECYCLED_VIEW_POOL_SIZE = 20;
+
+    private List<TaskRow> rows = Collections.emptyList();
     private OnTaskActionListener onTaskActionListener;
 
-    public TaskAdapter(List<Task> taskList, OnTaskActionListener listener) {
-        this.taskList = taskList;
+    public TaskAdapter(OnTaskActionListener listener) {
         this.onTaskActionListener = listener;
+        setHasStableIds(true);
+    }
+
+    // Swaps in a snapshot published by TaskListPipeline; its changes were worked out off the main
+    // thread. They only apply on top of the rows they were computed from: an adapter that missed
+    // snapshots, e.g. a new one after a rotation, rebinds everything instead.
+    public void submit(TaskListPipeline.Snapshot snapshot) {
+        long start = TaskMetrics.start();
+        boolean changesApply = rows == snapshot.previousRows;
+        this.rows = snapshot.rows;
+        if (!changesApply) {
+            notifyDataSetChanged();
+        } else if (snapshot.diff != null) {
+            snapshot.diff.dispatchUpdatesTo(this);
+        } else {
+            dispatch(snapshot.changes);
+        }
+        TaskMetrics.stop("list.dispatch", start);
+    }
+
+    private void dispatch(List<RowUpdates.Change> changes) {
+        for (RowUpdates.Change change : changes) {
+            switch (change.type) {
+                case INSERTED:
+                    notifyItemInserted(change.position);
+                    break;
+                case REMOVED:
+                    notifyItemRemoved(change.position);
+                    break;
+                case CHANGED:
+                    notifyItemChanged(change.position);
+                    break;
+                case MOVED:
+                    notifyItemMoved(change.position, change.toPosition);
+                    break;
+            }
+        }
     }
 
     @NonNull
     @Override
-    public TaskViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View itemView = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.task_item, parent, false);
-        return new TaskViewHolder(itemView);
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+        if (viewType == TYPE_HEADER) {
+            return new HeaderViewHolder(inflater.inflate(R.layout.task_section_header, parent, false));
+        }
+        return new TaskViewHolder(inflater.inflate(R.layout.task_item, parent, false), this);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        long start = TaskMetrics.start();
+        TaskRow row = rows.get(position);
+        if (holder instanceof HeaderViewHolder) {
+            ((HeaderViewHolder) holder).title.setText(row.getTitle());
+        } else {
+            TaskRowBinder.bind(row, (TaskViewHolder) holder);
+        }
+        TaskMetrics.stop("list.bind", start);
     }
 
     @Override
-    public void onBindViewHolder(@NonNull TaskViewHolder holder, int position) {
-        Task task = taskList.get(position);
-        holder.taskTitle.setText(task.getTitle());
-        holder.taskdate.setText(task.getDueDate());
-        holder.deleteButton.setOnClickListener(v -> onTaskActionListener.onDeleteTask(task.getTaskId()));
-        holder.editButton.setOnClickListener(v -> onTaskActionListener.onEditTask(task));
+    public int getItemViewType(int position) {
+        return rows.get(position).isHeader() ? TYPE_HEADER : TYPE_TASK;
     }
 
     @Override
     public int getItemCount() {
-        return taskList.size();
+        return rows.size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return rows.get(position).getStableId();
+    }
+
+    // Ids of the loaded rows in the range whose description is not on hand, for prefetching
+    public List<String> idsWithoutDescription(int from, int to) {
+        List<String> ids = new ArrayList<>();
+        for (int position = Math.max(0, from); position <= to && position < rows.size(); position++) {
+            TaskRow row = rows.get(position);
+            if (row.getTask() != null && row.getTask().getDescription() == null) {
+                ids.add(row.getTaskId());
+            }
+        }
+        return ids;
+    }
+
+    // Resolves a click against the current snapshot; rows being removed or evicted are ignored
+    private TaskRow rowAt(int position) {
+        if (position == RecyclerView.NO_POSITION || position >= rows.size()) {
+            return null;
+        }
+        TaskRow row = rows.get(position);
+        return row.getTask() == null ? null : row;
     }
 
-    public static class TaskViewHolder extends RecyclerView.ViewHolder {
-        TextView taskTitle, taskdate;
+    // Listeners are created once per holder and look the row up when clicked
+    public static class TaskViewHolder extends RecyclerView.ViewHolder implements TaskRowBinder.RowView {
+        TextView taskTitle, taskdate, taskPriority;
         Button deleteButton, editButton;
 
-        public TaskViewHolder(@NonNull View itemView) {
+        public TaskViewHolder(@NonNull View itemView, TaskAdapter adapter) {
             super(itemView);
             taskTitle = itemView.findViewById(R.id.taskTitle);
             taskdate = itemView.findViewById(R.id.taskDueDate);
+            taskPriority = itemView.findViewById(R.id.taskPriority);
             deleteButton = itemView.findViewById(R.id.deleteTaskButton);
             editButton = itemView.findViewById(R.id.editTaskButton);
+
+            deleteButton.setOnClickListener(v -> {
+                TaskRow row = adapter.rowAt(getBindingAdapterPosition());
+                if (row != null) adapter.onTaskActionListener.onDeleteTask(row.getTaskId());
+            });
+            editButton.setOnClickListener(v -> {
+                TaskRow row = adapter.rowAt(getBindingAdapterPosition());
+                if (row != null) adapter.onTaskActionListener.onEditTask(row.getTask());
+            });
+            itemView.setOnClickListener(v -> {
+                TaskRow row = adapter.rowAt(getBindingAdapterPosition());
+                if (row != null) adapter.onTaskActionListener.onTaskClicked(row.getTaskId());
+            });
+            itemView.setOnLongClickListener(v -> {
+                TaskRow row = adapter.rowAt(getBindingAdapterPosition());
+                if (row == null) {
+                    return false;
+                }
+                adapter.onTaskActionListener.onTaskLongClicked(row.getTaskId());
+                return true;
+            });
+        }
+
+        @Override
+        public void setTitle(CharSequence title) {
+            taskTitle.setText(title);
+        }
+
+        @Override
+        public void setDueDate(CharSequence dueDate) {
+            taskdate.setText(dueDate);
+        }
+
+        @Override
+        public void setPriority(CharSequence priority) {
+            taskPriority.setText(priority);
+        }
+
+        @Override
+        public void setAlpha(float alpha) {
+            itemView.setAlpha(alpha);
+        }
+
+        @Override
+        public void setActionsEnabled(boolean enabled) {
+            deleteButton.setEnabled(enabled);
+            editButton.setEnabled(enabled);
+        }
+
+        // The row background shows the activated state
+        @Override
+        public void setSelected(boolean selected) {
+            itemView.setActivated(selected);
+        }
+    }
+
+    public static class HeaderViewHolder extends RecyclerView.ViewHolder {
+        final TextView title;
+
+        HeaderViewHolder(@NonNull View itemView) {
+            super(itemView);
+            title = itemView.findViewById(R.id.sectionTitle);
         }
     }
 
     public interface OnTaskActionListener {
         void onDeleteTask(String taskId);
         void onEditTask(Task task);
+        void onTaskClicked(String taskId);
+        // Starts or extends a multi-selection
+        void onTaskLongClicked(String taskId);
     }
 }
@@ -0,0 +1,14 @@
+package com.app.task_manager;
+
+import android.app.Application;
+import android.content.pm.ApplicationInfo;
+
+public class TaskApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // Timings are collected in debuggable builds only, where MetricsActivity shows them
+        TaskMetrics.setEnabled((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0);
+    }
+}
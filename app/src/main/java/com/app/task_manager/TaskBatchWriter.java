@@ -0,0 +1,104 @@
+package com.app.task_manager;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+// Writes the same fields to many task documents as WriteBatch commits of at most 500 writes,
+// optionally deleting each task's detail document in the same batch.
+// Only a few chunks are in flight at once so a large selection does not flood the connection,
+// and the caller hears back once, after every chunk has either committed or failed.
+public class TaskBatchWriter {
+
+    // Firestore rejects batches with more than 500 writes
+    public static final int MAX_BATCH_WRITES = 500;
+    static final int MAX_IN_FLIGHT = 3;
+
+    private final FirebaseFirestore db;
+    private final Executor executor;
+
+    public TaskBatchWriter(FirebaseFirestore db, Executor executor) {
+        this.db = db;
+        this.executor = executor;
+    }
+
+    public void update(List<String> taskIds, Map<String, Object> fields, boolean deleteDetails, Callback callback) {
+        int tasksPerChunk = deleteDetails ? MAX_BATCH_WRITES / 2 : MAX_BATCH_WRITES;
+        List<List<String>> chunks = new ArrayList<>();
+        for (int start = 0; start < taskIds.size(); start += tasksPerChunk) {
+            int end = Math.min(taskIds.size(), start + tasksPerChunk);
+            chunks.add(new ArrayList<>(taskIds.subList(start, end)));
+        }
+        new Run(chunks, fields, deleteDetails, callback).start();
+    }
+
+    private class Run {
+        private final List<List<String>> chunks;
+        private final Map<String, Object> fields;
+        private final boolean deleteDetails;
+        private final Callback callback;
+        private final Set<String> failed = new HashSet<>();
+        private Exception firstError;
+        private int nextChunk, finishedChunks;
+
+        Run(List<List<String>> chunks, Map<String, Object> fields, boolean deleteDetails, Callback callback) {
+            this.chunks = chunks;
+            this.fields = fields;
+            this.deleteDetails = deleteDetails;
+            this.callback = callback;
+        }
+
+        synchronized void start() {
+            if (chunks.isEmpty()) {
+                executor.execute(() -> callback.onComplete(failed, null));
+                return;
+            }
+            while (nextChunk < Math.min(MAX_IN_FLIGHT, chunks.size())) {
+                commit(chunks.get(nextChunk++));
+            }
+        }
+
+        private void commit(List<String> chunk) {
+            long start = TaskMetrics.start();
+            WriteBatch batch = db.batch();
+            for (String taskId : chunk) {
+                batch.update(db.collection("tasks").document(taskId), fields);
+                if (deleteDetails) {
+                    batch.delete(db.collection(TaskSchema.DETAILS_COLLECTION).document(taskId));
+                }
+            }
+            FirestoreMetrics.write("firestore.write.batch", batch.commit(), chunk.size() * (deleteDetails ? 2 : 1), start)
+                    .addOnSuccessListener(executor, aVoid -> {
+                        callback.onChunkCommitted(chunk);
+                        finished(chunk, null);
+                    })
+                    .addOnFailureListener(executor, e -> finished(chunk, e));
+        }
+
+        private synchronized void finished(List<String> chunk, Exception e) {
+            if (e != null) {
+                failed.addAll(chunk);
+                if (firstError == null) firstError = e;
+            }
+            finishedChunks++;
+            if (nextChunk < chunks.size()) {
+                commit(chunks.get(nextChunk++));
+            } else if (finishedChunks == chunks.size()) {
+                callback.onComplete(failed, firstError);
+            }
+        }
+    }
+
+    public interface Callback {
+        // Called as each chunk is acknowledged, e.g. to mark its rows clean
+        void onChunkCommitted(List<String> taskIds);
+        // Called once after the last chunk; failedTaskIds is empty if everything was written
+        void onComplete(Set<String> failedTaskIds, Exception firstError);
+    }
+}
@@ -0,0 +1,247 @@
+package com.app.task_manager;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+
+import java.util.Calendar;
+import java.util.EnumSet;
+import java.util.Set;
+
+// The numbers in the task screen header, each from a Firestore count() aggregation over the
+// tasks the list shows (TaskFilter.isListed), so a number costs one read per 1000 matching tasks
+// instead of downloading every document, and none of it needs the list to be loaded. Counts are
+// kept in TaskCounts and in SharedPreferences, so a relaunch shows them without reading anything
+// while they are fresh.
+// Confined to the TaskListPipeline thread.
+public class TaskDashboard {
+
+    private static final String TAG = "TaskDashboard";
+    private static final String PREFS_NAME = "task_dashboard";
+    // Remote changes often come in bursts, e.g. a bulk edit on another device; they are refetched together
+    private static final long REFRESH_DELAY_MS = 2000;
+
+    private final FirebaseFirestore db;
+    private final String userId;
+    private final TaskListPipeline pipeline;
+    private final SharedPreferences prefs;
+    private final TaskMigrator migrator;
+    private final TaskCounts counts = new TaskCounts();
+    private final MutableLiveData<TaskCounts.Snapshot> summary = new MutableLiveData<>();
+    private final Set<TaskCounts.Key> fetching = EnumSet.noneOf(TaskCounts.Key.class);
+    private boolean restored, visible, refreshScheduled, legacyUpgraded, upgradingLegacy;
+
+    public TaskDashboard(Context context, FirebaseFirestore db, String userId, TaskListPipeline pipeline) {
+        this.db = db;
+        this.userId = userId;
+        this.pipeline = pipeline;
+        this.migrator = new TaskMigrator(db);
+        this.prefs = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    // Any thread
+    public LiveData<TaskCounts.Snapshot> getSummary() {
+        return summary;
+    }
+
+    // Counts are only fetched while the header is on screen
+    public void setVisible(boolean visible) {
+        this.visible = visible;
+        if (visible) refresh();
+    }
+
+    // Fetches the counts that are missing, invalidated or expired
+    public void refresh() {
+        if (!restored) {
+            restore();
+        }
+        updateDay();
+        publish();
+        Set<TaskCounts.Key> stale = counts.staleKeys(System.currentTimeMillis());
+        if (stale.isEmpty()) {
+            return;
+        }
+        if (!legacyUpgraded) {
+            upgradeLegacy();
+            return;
+        }
+        for (TaskCounts.Key key : stale) {
+            if (!fetching.contains(key)) fetch(key);
+        }
+    }
+
+    // A local write was made; returns what to hand to confirm() or rollback(), null if no count moves
+    public TaskCounts.Delta applyLocal(Task before, Task after) {
+        updateDay();
+        TaskCounts.Delta delta = counts.delta(null, before, after);
+        if (delta.isEmpty()) {
+            return null;
+        }
+        counts.applyPending(delta);
+        publish();
+        return delta;
+    }
+
+    public void confirm(TaskCounts.Delta delta) {
+        if (delta == null) return;
+        counts.confirm(delta);
+        save();
+        publish();
+    }
+
+    public void rollback(TaskCounts.Delta delta) {
+        if (delta == null) return;
+        counts.rollback(delta);
+        publish();
+    }
+
+    // A change made on another device; before is null when its previous state is not in memory
+    public void onRemoteChange(Task before, Task after) {
+        updateDay();
+        counts.onRemoteChange(before, after);
+        scheduleRefresh();
+    }
+
+    private void scheduleRefresh() {
+        if (!visible || refreshScheduled || counts.staleKeys(System.currentTimeMillis()).isEmpty()) {
+            return;
+        }
+        refreshScheduled = true;
+        pipeline.schedule(() -> {
+            refreshScheduled = false;
+            if (visible) refresh();
+        }, REFRESH_DELAY_MS);
+    }
+
+    // The count queries only match documents with deleted, remindAt and a numeric priority, which
+    // v1 documents lack. The v1 documents the list shows, those with a reminder time, are upgraded
+    // before the first count; once the user has none left, this costs one read per session.
+    private void upgradeLegacy() {
+        if (upgradingLegacy) {
+            return;
+        }
+        upgradingLegacy = true;
+        long start = TaskMetrics.start();
+        FirestoreMetrics.time("firestore.query.legacy", db.collection("tasks")
+                        .whereEqualTo("userId", userId)
+                        .whereGreaterThan(TaskSchema.LEGACY_REMINDER_DATE_TIME, "")
+                        .get(), start)
+                .continueWithTask(pipeline, query -> {
+                    FirestoreMetrics.read(query.getResult().size());
+                    for (DocumentSnapshot document : query.getResult()) {
+                        migrator.decode(document);
+                    }
+                    return migrator.flush();
+                })
+                .addOnCompleteListener(pipeline, done -> {
+                    upgradingLegacy = false;
+                    if (!done.isSuccessful()) {
+                        Log.w(TAG, "Upgrading legacy tasks failed", done.getException());
+                        return; // Counts stay stale; tried again on the next refresh
+                    }
+                    legacyUpgraded = true;
+                    refresh();
+                });
+    }
+
+    private void fetch(TaskCounts.Key key) {
+        int version = counts.version(key);
+        fetching.add(key);
+        long start = TaskMetrics.start();
+        FirestoreMetrics.time("firestore.count", query(key).count().get(AggregateSource.SERVER), start)
+                .addOnCompleteListener(pipeline, done -> {
+                    fetching.remove(key);
+                    if (!done.isSuccessful()) {
+                        Log.w(TAG, "Count " + key + " failed", done.getException());
+                        return; // Stays stale; tried again on the next refresh
+                    }
+                    FirestoreMetrics.read(1);
+                    long count = done.getResult().getCount();
+                    if (counts.setServerCount(key, version, count, System.currentTimeMillis())) {
+                        save();
+                        publish();
+                    } else {
+                        scheduleRefresh(); // Changed while in flight
+                    }
+                });
+    }
+
+    // TaskFilter.isListed() as a query: tombstones keep their documents, and tasks without a
+    // reminder time are not shown
+    private Query query(TaskCounts.Key key) {
+        Query query = db.collection("tasks")
+                .whereEqualTo("userId", userId)
+                .whereEqualTo("deleted", false)
+                .whereGreaterThan("remindAt", 0);
+        switch (key) {
+            case LOW:
+                return query.whereEqualTo("priority", TaskPriority.LOW);
+            case MEDIUM:
+                return query.whereEqualTo("priority", TaskPriority.MEDIUM);
+            case HIGH:
+                return query.whereEqualTo("priority", TaskPriority.HIGH);
+            case OVERDUE:
+                return query.whereLessThan("dueAt", counts.getDayStart());
+            case DUE_TODAY:
+                return query.whereGreaterThanOrEqualTo("dueAt", counts.getDayStart())
+                        .whereLessThan("dueAt", counts.getDayEnd());
+            default:
+                return query;
+        }
+    }
+
+    // Local midnight to midnight, so the day-relative counts roll over with the user's calendar
+    private void updateDay() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        long dayStart = calendar.getTimeInMillis();
+        calendar.add(Calendar.DAY_OF_MONTH, 1);
+        counts.setDay(dayStart, calendar.getTimeInMillis());
+    }
+
+    private void publish() {
+        summary.postValue(counts.snapshot());
+    }
+
+    private void restore() {
+        restored = true;
+        if (!prefs.contains(prefix() + "dayStart")) {
+            return;
+        }
+        // The stored day first, so counts of an earlier day come back already invalidated
+        counts.setDay(prefs.getLong(prefix() + "dayStart", 0), prefs.getLong(prefix() + "dayEnd", 0));
+        for (TaskCounts.Key key : TaskCounts.Key.values()) {
+            String name = prefix() + key.name();
+            if (prefs.contains(name)) {
+                counts.restore(key, prefs.getLong(name, 0), prefs.getLong(name + ".fetchedAt", 0));
+            }
+        }
+    }
+
+    private void save() {
+        SharedPreferences.Editor editor = prefs.edit()
+                .putLong(prefix() + "dayStart", counts.getDayStart())
+                .putLong(prefix() + "dayEnd", counts.getDayEnd());
+        for (TaskCounts.Key key : TaskCounts.Key.values()) {
+            if (counts.getFetchedAt(key) == 0) continue;
+            String name = prefix() + key.name();
+            editor.putLong(name, counts.getServerCount(key)).putLong(name + ".fetchedAt", counts.getFetchedAt(key));
+        }
+        editor.apply();
+    }
+
+    private String prefix() {
+        return userId + ".";
+    }
+}
@@ -0,0 +1,151 @@
+package com.app.task_manager;
+
+import android.util.LruCache;
+
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Descriptions live in taskDetails/{id} and are only needed by the editor. They are fetched on
+// demand, kept in a small LRU bounded by total characters, and prefetched for the rows on screen
+// so opening the editor usually needs no round trip. Main thread only.
+public class TaskDetailCache {
+
+    // Total description characters kept in memory
+    private static final int MAX_CACHED_CHARS = 256 * 1024;
+    // Firestore limit on the number of values in an "in" filter
+    private static final int MAX_IN_VALUES = 30;
+
+    private final FirebaseFirestore db;
+    private final String userId;
+    private final LruCache<String, String> descriptions = new LruCache<String, String>(MAX_CACHED_CHARS) {
+        @Override
+        protected int sizeOf(String taskId, String description) {
+            return description.length() + 1;
+        }
+    };
+    // Callers waiting for a fetch that is already in flight
+    private final Map<String, List<Callback>> inFlight = new HashMap<>();
+    private FetchListener fetchListener;
+
+    public TaskDetailCache(FirebaseFirestore db, String userId) {
+        this.db = db;
+        this.userId = userId;
+    }
+
+    // Told about every description fetched from the server, e.g. to add it to the search index
+    public void setFetchListener(FetchListener listener) {
+        this.fetchListener = listener;
+    }
+
+    public void get(String taskId, Callback callback) {
+        String cached = descriptions.get(taskId);
+        if (cached != null) {
+            callback.onLoaded(cached);
+            return;
+        }
+        List<Callback> waiting = inFlight.get(taskId);
+        if (waiting != null) {
+            waiting.add(callback);
+            return;
+        }
+        waiting = new ArrayList<>();
+        waiting.add(callback);
+        inFlight.put(taskId, waiting);
+
+        long start = TaskMetrics.start();
+        DocumentReference document = db.collection(TaskSchema.DETAILS_COLLECTION).document(taskId);
+        FirestoreMetrics.time("firestore.get.detail", document.get(), start)
+                .addOnSuccessListener(snapshot -> {
+                    FirestoreMetrics.read(1);
+                    loaded(taskId, description(snapshot));
+                })
+                .addOnFailureListener(e -> {
+                    List<Callback> callbacks = inFlight.remove(taskId);
+                    if (callbacks != null) {
+                        for (Callback waiter : callbacks) waiter.onError(e);
+                    }
+                });
+    }
+
+    // Fetches the descriptions of the given tasks that are neither cached nor already being fetched
+    public void prefetch(List<String> taskIds) {
+        List<String> missing = new ArrayList<>();
+        for (String taskId : taskIds) {
+            if (descriptions.get(taskId) == null && !inFlight.containsKey(taskId)) {
+                missing.add(taskId);
+                inFlight.put(taskId, new ArrayList<>());
+            }
+        }
+        for (int start = 0; start < missing.size(); start += MAX_IN_VALUES) {
+            List<String> chunk = new ArrayList<>(missing.subList(start, Math.min(missing.size(), start + MAX_IN_VALUES)));
+            long began = TaskMetrics.start();
+            FirestoreMetrics.time("firestore.get.details", db.collection(TaskSchema.DETAILS_COLLECTION)
+                    .whereEqualTo("userId", userId)
+                    .whereIn(FieldPath.documentId(), chunk)
+                    .get(), began)
+                    .addOnSuccessListener(snapshots -> {
+                        FirestoreMetrics.read(snapshots.size());
+                        for (DocumentSnapshot document : snapshots) {
+                            loaded(document.getId(), description(document));
+                        }
+                        // Tasks without a detail document yet; a later get() tries again
+                        for (String taskId : chunk) {
+                            dropInFlight(taskId);
+                        }
+                    })
+                    .addOnFailureListener(e -> {
+                        for (String taskId : chunk) {
+                            dropInFlight(taskId);
+                        }
+                    });
+        }
+    }
+
+    // Keeps the cache in step with local edits
+    public void put(String taskId, String description) {
+        descriptions.put(taskId, description == null ? "" : description);
+    }
+
+    public void remove(String taskId) {
+        descriptions.remove(taskId);
+    }
+
+    private void loaded(String taskId, String description) {
+        put(taskId, description);
+        if (fetchListener != null && description != null) {
+            fetchListener.onFetched(taskId, description);
+        }
+        List<Callback> callbacks = inFlight.remove(taskId);
+        if (callbacks != null) {
+            for (Callback callback : callbacks) callback.onLoaded(description == null ? "" : description);
+        }
+    }
+
+    // A prefetch that found nothing releases the id; anyone who asked meanwhile fetches it directly
+    private void dropInFlight(String taskId) {
+        List<Callback> callbacks = inFlight.remove(taskId);
+        if (callbacks != null) {
+            for (Callback callback : callbacks) get(taskId, callback);
+        }
+    }
+
+    private static String description(DocumentSnapshot document) {
+        return document.exists() ? document.getString("description") : null;
+    }
+
+    public interface FetchListener {
+        void onFetched(String taskId, String description);
+    }
+
+    public interface Callback {
+        void onLoaded(String description);
+        void onError(Exception e);
+    }
+}
@@ -0,0 +1,94 @@
+package com.app.task_manager;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Writes all of a user's tasks to a TaskNdjson file, one page of summaries at a time in document id
+// order. Descriptions live in the detail documents, so each page is joined with the detail
+// documents of the same id range, read in the same order. Memory stays at one page however many
+// tasks there are. Blocking; run it off the main thread.
+public class TaskExporter {
+
+    static final int PAGE_SIZE = 500;
+    private static final long TIMEOUT_SECONDS = 60;
+
+    private final FirebaseFirestore db;
+    private final String userId;
+
+    public TaskExporter(FirebaseFirestore db, String userId) {
+        this.db = db;
+        this.userId = userId;
+    }
+
+    // Returns the number of tasks written; tombstones are left out
+    public int export(LineChannelWriter writer, Progress progress) throws Exception {
+        writer.writeLine(TaskNdjson.header(userId, System.currentTimeMillis()));
+        Query summaries = db.collection("tasks").whereEqualTo("userId", userId)
+                .orderBy(FieldPath.documentId()).limit(PAGE_SIZE);
+        String previousId = null;
+        int exported = 0;
+        while (true) {
+            List<DocumentSnapshot> page = get(previousId == null ? summaries : summaries.startAfter(previousId));
+            if (page.isEmpty()) {
+                break;
+            }
+            String lastId = page.get(page.size() - 1).getId();
+            Map<String, String> descriptions = descriptions(previousId, lastId);
+            // A fresh migrator per page: older documents are upgraded in memory only, an export writes nothing
+            TaskMigrator migrator = new TaskMigrator(db);
+            for (DocumentSnapshot document : page) {
+                Task task = migrator.decode(document);
+                if (task.isDeleted()) continue;
+                if (descriptions.containsKey(task.getTaskId())) {
+                    task.setDescription(descriptions.get(task.getTaskId()));
+                }
+                writer.writeLine(TaskNdjson.encode(task));
+                exported++;
+            }
+            progress.onExported(exported);
+            if (page.size() < PAGE_SIZE) {
+                break;
+            }
+            previousId = lastId;
+        }
+        writer.flush();
+        return exported;
+    }
+
+    // Descriptions of the tasks with ids in (afterId, lastId]
+    private Map<String, String> descriptions(String afterId, String lastId) throws Exception {
+        Query details = db.collection(TaskSchema.DETAILS_COLLECTION).whereEqualTo("userId", userId)
+                .orderBy(FieldPath.documentId());
+        if (afterId != null) {
+            details = details.startAfter(afterId);
+        }
+        Map<String, String> descriptions = new HashMap<>();
+        for (DocumentSnapshot document : get(details.endAt(lastId))) {
+            descriptions.put(document.getId(), document.getString("description"));
+        }
+        return descriptions;
+    }
+
+    // From the server only: served from the cache while offline, an export would silently miss tasks
+    private List<DocumentSnapshot> get(Query query) throws Exception {
+        long start = TaskMetrics.start();
+        QuerySnapshot snapshot = Tasks.await(FirestoreMetrics.time("firestore.get.export", query.get(Source.SERVER), start),
+                TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        FirestoreMetrics.read(snapshot.size());
+        return snapshot.getDocuments();
+    }
+
+    public interface Progress {
+        void onExported(int tasks);
+    }
+}
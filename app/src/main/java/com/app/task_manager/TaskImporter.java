@@ -0,0 +1,214 @@
+package com.app.task_manager;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Reads a TaskNdjson file line by line and writes its tasks as WriteBatch commits of a summary and
+// a detail document per task. At most MAX_IN_FLIGHT batches are outstanding: once that many are
+// in flight, reading waits for the oldest, so memory stays at a few batches however large the
+// file, and a slow connection slows the import rather than queueing the whole file in the
+// Firestore cache.
+//
+// Progress is the file offset up to which every batch has committed. Writes are sets on ids fixed
+// by the file, so importing the same lines again never duplicates, and an import that stopped can
+// carry on from its last progress offset. Blocking; run it off the main thread.
+//
+// A task whose Firestore copy is at least as new as the exported one is kept, so importing an old
+// export does not undo later edits, nor bring back a task deleted since.
+public class TaskImporter {
+
+    static final int TASKS_PER_BATCH = TaskBatchWriter.MAX_BATCH_WRITES / 2;
+    private static final int MAX_IN_FLIGHT = TaskBatchWriter.MAX_IN_FLIGHT;
+    private static final long TIMEOUT_SECONDS = 120;
+    // Firestore limit on the number of values in an "in" filter
+    private static final int MAX_IN_VALUES = 30;
+
+    private final FirebaseFirestore db;
+    private final String userId;
+    private final ArrayDeque<Chunk> inFlight = new ArrayDeque<>();
+    // Up to the last committed chunk
+    private int imported, skipped, kept;
+    private long now;
+
+    public TaskImporter(FirebaseFirestore db, String userId) {
+        this.db = db;
+        this.userId = userId;
+    }
+
+    // The header of the file, e.g. to tell whether a stored progress offset belongs to it
+    public static TaskNdjson.Header readHeader(FileChannel file) throws Exception {
+        file.position(0);
+        return readHeader(new LineChannelReader(file));
+    }
+
+    private static TaskNdjson.Header readHeader(LineChannelReader reader) throws Exception {
+        String line = reader.readLine();
+        if (line == null) {
+            throw new IllegalArgumentException("Empty file");
+        }
+        return TaskNdjson.parseHeader(line);
+    }
+
+    // Imports from resumeOffset, 0 for the whole file, to the end. Returns {imported, skipped, kept}:
+    // tasks written, unreadable lines and tasks whose Firestore copy was as new or newer.
+    public int[] run(FileChannel file, long resumeOffset, Progress progress) throws Exception {
+        file.position(0);
+        LineChannelReader reader = new LineChannelReader(file);
+        TaskNdjson.Header header = readHeader(reader);
+        if (resumeOffset > reader.getOffset()) {
+            file.position(resumeOffset);
+            reader = new LineChannelReader(file, resumeOffset, LineChannelWriter.DEFAULT_BUFFER_SIZE);
+        }
+        // Another user's export gets ids of its own, so importing it twice still does not duplicate
+        boolean sameUser = userId.equals(header.userId);
+
+        now = System.currentTimeMillis();
+        List<Task> batched = new ArrayList<>(TASKS_PER_BATCH);
+        int unreadable = 0;
+        long lineStart = reader.getOffset();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            Task task = decode(line, lineStart, sameUser, header.userId);
+            lineStart = reader.getOffset();
+            if (task == null) {
+                unreadable++;
+                continue;
+            }
+            batched.add(task);
+            if (batched.size() == TASKS_PER_BATCH) {
+                commit(batched, unreadable, reader.getOffset(), progress);
+                batched = new ArrayList<>(TASKS_PER_BATCH);
+                unreadable = 0;
+            }
+        }
+        if (!batched.isEmpty() || unreadable > 0) {
+            commit(batched, unreadable, reader.getOffset(), progress);
+        }
+        while (!inFlight.isEmpty()) {
+            awaitOldest(progress);
+        }
+        return new int[]{imported, skipped, kept};
+    }
+
+    // Writes the tasks that are newer than their Firestore copy; unreadable is the number of lines
+    // dropped since the previous chunk, counted once the chunk has committed
+    private void commit(List<Task> tasks, int unreadable, long endOffset, Progress progress) throws Exception {
+        if (inFlight.size() == MAX_IN_FLIGHT) {
+            awaitOldest(progress);
+        }
+        Map<String, Long> stored = storedUpdatedAt(tasks);
+        WriteBatch batch = db.batch();
+        int written = 0;
+        for (Task task : tasks) {
+            Long updatedAt = stored.get(task.getTaskId());
+            if (updatedAt != null && updatedAt >= task.getUpdatedAt()) {
+                continue;
+            }
+            // Newer than anything synced so far, so every device's listener picks the task up
+            task.setUpdatedAt(now);
+            batch.set(db.collection("tasks").document(task.getTaskId()), TaskCodec.encode(task));
+            batch.set(db.collection(TaskSchema.DETAILS_COLLECTION).document(task.getTaskId()), TaskCodec.encodeDetail(task));
+            written++;
+        }
+        long start = TaskMetrics.start();
+        com.google.android.gms.tasks.Task<Void> commit = written == 0 ? Tasks.forResult(null)
+                : FirestoreMetrics.write("firestore.write.import", batch.commit(), written * 2, start);
+        inFlight.add(new Chunk(commit, written, unreadable, tasks.size() - written, endOffset));
+    }
+
+    // updatedAt of the tasks' documents that already exist, by id; 0 for a document without one
+    private Map<String, Long> storedUpdatedAt(List<Task> tasks) throws Exception {
+        List<com.google.android.gms.tasks.Task<QuerySnapshot>> reads = new ArrayList<>();
+        for (int from = 0; from < tasks.size(); from += MAX_IN_VALUES) {
+            List<String> ids = new ArrayList<>();
+            for (Task task : tasks.subList(from, Math.min(tasks.size(), from + MAX_IN_VALUES))) {
+                ids.add(task.getTaskId());
+            }
+            long start = TaskMetrics.start();
+            reads.add(FirestoreMetrics.time("firestore.get.import", db.collection("tasks")
+                    .whereEqualTo("userId", userId)
+                    .whereIn(FieldPath.documentId(), ids)
+                    .get(), start));
+        }
+        Tasks.await(Tasks.whenAll(reads), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Map<String, Long> stored = new HashMap<>();
+        for (com.google.android.gms.tasks.Task<QuerySnapshot> read : reads) {
+            FirestoreMetrics.read(read.getResult().size());
+            for (DocumentSnapshot document : read.getResult()) {
+                Long updatedAt = document.getLong("updatedAt");
+                stored.put(document.getId(), updatedAt == null ? 0 : updatedAt);
+            }
+        }
+        return stored;
+    }
+
+    // Chunks are awaited in file order, so progress never passes a batch that has not committed
+    private void awaitOldest(Progress progress) throws Exception {
+        Chunk chunk = inFlight.peek();
+        Tasks.await(chunk.commit, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        inFlight.poll();
+        imported += chunk.tasks;
+        skipped += chunk.unreadable;
+        kept += chunk.kept;
+        progress.onCommitted(chunk.endOffset, imported, skipped, kept);
+    }
+
+    // Null for a line that is not a usable task. The exported updatedAt is kept for comparing with
+    // the Firestore copy.
+    private Task decode(String line, long lineStart, boolean sameUser, String sourceUserId) {
+        if (line.trim().isEmpty()) {
+            return null;
+        }
+        Task task;
+        try {
+            task = TaskNdjson.decode(line);
+        } catch (IllegalArgumentException | ClassCastException e) {
+            return null;
+        }
+        if (task.getTitle() == null) {
+            return null;
+        }
+        String sourceId = task.getTaskId() != null ? task.getTaskId() : "@" + lineStart;
+        if (!sameUser || task.getTaskId() == null) {
+            String name = userId + "/" + sourceUserId + "/" + sourceId;
+            task.setTaskId(UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)).toString().replace("-", ""));
+        }
+        task.setUserId(userId);
+        task.setDeleted(false);
+        return task;
+    }
+
+    private static final class Chunk {
+        final com.google.android.gms.tasks.Task<Void> commit;
+        final int tasks, unreadable, kept;
+        final long endOffset;
+
+        Chunk(com.google.android.gms.tasks.Task<Void> commit, int tasks, int unreadable, int kept, long endOffset) {
+            this.commit = commit;
+            this.tasks = tasks;
+            this.unreadable = unreadable;
+            this.kept = kept;
+            this.endOffset = endOffset;
+        }
+    }
+
+    public interface Progress {
+        // Everything before offset is in Firestore; passing it back to run() carries on from there.
+        // The counts cover the lines before offset, as run() returns them.
+        void onCommitted(long offset, int imported, int skipped, int kept);
+    }
+}
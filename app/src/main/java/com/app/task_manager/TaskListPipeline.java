@@ -0,0 +1,460 @@
+package com.app.task_manager;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.recyclerview.widget.DiffUtil;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Owns the working task list on a dedicated background thread. Firestore listeners and store
+// callbacks run on this executor, so decoding, filtering and sorting happen off the main thread.
+// After each unit of work that changed the list, immutable TaskRow display models are updated
+// here and posted to the main thread, which only dispatches them. The list reports which tasks
+// changed, so only their rows are rebuilt: each is put into a RowUpdates at its position and
+// recorded as the insert, move, change or remove notification the adapter needs. Resets and large
+// batches rebuild every row and diff the result instead.
+//
+// The synced copy of the list is shown in due-date sections. DueSections keeps its tasks in due
+// order as they change, one task at a time, so publishing only walks it; nothing is re-sorted.
+// Evicted rows keep their place by due time. Filter and search results are shown flat, in their
+// own order.
+public class TaskListPipeline implements Executor {
+
+    private static final String TAG = "TaskListPipeline";
+    private static final DueSections.Section[] SECTIONS = DueSections.Section.values();
+    // RecyclerView reorders pending notifications pairwise, so past this many changed rows one
+    // diff of the whole list is cheaper to dispatch
+    private static final int MAX_ROW_UPDATES = 100;
+
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final UpdateListener updateListener;
+
+    // Confined to the worker thread
+    private final IndexedTaskList taskList = new IndexedTaskList();
+    private final PendingWriteQueue pendingWrites = new PendingWriteQueue(taskList);
+    // Multi-select state; the task is remembered in case its page is evicted while selected
+    private final Map<String, Task> selected = new LinkedHashMap<>();
+    private boolean changed;
+    // The published rows, in the order the adapter shows them
+    private final RowUpdates<TaskRow> rows = new RowUpdates<>();
+    // Tasks whose rows are updated on the next publish
+    private final Set<String> dirty = new HashSet<>();
+    // Every row is rebuilt on the next publish instead, e.g. after the list was replaced
+    private boolean rebuild;
+    // Recurring rows show the next occurrence from today on, so they are formatted afresh
+    private boolean reformatRecurring;
+    // Stable adapter ids; a task keeps its id for the lifetime of the pipeline
+    private final Map<String, Long> stableIds = new HashMap<>();
+    private final OccurrenceExpander occurrences = new OccurrenceExpander(TimeZone.getDefault());
+    private final Clock clock = Clock.SYSTEM;
+    private final DueSections sections = new DueSections(clock, TimeZone.getDefault(), Locale.getDefault());
+    private boolean sectioned;
+    // Recurring tasks in the sections, kept whole so their next occurrence can be worked out at
+    // rollover even while their rows are evicted
+    private final Map<String, Task> recurring = new HashMap<>();
+    private int evictedForFirstPage = -1, evictedForLastPage = -1;
+    private volatile ScheduledFuture<?> rolloverTimer;
+
+    public TaskListPipeline(UpdateListener updateListener) {
+        this.updateListener = updateListener;
+        taskList.setChangeListener(new IndexedTaskList.ChangeListener() {
+            @Override
+            public void onInserted(int position) {
+                markDirty(taskList.getTaskId(position));
+                if (sectioned) putInSection(taskList.get(position));
+            }
+
+            @Override
+            public void onChanged(int position) {
+                markDirty(taskList.getTaskId(position));
+                Task task = taskList.get(position);
+                if (sectioned && task != null) putInSection(task);
+            }
+
+            @Override
+            public void onRemoved(int position, String taskId) {
+                markDirty(taskId);
+                sections.remove(taskId);
+                recurring.remove(taskId);
+            }
+
+            // The published row must let go of the task too
+            @Override
+            public void onEvicted(String taskId) {
+                markDirty(taskId);
+            }
+
+            // Whoever replaces the list decides whether it is sectioned, see showSections
+            @Override
+            public void onReset() {
+                changed = true;
+                rebuild = true;
+                dirty.clear();
+                sectioned = false;
+                sections.clear();
+                recurring.clear();
+            }
+        });
+        scheduleRollover();
+    }
+
+    // Only to be used from work running on this executor
+    public IndexedTaskList getTaskList() {
+        return taskList;
+    }
+
+    // Only to be used from work running on this executor
+    public PendingWriteQueue getPendingWrites() {
+        return pendingWrites;
+    }
+
+    // Only to be used from work running on this executor
+    public OccurrenceExpander getOccurrences() {
+        return occurrences;
+    }
+
+    // Only to be used from work running on this executor
+    public void toggleSelected(String taskId) {
+        if (selected.remove(taskId) == null) {
+            Task task = taskList.find(taskId);
+            if (task == null) {
+                return;
+            }
+            selected.put(taskId, task);
+        }
+        markDirty(taskId);
+    }
+
+    // Only to be used from work running on this executor
+    public void clearSelection() {
+        if (!selected.isEmpty()) {
+            for (String taskId : selected.keySet()) markDirty(taskId);
+            selected.clear();
+        }
+    }
+
+    // Only to be used from work running on this executor. Evicted tasks are put back into their
+    // rows first, so the caller can apply pending writes to every returned task.
+    public List<Task> getSelectedTasks() {
+        List<Task> tasks = new ArrayList<>();
+        for (Map.Entry<String, Task> entry : selected.entrySet()) {
+            Task task = taskList.find(entry.getKey());
+            if (task == null) {
+                taskList.restore(Collections.singletonList(entry.getValue()));
+                task = entry.getValue();
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    // Only to be used from work running on this executor, right after the list was replaced with
+    // the synced copy. Every id needs its stored due time; recurring tasks are sectioned by their
+    // next occurrence, so those come whole.
+    public void showSections(Map<String, Long> dueTimes, List<Task> recurringTasks) {
+        sectioned = true;
+        sections.clear();
+        recurring.clear();
+        for (int i = 0; i < taskList.size(); i++) {
+            Task task = taskList.get(i);
+            Long dueAt = dueTimes.get(taskList.getTaskId(i));
+            if (task != null) {
+                putInSection(task);
+            } else if (dueAt != null) {
+                sections.put(taskList.getTaskId(i), dueAt);
+            }
+        }
+        for (Task task : recurringTasks) {
+            if (taskList.indexOf(task.getTaskId()) >= 0 && taskList.find(task.getTaskId()) == null) {
+                putInSection(task);
+            }
+        }
+        changed = true;
+        rebuild = true;
+    }
+
+    // Only to be used from work running on this executor. Like IndexedTaskList.evictOutside, for
+    // rows as the adapter shows them: while sectioned, headers and the due order come in between.
+    // Scrolling calls this every frame, so it only does anything once the visible pages changed.
+    public boolean evictOutside(int firstRow, int lastRow) {
+        int page = IndexedTaskList.PAGE_SIZE;
+        if (firstRow / page == evictedForFirstPage && lastRow / page == evictedForLastPage) {
+            return false;
+        }
+        evictedForFirstPage = firstRow / page;
+        evictedForLastPage = lastRow / page;
+        return taskList.evictOutside(firstRow, lastRow, rows::indexOf);
+    }
+
+    // Only to be used from work running on this executor. Like IndexedTaskList.missingIds, for rows
+    // as the adapter shows them.
+    public List<String> missingIds(int firstRow, int lastRow) {
+        if (!sectioned) {
+            return taskList.missingIds(firstRow, lastRow);
+        }
+        List<String> missing = new ArrayList<>();
+        int page = IndexedTaskList.PAGE_SIZE;
+        RankedList<TaskRow> published = rows.getRows();
+        int end = Math.min(published.size(), (lastRow / page + 1) * page);
+        for (int i = Math.max(0, firstRow / page * page); i < end; i++) {
+            TaskRow row = published.get(i);
+            if (row.isPlaceholder()) missing.add(row.getTaskId());
+        }
+        return missing;
+    }
+
+    // Runs the command on the worker thread and publishes the list if it changed. After shutdown
+    // the command is dropped: late Firestore answers, e.g. a page or count read, belong to a
+    // closed session and have no list left to update.
+    @Override
+    public void execute(Runnable command) {
+        try {
+            worker.execute(() -> {
+                command.run();
+                publishIfChanged();
+            });
+        } catch (RejectedExecutionException e) {
+            Log.d(TAG, "Dropped work after shutdown");
+        }
+    }
+
+    // Like execute, after the delay; delayed work still runs after shutdown
+    public void schedule(Runnable command, long delayMs) {
+        try {
+            worker.schedule(() -> {
+                command.run();
+                publishIfChanged();
+            }, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            Log.d(TAG, "Dropped work after shutdown");
+        }
+    }
+
+    // Re-sections at midnight. The timer does not advance while the device sleeps, so publishing
+    // checks the day too.
+    private void scheduleRollover() {
+        long delayMs = Math.max(0, sections.getNextRollover() - clock.now());
+        rolloverTimer = worker.schedule(() -> {
+            rolloverIfDue();
+            if (!worker.isShutdown()) scheduleRollover();
+            publishIfChanged();
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void rolloverIfDue() {
+        if (clock.now() < sections.getNextRollover()) {
+            return;
+        }
+        for (String taskId : sections.rollover()) {
+            Task task = recurring.get(taskId);
+            // A recurring task's occurrence that went overdue makes way for its next one
+            if (task != null) sections.put(taskId, shownDueAt(task));
+        }
+        // The sections' bounds moved, and the headers with them
+        reformatRecurring = true;
+        changed = true;
+        rebuild = true;
+    }
+
+    public void shutdown() {
+        rolloverTimer.cancel(false);
+        worker.shutdown();
+    }
+
+    private void putInSection(Task task) {
+        if (task.getRecurrence() != null) {
+            recurring.put(task.getTaskId(), task);
+        } else {
+            recurring.remove(task.getTaskId());
+        }
+        sections.put(task.getTaskId(), shownDueAt(task));
+    }
+
+    private void markDirty(String taskId) {
+        changed = true;
+        dirty.add(taskId);
+    }
+
+    private void publishIfChanged() {
+        rolloverIfDue();
+        if (!changed) {
+            return;
+        }
+        changed = false;
+
+        Set<String> pending = pendingWrites.pendingIds();
+        // Tasks removed from the list can no longer be selected
+        Iterator<String> selectedIds = selected.keySet().iterator();
+        while (selectedIds.hasNext()) {
+            if (taskList.indexOf(selectedIds.next()) < 0) selectedIds.remove();
+        }
+        RankedList<TaskRow> previous = rows.getRows();
+        DiffUtil.DiffResult diff = null;
+        long start = TaskMetrics.start();
+        if (rebuild || dirty.size() > MAX_ROW_UPDATES) {
+            rebuildRows(pending);
+            diff = DiffUtil.calculateDiff(new RowDiff(previous, rows.getRows()), false);
+            TaskMetrics.stop("list.diff", start);
+        } else {
+            for (String taskId : dirty) {
+                updateRow(taskId, pending);
+            }
+            if (sectioned) {
+                for (DueSections.Section section : SECTIONS) updateHeader(section);
+            }
+            TaskMetrics.stop("list.update", start);
+        }
+        rebuild = false;
+        dirty.clear();
+        Snapshot update = new Snapshot(rows.getRows(), previous, selected.size(), diff, rows.takeChanges());
+        mainHandler.post(() -> updateListener.onRowsUpdated(update));
+    }
+
+    private void rebuildRows(Set<String> pending) {
+        RankedList.Builder<TaskRow> builder = new RankedList.Builder<>();
+        if (sectioned) {
+            for (DueSections.Section section : SECTIONS) {
+                if (sections.size(section) == 0) {
+                    continue;
+                }
+                builder.add(sections.startOf(section), headerId(section), header(section));
+                for (String taskId : sections.taskIds(section)) {
+                    builder.add(sections.dueAtOf(taskId), taskId, row(taskId, taskList.find(taskId), pending));
+                }
+            }
+        } else {
+            for (int i = 0; i < taskList.size(); i++) {
+                String taskId = taskList.getTaskId(i);
+                builder.add(taskList.orderOf(taskId), taskId, row(taskId, taskList.get(i), pending));
+            }
+        }
+        rows.reset(builder);
+        reformatRecurring = false;
+    }
+
+    // Puts the task's row where it now belongs, or removes it. Sectioned rows are ordered like
+    // the sections, by (due time, id); flat rows like the task list.
+    private void updateRow(String taskId, Set<String> pending) {
+        boolean shown = sectioned ? sections.sectionOf(taskId) != null : taskList.indexOf(taskId) >= 0;
+        if (!shown) {
+            rows.remove(taskId);
+            return;
+        }
+        long key = sectioned ? sections.dueAtOf(taskId) : taskList.orderOf(taskId);
+        rows.put(taskId, key, row(taskId, taskList.find(taskId), pending));
+    }
+
+    private void updateHeader(DueSections.Section section) {
+        if (sections.size(section) == 0) {
+            rows.remove(headerId(section));
+        } else {
+            rows.put(headerId(section), sections.startOf(section), header(section));
+        }
+    }
+
+    private TaskRow row(String taskId, Task task, Set<String> pending) {
+        boolean isPending = pending.contains(taskId);
+        boolean isSelected = selected.containsKey(taskId);
+        // Rows whose task and pending state did not change are reused, so formatting
+        // happens once per task change and the diff can compare rows by reference
+        TaskRow row = rows.find(taskId);
+        if (row == null || !row.shows(task, isPending, isSelected)
+                || (reformatRecurring && task != null && task.getRecurrence() != null)) {
+            row = task == null ? TaskRow.placeholder(stableId(taskId), taskId, isSelected)
+                    : TaskRow.of(stableId(taskId), task, isPending, isSelected, shownDueAt(task));
+        }
+        return row;
+    }
+
+    private TaskRow header(DueSections.Section section) {
+        String title = section.label() + " (" + sections.size(section) + ")";
+        TaskRow header = rows.find(headerId(section));
+        if (header == null || !header.getTitle().equals(title)) {
+            header = TaskRow.header(-1 - section.ordinal(), title); // Task rows have ids from 0 up
+        }
+        return header;
+    }
+
+    // Sorts before the id of every task due at the section's start
+    private static String headerId(DueSections.Section section) {
+        return "\0" + section.name();
+    }
+
+    // A recurring task shows and is sectioned by its next occurrence from today on
+    private long shownDueAt(Task task) {
+        if (task.getRecurrence() == null) {
+            return task.getDueAt();
+        }
+        OccurrenceExpander.Occurrence next = occurrences.next(task, sections.getTodayStart());
+        return next != null ? next.start : task.getDueAt();
+    }
+
+    private long stableId(String taskId) {
+        Long id = stableIds.get(taskId);
+        if (id == null) {
+            id = (long) stableIds.size();
+            stableIds.put(taskId, id);
+        }
+        return id;
+    }
+
+    // Rows are the same item when they share a task id (evicted rows keep theirs); unchanged rows
+    // are reused instances, so reference equality detects content changes.
+    static class RowDiff extends DiffUtil.Callback {
+        private final List<TaskRow> oldRows, newRows;
+
+        RowDiff(List<TaskRow> oldRows, List<TaskRow> newRows) {
+            this.oldRows = oldRows;
+            this.newRows = newRows;
+        }
+
+        @Override
+        public int getOldListSize() { return oldRows.size(); }
+
+        @Override
+        public int getNewListSize() { return newRows.size(); }
+
+        @Override
+        public boolean areItemsTheSame(int oldPosition, int newPosition) {
+            return oldRows.get(oldPosition).getStableId() == newRows.get(newPosition).getStableId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldPosition, int newPosition) {
+            return oldRows.get(oldPosition) == newRows.get(newPosition);
+        }
+    }
+
+    // An immutable list of rows and how it differs from the previously published one: the diff
+    // when every row was rebuilt, else the changes row by row
+    public static final class Snapshot {
+        public final List<TaskRow> rows;
+        public final List<TaskRow> previousRows;
+        public final int selectedCount;
+        public final DiffUtil.DiffResult diff; // null when the changes apply
+        public final List<RowUpdates.Change> changes;
+
+        Snapshot(List<TaskRow> rows, List<TaskRow> previousRows, int selectedCount, DiffUtil.DiffResult diff,
+                 List<RowUpdates.Change> changes) {
+            this.rows = rows;
+            this.previousRows = previousRows;
+            this.selectedCount = selectedCount;
+            this.diff = diff;
+            this.changes = changes;
+        }
+    }
+
+    public interface UpdateListener {
+        // Called on the main thread
+        void onRowsUpdated(Snapshot snapshot);
+    }
+}
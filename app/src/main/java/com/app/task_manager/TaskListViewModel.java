@@ -0,0 +1,37 @@
+package com.app.task_manager;
+
+import android.app.Application;
+
+import androidx.lifecycle.AndroidViewModel;
+
+// Holds the task screen's session across configuration changes. The session itself belongs to
+// TaskRepository; this only keeps it acquired for as long as the screen exists.
+public class TaskListViewModel extends AndroidViewModel {
+
+    private TaskSession session;
+
+    public TaskListViewModel(Application application) {
+        super(application);
+    }
+
+    // The signed-in user's session; a different user than before gets a session of their own
+    public TaskSession getSession(String userId) {
+        if (session != null && session.getUserId().equals(userId)) {
+            return session;
+        }
+        TaskRepository repository = TaskRepository.getInstance(getApplication());
+        if (session != null) {
+            repository.release(session);
+        }
+        session = repository.acquire(userId);
+        return session;
+    }
+
+    @Override
+    protected void onCleared() {
+        if (session != null) {
+            TaskRepository.getInstance(getApplication()).release(session);
+            session = null;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.app.task_manager;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Read-path decoder: current documents go through TaskCodec, older ones are upgraded lazily. Each older document is converted
+// in memory when it is read and queued for write-back; flush() sends the queue in batches.
+// Upgrading to v3 also moves the inline description into the task's detail document.
+public class TaskMigrator {
+
+    private static final String TAG = "TaskMigrator";
+    private static final int MAX_BATCH_WRITES = TaskBatchWriter.MAX_BATCH_WRITES;
+
+    private final FirebaseFirestore db;
+    private final Map<String, Task> pendingUpgrades = new LinkedHashMap<>();
+
+    public TaskMigrator(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    public Task decode(DocumentSnapshot documentSnapshot) {
+        long start = TaskMetrics.start();
+        Task task = decodeVersion(documentSnapshot);
+        TaskMetrics.stop("decode", start);
+        return task;
+    }
+
+    private Task decodeVersion(DocumentSnapshot documentSnapshot) {
+        Map<String, Object> data = documentSnapshot.getData();
+        int version = data == null ? TaskSchema.CURRENT_VERSION : TaskSchema.versionOf(data);
+        if (version == TaskSchema.CURRENT_VERSION && data != null) {
+            return TaskCodec.decode(documentSnapshot.getId(), data);
+        }
+        if (version < TaskSchema.CURRENT_VERSION) {
+            // The description read inline stays on the task, so the editor does not fetch it again
+            Task task = TaskSchema.fromOlder(documentSnapshot.getId(), data);
+            pendingUpgrades.put(documentSnapshot.getId(), task);
+            return task;
+        }
+
+        // Written by a newer app version: let the reflective mapper pick out the fields it knows
+        Task task = documentSnapshot.toObject(Task.class);
+        task.setTaskId(documentSnapshot.getId());
+        return task;
+    }
+
+    // Writes back the upgrades collected since the last flush. Called once per snapshot or page,
+    // so the upgrade is queued ahead of any edit the user can make to the task. Completes when
+    // every batch has been committed.
+    public com.google.android.gms.tasks.Task<Void> flush() {
+        if (pendingUpgrades.isEmpty()) {
+            return Tasks.forResult(null);
+        }
+        List<Task> upgrades = new ArrayList<>(pendingUpgrades.values());
+        pendingUpgrades.clear();
+
+        // Each task takes two writes, its summary and its detail document
+        int tasksPerBatch = MAX_BATCH_WRITES / 2;
+        List<com.google.android.gms.tasks.Task<Void>> commits = new ArrayList<>();
+        for (int start = 0; start < upgrades.size(); start += tasksPerBatch) {
+            WriteBatch batch = db.batch();
+            int end = Math.min(upgrades.size(), start + tasksPerBatch);
+            for (Task task : upgrades.subList(start, end)) {
+                Map<String, Object> fields = TaskSchema.upgradeFields(task);
+                fields.put(TaskSchema.LEGACY_DUE_DATE, FieldValue.delete());
+                fields.put(TaskSchema.LEGACY_REMINDER_DATE_TIME, FieldValue.delete());
+                fields.put(TaskSchema.INLINE_DESCRIPTION, FieldValue.delete());
+                batch.update(db.collection("tasks").document(task.getTaskId()), fields);
+                batch.set(db.collection(TaskSchema.DETAILS_COLLECTION).document(task.getTaskId()),
+                        TaskCodec.encodeDetail(task));
+            }
+            int count = end - start;
+            commits.add(FirestoreMetrics.write("firestore.write.migrate", batch.commit(), count * 2, TaskMetrics.start())
+                    .addOnFailureListener(e -> Log.w(TAG, "Failed to write back " + count + " upgraded tasks", e)));
+        }
+        return Tasks.whenAll(commits);
+    }
+}
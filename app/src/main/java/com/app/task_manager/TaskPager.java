@@ -0,0 +1,82 @@
+package com.app.task_manager;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+// Walks an ordered query one page at a time with limit + startAfter cursors,
+// so no single read grows with the size of the collection.
+// Results are decoded and delivered on the given executor, which should also be the only caller.
+public class TaskPager {
+
+    private final Query orderedQuery;
+    private final int pageSize;
+    private final TaskMigrator migrator;
+    private final Executor executor;
+    private DocumentSnapshot lastDocument;
+    private Object[] resumeValues;
+    private boolean loading;
+    private boolean endReached;
+
+    public TaskPager(Query orderedQuery, int pageSize, TaskMigrator migrator, Executor executor) {
+        this.orderedQuery = orderedQuery;
+        this.pageSize = pageSize;
+        this.migrator = migrator;
+        this.executor = executor;
+    }
+
+    // Continues after a cursor persisted by an earlier run, given as the ordered field values
+    public void resumeAfter(Object... values) {
+        this.resumeValues = values;
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    public boolean isEndReached() {
+        return endReached;
+    }
+
+    // Loads the next page; calls made while a page is in flight or after the end are ignored
+    public void loadNextPage(PageCallback callback) {
+        if (loading || endReached) {
+            return;
+        }
+        loading = true;
+
+        Query page = orderedQuery.limit(pageSize);
+        if (lastDocument != null) {
+            page = page.startAfter(lastDocument);
+        } else if (resumeValues != null) {
+            page = page.startAfter(resumeValues);
+        }
+
+        long start = TaskMetrics.start();
+        FirestoreMetrics.time("firestore.get.page", page.get(), start)
+                .addOnSuccessListener(executor, snapshots -> {
+                    FirestoreMetrics.read(snapshots.size());
+                    loading = false;
+                    List<Task> tasks = new ArrayList<>();
+                    for (QueryDocumentSnapshot documentSnapshot : snapshots) {
+                        tasks.add(migrator.decode(documentSnapshot));
+                        lastDocument = documentSnapshot;
+                    }
+                    endReached = snapshots.size() < pageSize;
+                    callback.onPage(tasks, endReached);
+                })
+                .addOnFailureListener(executor, e -> {
+                    loading = false;
+                    callback.onError(e);
+                });
+    }
+
+    public interface PageCallback {
+        void onPage(List<Task> tasks, boolean endReached);
+        void onError(Exception e);
+    }
+}
@@ -0,0 +1,71 @@
+package com.app.task_manager;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+
+// Turns a TaskFilter into a Firestore query. Firestore only allows range filters on the field
+// the query is ordered by first, so at most one range is pushed down; everything else, and the
+// sort when it cannot be expressed, is left to the client. The indexes these queries need are
+// declared in firestore.indexes.json.
+public final class TaskQueryBuilder {
+
+    // Upper end of the string range used for title prefix matching
+    private static final String PREFIX_END = "\uf8ff";
+
+    private TaskQueryBuilder() {}
+
+    public static Plan build(FirebaseFirestore db, String userId, TaskFilter filter, long now) {
+        Query query = db.collection("tasks").whereEqualTo("userId", userId);
+
+        if (filter.hasPriorityFilter()) {
+            query = query.whereIn("priority", new ArrayList<Object>(filter.getPriorities()));
+        }
+
+        String sortField = filter.getSortKey().field;
+        String rangeField = null;
+        if (filter.hasDueRange() && (filter.getTitlePrefix() == null || !"title".equals(sortField))) {
+            rangeField = "dueAt";
+            if (filter.getDueFrom() > 0) {
+                query = query.whereGreaterThanOrEqualTo("dueAt", filter.getDueFrom());
+            }
+            long upper = filter.dueUpperBound(now);
+            if (upper > 0) {
+                query = query.whereLessThan("dueAt", upper);
+            }
+        } else if (filter.getTitlePrefix() != null) {
+            rangeField = "title";
+            query = query.whereGreaterThanOrEqualTo("title", filter.getTitlePrefix())
+                    .whereLessThan("title", filter.getTitlePrefix() + PREFIX_END);
+        }
+
+        boolean clientSort;
+        if (rangeField != null) {
+            // The range field has to lead the ordering; a different sort key is applied on the client
+            clientSort = sortField != null && !sortField.equals(rangeField);
+            query = query.orderBy(rangeField, clientSort || !filter.getSortKey().descending
+                    ? Query.Direction.ASCENDING : Query.Direction.DESCENDING);
+        } else if (sortField != null && !(filter.hasPriorityFilter() && "priority".equals(sortField))) {
+            clientSort = false;
+            query = query.orderBy(sortField, filter.getSortKey().descending
+                    ? Query.Direction.DESCENDING : Query.Direction.ASCENDING);
+        } else {
+            // Unsorted, or sorted by a field constrained by whereIn, which Firestore cannot order by
+            clientSort = sortField != null;
+        }
+        return new Plan(query, clientSort);
+    }
+
+    public static class Plan {
+        public final Query query;
+        // When true the server order does not match the requested sort, so results cannot be
+        // shown page by page and are sorted on the client once fully loaded
+        public final boolean clientSort;
+
+        Plan(Query query, boolean clientSort) {
+            this.query = query;
+            this.clientSort = clientSort;
+        }
+    }
+}
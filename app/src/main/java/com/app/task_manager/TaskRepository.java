@@ -0,0 +1,74 @@
+package com.app.task_manager;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Process-wide owner of the per-user task sessions. A session outlives the screens that use it,
+// so a recreated activity, or one opened again shortly after, re-renders from memory instead of
+// reading the store and Firestore again. Sessions nobody used for IDLE_TTL_MS are closed, which
+// bounds how stale a session kept without its listener can get before it is rebuilt from disk.
+// Main thread only.
+public class TaskRepository {
+
+    // How long a session is kept after its last screen let go of it
+    static final long IDLE_TTL_MS = 10 * 60 * 1000;
+
+    private static TaskRepository instance;
+
+    private final Context context;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, TaskSession> sessions = new HashMap<>();
+    private final Map<TaskSession, Integer> users = new HashMap<>();
+
+    private TaskRepository(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    public static TaskRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new TaskRepository(context);
+        }
+        return instance;
+    }
+
+    // Every acquire is paired with one release
+    public TaskSession acquire(String userId) {
+        TaskSession session = sessions.get(userId);
+        if (session == null) {
+            session = new TaskSession(context, FirebaseFirestore.getInstance(), userId);
+            sessions.put(userId, session);
+        }
+        mainHandler.removeCallbacksAndMessages(session); // Still in use, not idle any more
+        Integer count = users.get(session);
+        users.put(session, count == null ? 1 : count + 1);
+        return session;
+    }
+
+    public void release(TaskSession session) {
+        Integer count = users.get(session);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            users.put(session, count - 1);
+            return;
+        }
+        users.remove(session);
+        mainHandler.postAtTime(() -> close(session), session, SystemClock.uptimeMillis() + IDLE_TTL_MS);
+    }
+
+    private void close(TaskSession session) {
+        if (users.containsKey(session) || sessions.get(session.getUserId()) != session) {
+            return;
+        }
+        sessions.remove(session.getUserId());
+        session.close();
+    }
+}
@@ -0,0 +1,99 @@
+package com.app.task_manager;
+
+// Immutable display model for one list row, a task or a due-date section header. Built on the
+// pipeline thread whenever the task or its pending state changes, so binding only copies
+// ready-made strings into views.
+public final class TaskRow {
+
+    private final long stableId;
+    private final String taskId;
+    private final Task task; // null while the row's page is evicted
+    private final String title;
+    private final String dueDate;
+    private final String priorityLabel;
+    private final boolean pending;
+    private final boolean selected;
+    private final boolean header;
+
+    private TaskRow(long stableId, String taskId, Task task, String title, String dueDate,
+                    String priorityLabel, boolean pending, boolean selected, boolean header) {
+        this.stableId = stableId;
+        this.taskId = taskId;
+        this.task = task;
+        this.title = title;
+        this.dueDate = dueDate;
+        this.priorityLabel = priorityLabel;
+        this.pending = pending;
+        this.selected = selected;
+        this.header = header;
+    }
+
+    // dueAt is the occurrence to show, for a recurring task its next one rather than its first
+    public static TaskRow of(long stableId, Task task, boolean pending, boolean selected, long dueAt) {
+        String dueDate = TaskDates.formatDate(dueAt);
+        if (task.getRecurrence() != null) {
+            try {
+                dueDate += " (" + Recurrence.parse(task.getRecurrence()).describe() + ")";
+            } catch (IllegalArgumentException ignored) {
+                // Written by a newer version; shown as a one-off
+            }
+        }
+        return new TaskRow(stableId, task.getTaskId(), task, task.getTitle(),
+                dueDate, TaskPriority.label(task.getPriority()), pending, selected, false);
+    }
+
+    // Row whose page was evicted; it is refilled from the local store as it scrolls into view
+    public static TaskRow placeholder(long stableId, String taskId, boolean selected) {
+        return new TaskRow(stableId, taskId, null, "", "", "", false, selected, false);
+    }
+
+    // Section header, e.g. "Today (3)"; it has no task id
+    public static TaskRow header(long stableId, String title) {
+        return new TaskRow(stableId, null, null, title, "", "", false, false, true);
+    }
+
+    // True if this row already shows the given state and can be reused as is
+    public boolean shows(Task task, boolean pending, boolean selected) {
+        return this.task == task && this.pending == pending && this.selected == selected;
+    }
+
+    public long getStableId() {
+        return stableId;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public boolean isPlaceholder() {
+        return task == null && !header;
+    }
+
+    public boolean isHeader() {
+        return header;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDueDate() {
+        return dueDate;
+    }
+
+    public String getPriorityLabel() {
+        return priorityLabel;
+    }
+
+    public boolean isPending() {
+        return pending;
+    }
+
+    public boolean isSelected() {
+        return selected;
+    }
+}
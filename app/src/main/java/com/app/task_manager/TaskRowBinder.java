@@ -0,0 +1,29 @@
+package com.app.task_manager;
+
+// Copies a TaskRow into a row view. Kept free of Android types so the bind path can be
+// checked for allocations on the JVM; it must not allocate.
+public final class TaskRowBinder {
+
+    // Rows whose writes have not been acknowledged by Firestore yet are dimmed
+    static final float PENDING_ALPHA = 0.5f;
+
+    private TaskRowBinder() {}
+
+    public static void bind(TaskRow row, RowView view) {
+        view.setTitle(row.getTitle());
+        view.setDueDate(row.getDueDate());
+        view.setPriority(row.getPriorityLabel());
+        view.setAlpha(row.isPending() ? PENDING_ALPHA : 1f);
+        view.setActionsEnabled(!row.isPlaceholder());
+        view.setSelected(row.isSelected());
+    }
+
+    public interface RowView {
+        void setTitle(CharSequence title);
+        void setDueDate(CharSequence dueDate);
+        void setPriority(CharSequence priority);
+        void setAlpha(float alpha);
+        void setActionsEnabled(boolean enabled);
+        void setSelected(boolean selected);
+    }
+}
@@ -0,0 +1,617 @@
+package com.app.task_manager;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.*;
+
+// One user's task list, kept by TaskRepository outside any activity so a recreated screen
+// re-renders from memory. List state lives on the TaskListPipeline thread: everything that touches
+// taskList, pendingWrites or the filter paging fields runs through pipeline.execute, and the screen
+// only observes the published rows.
+public class TaskSession {
+
+    private static final String TAG = "TaskSession";
+
+    // Rows from the end of the list at which the next page is requested
+    private static final int PREFETCH_DISTANCE = 15;
+    // Search hits shown at most; they are ranked, so the tail is rarely looked at
+    private static final int SEARCH_RESULT_LIMIT = 500;
+
+    private final FirebaseFirestore db;
+    private final String userId;
+    private final TaskListPipeline pipeline;
+    private final IndexedTaskList taskList;
+    private final PendingWriteQueue pendingWrites;
+    private final TaskSyncEngine syncEngine;
+    private final TaskDetailCache detailCache; // Main thread only
+    private final TaskDashboard dashboard; // Pipeline thread only
+    private final MutableLiveData<TaskListPipeline.Snapshot> rows = new MutableLiveData<>();
+    private final MutableLiveData<UserMessage> errors = new MutableLiveData<>();
+
+    private volatile boolean started;
+    private boolean localLoaded, loadingLocal, reloadingRows, searchIndexAttached, listening; // Pipeline thread only
+    // Set by close(); the pipeline is shut down once no write is waiting for its ack. Pipeline thread only
+    private boolean closing;
+    // Set once the first local load is listed; the next published rows are the first task screen
+    private volatile boolean firstScreenListed;
+    // Merges quick successive edits of a task into one field-level write; pipeline thread only
+    private final TaskChangeTracker<PendingWriteQueue.PendingWrite> changeTracker = new TaskChangeTracker<>();
+    // How each local write in flight moves the dashboard counts; pipeline thread only
+    private final Map<PendingWriteQueue.PendingWrite, TaskCounts.Delta> countDeltas = new HashMap<>();
+
+    // Active filter; while it is not the default, the list shows a server-filtered query.
+    // Replaced, never mutated, so the filter dialog can read it from the main thread.
+    private volatile TaskFilter filter = new TaskFilter();
+    private TaskPager filterPager;
+    private boolean filterClientSort;
+    private final List<Task> clientSortBuffer = new ArrayList<>();
+
+    // Kept up to date by the sync engine; pipeline thread only. While searchQuery is set the list
+    // shows the search hits instead of the filter or the synced copy.
+    private final TaskSearchIndex searchIndex = new TaskSearchIndex();
+    private String searchQuery;
+
+    // Created on the main thread by TaskRepository
+    TaskSession(Context context, FirebaseFirestore db, String userId) {
+        this.db = db;
+        this.userId = userId;
+        pipeline = new TaskListPipeline(rows::setValue);
+        taskList = pipeline.getTaskList();
+        pendingWrites = pipeline.getPendingWrites();
+        syncEngine = new TaskSyncEngine(context, db, userId, pipeline);
+        detailCache = new TaskDetailCache(db, userId);
+        dashboard = new TaskDashboard(context, db, userId, pipeline);
+        detailCache.setFetchListener((taskId, description) ->
+                pipeline.execute(() -> searchIndex.indexDescription(taskId, description)));
+        searchIndex.setChangeListener(() -> {
+            if (searchQuery != null) runSearch();
+        });
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    // The latest rows; a new observer gets the current snapshot right away
+    public LiveData<TaskListPipeline.Snapshot> getRows() {
+        return rows;
+    }
+
+    // Header counts; -1 for a count not fetched yet
+    public LiveData<TaskCounts.Snapshot> getDashboard() {
+        return dashboard.getSummary();
+    }
+
+    public LiveData<UserMessage> getErrors() {
+        return errors;
+    }
+
+    // Main thread only
+    public TaskDetailCache getDetailCache() {
+        return detailCache;
+    }
+
+    public TaskFilter getFilter() {
+        return filter;
+    }
+
+    public boolean isFirstScreenListed() {
+        return firstScreenListed;
+    }
+
+    // The screen became visible. A session still listening, e.g. across a rotation, has nothing to do.
+    public void onForeground() {
+        started = true;
+        pipeline.execute(() -> {
+            dashboard.setVisible(true);
+            if (localLoaded) {
+                startSync();
+                return;
+            }
+            if (loadingLocal) {
+                return;
+            }
+            // Render the on-device copy first, then sync the deltas from Firestore
+            loadLocal(true);
+        });
+    }
+
+    // The screen is no longer visible and is not about to be recreated
+    public void onBackground() {
+        started = false;
+        pipeline.execute(() -> {
+            dashboard.setVisible(false);
+            // Edits still inside their coalescing window are sent now rather than risk losing them
+            for (TaskChangeTracker.Write<PendingWriteQueue.PendingWrite> write : changeTracker.flushAll()) {
+                sendEdit(write);
+            }
+            syncEngine.stop();
+            listening = false;
+        });
+    }
+
+    // Called by TaskRepository once the session has not been used for a while. Writes still in
+    // flight are registered with the pipeline as their listener executor, so it stays up until
+    // they are confirmed or rolled back.
+    void close() {
+        onBackground();
+        pipeline.execute(() -> {
+            closing = true;
+            shutdownIfSettled();
+        });
+    }
+
+    private void shutdownIfSettled() {
+        if (closing && pendingWrites.isEmpty()) {
+            pipeline.shutdown();
+        }
+    }
+
+    private void loadLocal(boolean thenSync) {
+        loadingLocal = true;
+        syncEngine.loadLocal(snapshot -> {
+            loadingLocal = false;
+            localLoaded = true;
+            firstScreenListed = true;
+            if (!searchIndexAttached) {
+                // Reads every stored task, so it is queued behind the first screen rather than before it
+                searchIndexAttached = true;
+                syncEngine.attachSearchIndex(searchIndex);
+            }
+            if (!filter.isDefault() || searchQuery != null) {
+                return; // A filter or search was applied while loading; it owns the list now
+            }
+            taskList.replaceAll(snapshot.taskIds, snapshot.tasks);
+            // Only the synced copy is sectioned; filter and search results keep their own order
+            pipeline.showSections(snapshot.dueTimes, snapshot.recurringTasks);
+            if (started) {
+                if (thenSync) startSync();
+                if (taskList.size() < IndexedTaskList.PAGE_SIZE) {
+                    loadNextPage(); // Nothing or little on disk yet, start the backfill
+                }
+            }
+        });
+    }
+
+    // Callbacks run on the pipeline thread; the screen shows the message once
+    private void showError(String message) {
+        errors.postValue(new UserMessage(message));
+    }
+
+    // Evicts pages far from the viewport, refills evicted rows coming into view and
+    // prefetches the next backfill page when the user nears the end of the list
+    public void onListScrolled(int first, int last) {
+        pipeline.execute(() -> {
+            pipeline.evictOutside(first, last);
+            List<String> missing = pipeline.missingIds(first, last);
+            if (!missing.isEmpty() && !reloadingRows) {
+                reloadingRows = true;
+                syncEngine.loadTasks(missing, tasks -> {
+                    reloadingRows = false;
+                    taskList.restore(tasks);
+                });
+            }
+
+            if (last >= taskList.size() - PREFETCH_DISTANCE) {
+                loadNextPage();
+            }
+        });
+    }
+
+    private void loadNextPage() {
+        if (filterPager != null) {
+            loadFilterPage();
+            return;
+        }
+        if (syncEngine.isBackfillComplete()) {
+            return;
+        }
+        syncEngine.loadNextPage(new TaskPager.PageCallback() {
+            @Override
+            public void onPage(List<Task> tasks, boolean endReached) {
+                if (searchQuery != null) {
+                    return; // The page still reaches the store and the index
+                }
+                for (Task task : tasks) {
+                    if (task.isDeleted() || pendingWrites.isPendingDelete(task.getTaskId())) {
+                        continue;
+                    }
+                    if (!TaskFilter.isListed(task)) {
+                        Log.e(TAG, "Reminder time is missing for task: " + task.getTitle());
+                        continue; // Skip tasks without a valid reminder time
+                    }
+                    taskList.upsert(task);
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                showError("Error fetching tasks: " + e.getMessage());
+            }
+        });
+    }
+
+    private void startSync() {
+        if (listening) {
+            return;
+        }
+        listening = true;
+        syncEngine.start(new TaskSyncEngine.ChangeCallback() {
+            @Override
+            public void onTaskChanged(Task task) {
+                if (pendingWrites.isPendingDelete(task.getTaskId())) {
+                    return; // Already removed locally, waiting for the delete to be acknowledged
+                }
+                if (!pendingWrites.isPending(task.getTaskId())) {
+                    dashboard.onRemoteChange(taskList.find(task.getTaskId()), task); // Else the echo of a local write
+                }
+                if (searchQuery != null) {
+                    // Hits are refreshed in place; the index re-runs the search if the match changed
+                    if (taskList.indexOf(task.getTaskId()) >= 0) taskList.upsert(task);
+                    return;
+                }
+                if (!filter.isDefault() && !filter.matches(task, System.currentTimeMillis())) {
+                    taskList.remove(task.getTaskId()); // Edited out of the filtered view
+                    return;
+                }
+                if (!TaskFilter.isListed(task)) {
+                    Log.e(TAG, "Reminder time is missing for task: " + task.getTitle());
+                    taskList.remove(task.getTaskId()); // Skip tasks without a valid reminder time
+                    return;
+                }
+                taskList.upsert(task);
+            }
+
+            @Override
+            public void onTaskRemoved(String taskId) {
+                if (!pendingWrites.isPending(taskId)) {
+                    dashboard.onRemoteChange(taskList.find(taskId), null);
+                }
+                taskList.remove(taskId);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                showError("Error fetching tasks: " + e.getMessage());
+            }
+        });
+    }
+
+    public void setFilter(TaskFilter newFilter) {
+        pipeline.execute(() -> applyFilter(newFilter));
+    }
+
+    // Switches the list to the given filter. Only documents matching the pushed-down part of the
+    // filter are fetched; the default filter goes back to the synced local copy.
+    private void applyFilter(TaskFilter newFilter) {
+        filter = newFilter;
+        clientSortBuffer.clear();
+        filterPager = null;
+        if (searchQuery != null) {
+            return; // Takes effect when the search is cleared
+        }
+        if (filter.isDefault()) {
+            loadLocal(false);
+            return;
+        }
+
+        TaskQueryBuilder.Plan plan = TaskQueryBuilder.build(db, userId, filter, System.currentTimeMillis());
+        filterPager = syncEngine.newPager(plan.query);
+        filterClientSort = plan.clientSort;
+        taskList.replaceAll(Collections.<String>emptyList(), Collections.<Task>emptyList());
+        loadFilterPage();
+    }
+
+    // An empty query leaves search and goes back to the filtered or synced list
+    public void search(String query) {
+        pipeline.execute(() -> {
+            if (query.isEmpty()) {
+                if (searchQuery != null) {
+                    searchQuery = null;
+                    applyFilter(filter);
+                }
+                return;
+            }
+            searchQuery = query;
+            runSearch();
+        });
+    }
+
+    // Shows the ranked hits. Rows still in memory are reused; the first page of the rest is read
+    // from the store, further rows load as they scroll into view like any evicted row.
+    private void runSearch() {
+        List<String> ids = searchIndex.query(searchQuery, SEARCH_RESULT_LIMIT);
+        List<Task> resident = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (int position = 0; position < ids.size(); position++) {
+            Task task = taskList.find(ids.get(position));
+            if (task != null) {
+                resident.add(task);
+            } else if (position < IndexedTaskList.PAGE_SIZE) {
+                missing.add(ids.get(position));
+            }
+        }
+        taskList.replaceAll(ids, resident);
+        if (!missing.isEmpty()) {
+            String query = searchQuery;
+            syncEngine.loadTasks(missing, tasks -> {
+                if (query.equals(searchQuery)) taskList.restore(tasks);
+            });
+        }
+    }
+
+    private void loadFilterPage() {
+        TaskPager pager = filterPager;
+        syncEngine.loadQueryPage(pager, new TaskPager.PageCallback() {
+            @Override
+            public void onPage(List<Task> tasks, boolean endReached) {
+                if (pager != filterPager) {
+                    return; // The filter changed while this page was loading
+                }
+                long now = System.currentTimeMillis();
+                for (Task task : tasks) {
+                    // Predicates that could not be pushed down are evaluated here
+                    if (!filter.matches(task, now) || !TaskFilter.isListed(task)
+                            || pendingWrites.isPendingDelete(task.getTaskId())) {
+                        continue;
+                    }
+                    if (filterClientSort) {
+                        clientSortBuffer.add(task);
+                    } else {
+                        taskList.upsert(task);
+                    }
+                }
+                if (!filterClientSort) {
+                    return;
+                }
+                if (!endReached) {
+                    loadFilterPage(); // The server order differs from the sort, so the whole result is needed
+                    return;
+                }
+                Collections.sort(clientSortBuffer, filter.comparator());
+                List<String> ids = new ArrayList<>();
+                for (Task task : clientSortBuffer) {
+                    ids.add(task.getTaskId());
+                }
+                taskList.replaceAll(ids, clientSortBuffer);
+                clientSortBuffer.clear();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                showError("Error fetching tasks: " + e.getMessage());
+            }
+        });
+    }
+
+    // Main thread
+    // recurrence is a Recurrence rule, null for a one-off task
+    public void createTask(String title, String description, int priority, long dueAt, String recurrence) {
+        // The reminder fires at the due time
+        Task newTask = new Task(title, description, priority, dueAt, dueAt, userId);
+        newTask.setRecurrence(recurrence);
+
+        // Generate the document id up front so the optimistic row and the listener echo share one id
+        newTask.setTaskId(db.collection("tasks").document().getId());
+        detailCache.put(newTask.getTaskId(), description);
+
+        pipeline.execute(() -> {
+            // The engine stamps updatedAt, so it goes first: tasks are not mutated once they are listed
+            com.google.android.gms.tasks.Task<Void> ack = syncEngine.create(newTask);
+            PendingWriteQueue.PendingWrite write = track(pendingWrites.create(newTask), null, newTask);
+            ack.addOnSuccessListener(pipeline, aVoid -> confirm(write))
+                    .addOnFailureListener(pipeline, e -> {
+                        rollback(write);
+                        showError("Error creating task: " + e.getMessage());
+                    });
+        });
+    }
+
+    // Main thread
+    public void deleteTask(String taskId) {
+        detailCache.remove(taskId);
+        pipeline.execute(() -> {
+            Task task = taskList.find(taskId);
+            if (task == null) {
+                return;
+            }
+            flushEdit(taskId); // Keep the edit ordered before the delete
+            PendingWriteQueue.PendingWrite write = track(pendingWrites.delete(taskId), task, null);
+
+            syncEngine.delete(task)
+                    .addOnSuccessListener(pipeline, aVoid -> confirm(write))
+                    .addOnFailureListener(pipeline, e -> {
+                        rollback(write);
+                        showError("Error deleting task: " + e.getMessage());
+                    });
+        });
+    }
+
+    // Main thread. task is the state the editor started from, including its description.
+    public void updateTask(Task task, String newTitle, String newDescription, int newPriority, long newDueAt,
+                           String newRecurrence) {
+        Task updated = new Task(task);
+        updated.setTitle(newTitle);
+        updated.setDescription(newDescription);
+        updated.setPriority(newPriority);
+        updated.setDueAt(newDueAt);
+        updated.setRemindAt(newDueAt);
+        updated.setRecurrence(newRecurrence);
+        if (newDueAt != task.getDueAt() || !Objects.equals(newRecurrence, task.getRecurrence())) {
+            // Exceptions are keyed by where the old rule put each occurrence
+            updated.setRecurrenceExceptions(null);
+        }
+
+        detailCache.put(task.getTaskId(), newDescription);
+
+        // The row changes right away; the write goes out when the coalescing window closes
+        pipeline.execute(() -> {
+            Task base = taskList.find(task.getTaskId());
+            Task before = base != null ? base : task;
+            if (base != null && base.getDescription() == null) {
+                // Listed tasks are summaries; diff against the description the editor started from
+                base = new Task(base);
+                base.setDescription(task.getDescription());
+            }
+            edit(base != null ? base : task, before, updated);
+        });
+    }
+
+    // Main thread. Skips the recurring task's next occurrence from today on; the task stays one
+    // document, the skip is added to its exceptions.
+    public void skipNextOccurrence(String taskId) {
+        pipeline.execute(() -> {
+            Task task = taskList.find(taskId);
+            if (task == null || task.getRecurrence() == null) {
+                return;
+            }
+            OccurrenceExpander.Occurrence next = pipeline.getOccurrences()
+                    .next(task, TaskDates.startOfDay(System.currentTimeMillis()));
+            if (next == null) {
+                return;
+            }
+            Map<String, Long> exceptions = task.getRecurrenceExceptions() == null
+                    ? new HashMap<>() : new HashMap<>(task.getRecurrenceExceptions());
+            exceptions.put(String.valueOf(next.originalStart), Recurrence.SKIPPED);
+            Task updated = new Task(task);
+            updated.setRecurrenceExceptions(exceptions);
+            edit(task, task, updated);
+        });
+    }
+
+    // Pipeline thread. Lists the edit right away; the write goes out when the coalescing window closes.
+    private void edit(Task base, Task before, Task updated) {
+        PendingWriteQueue.PendingWrite write = track(pendingWrites.update(updated), before, updated);
+        if (changeTracker.edit(base, updated, write)) {
+            pipeline.schedule(() -> flushEdit(updated.getTaskId()), TaskChangeTracker.COALESCE_WINDOW_MS);
+        }
+    }
+
+    // Sends the task's merged edit if one is waiting
+    private void flushEdit(String taskId) {
+        TaskChangeTracker.Write<PendingWriteQueue.PendingWrite> write = changeTracker.flush(taskId);
+        if (write != null) {
+            sendEdit(write);
+        }
+    }
+
+    // Writes only the changed fields; every edit merged into the write is confirmed or rolled back with it
+    private void sendEdit(TaskChangeTracker.Write<PendingWriteQueue.PendingWrite> write) {
+        if (write.fields.isEmpty()) {
+            for (PendingWriteQueue.PendingWrite edit : write.tokens) {
+                confirm(edit); // The edits cancelled out, nothing to send
+            }
+            return;
+        }
+        // A copy, since the engine stamps updatedAt and listed tasks are not mutated
+        syncEngine.update(new Task(write.task), write.fields)
+                .addOnSuccessListener(pipeline, aVoid -> {
+                    for (PendingWriteQueue.PendingWrite edit : write.tokens) {
+                        confirm(edit);
+                    }
+                })
+                .addOnFailureListener(pipeline, e -> {
+                    for (PendingWriteQueue.PendingWrite edit : write.tokens) {
+                        rollback(edit);
+                    }
+                    showError("Error updating task: " + e.getMessage());
+                });
+        Log.d(TAG, "Task edit writes: " + changeTracker.getStats());
+    }
+
+    // Shows the write's effect on the dashboard counts until it is confirmed or rolled back
+    private PendingWriteQueue.PendingWrite track(PendingWriteQueue.PendingWrite write, Task before, Task after) {
+        TaskCounts.Delta delta = dashboard.applyLocal(before, after);
+        if (delta != null) countDeltas.put(write, delta);
+        return write;
+    }
+
+    private void confirm(PendingWriteQueue.PendingWrite write) {
+        pendingWrites.confirm(write);
+        dashboard.confirm(countDeltas.remove(write));
+        shutdownIfSettled();
+    }
+
+    private void rollback(PendingWriteQueue.PendingWrite write) {
+        pendingWrites.rollback(write);
+        dashboard.rollback(countDeltas.remove(write));
+        shutdownIfSettled();
+    }
+
+    public void toggleSelected(String taskId) {
+        pipeline.execute(() -> pipeline.toggleSelected(taskId));
+    }
+
+    public void clearSelection() {
+        pipeline.execute(pipeline::clearSelection);
+    }
+
+    // Applies the same change to every selected task: the rows change optimistically, then all
+    // documents are written in chunked batches. Confirmations and rollbacks are applied in one
+    // pipeline run once every chunk finished, so the list is reconciled a single time.
+    public void applyBulk(String action, Map<String, Object> fields, BulkEdit edit) {
+        pipeline.execute(() -> {
+            List<Task> selected = pipeline.getSelectedTasks();
+            pipeline.clearSelection();
+            if (selected.isEmpty()) {
+                return;
+            }
+            List<Task> updated = new ArrayList<>();
+            Map<String, Task> before = new HashMap<>();
+            for (Task task : selected) {
+                before.put(task.getTaskId(), task);
+                flushEdit(task.getTaskId());
+                Task copy = new Task(task);
+                edit.apply(copy);
+                updated.add(copy);
+            }
+
+            Map<String, PendingWriteQueue.PendingWrite> writes = new HashMap<>();
+            // The engine stamps updatedAt, so it goes first: tasks are not mutated once they are listed
+            syncEngine.bulkUpdate(updated, fields, failedTaskIds -> {
+                for (Map.Entry<String, PendingWriteQueue.PendingWrite> write : writes.entrySet()) {
+                    if (failedTaskIds.contains(write.getKey())) {
+                        rollback(write.getValue());
+                    } else {
+                        confirm(write.getValue());
+                    }
+                }
+                if (!failedTaskIds.isEmpty()) {
+                    showError("Could not " + action + " " + failedTaskIds.size() + " tasks");
+                }
+            });
+            for (Task task : updated) {
+                PendingWriteQueue.PendingWrite write = task.isDeleted()
+                        ? pendingWrites.delete(task.getTaskId()) : pendingWrites.update(task);
+                writes.put(task.getTaskId(), track(write, before.get(task.getTaskId()), task));
+            }
+        });
+    }
+
+    public interface BulkEdit {
+        void apply(Task task);
+    }
+
+    // A message for the user; whichever screen observes it first shows it, once
+    public static final class UserMessage {
+        public final String text;
+        private boolean shown;
+
+        UserMessage(String text) {
+            this.text = text;
+        }
+
+        // Main thread only; true the first time it is called
+        public boolean markShown() {
+            if (shown) return false;
+            shown = true;
+            return true;
+        }
+    }
+}
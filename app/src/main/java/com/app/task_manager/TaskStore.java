@@ -0,0 +1,311 @@
+package com.app.task_manager;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.text.TextUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+// On-device copy of the user's tasks so the list can render before the network answers.
+// All methods do disk I/O and must be called off the main thread.
+public class TaskStore extends SQLiteOpenHelper {
+
+    private static final String DATABASE_NAME = "tasks.db";
+    private static final int DATABASE_VERSION = 5;
+
+    private static final String TABLE_TASKS = "tasks";
+
+    // Values of the dirty column: local changes that have not been acknowledged by Firestore
+    public static final int CLEAN = 0;
+    public static final int DIRTY_UPSERT = 1;
+    public static final int DIRTY_DELETE = 2;
+
+    private static TaskStore instance;
+
+    public static synchronized TaskStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new TaskStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private final Context context;
+
+    private TaskStore(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        this.context = context;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_TASKS + " ("
+                + "task_id TEXT PRIMARY KEY, "
+                + "user_id TEXT NOT NULL, "
+                + "title TEXT, "
+                + "description TEXT, "
+                + "priority INTEGER NOT NULL DEFAULT 0, "
+                + "due_at INTEGER NOT NULL DEFAULT 0, "
+                + "remind_at INTEGER NOT NULL DEFAULT 0, "
+                + "updated_at INTEGER NOT NULL DEFAULT 0, "
+                + "recurrence TEXT, "
+                + "recurrence_exceptions TEXT, "
+                + "dirty INTEGER NOT NULL DEFAULT " + CLEAN + ", "
+                // The fields of an unacknowledged update, comma-separated; null for the whole task
+                + "dirty_fields TEXT)");
+        db.execSQL("CREATE INDEX idx_tasks_user_due ON " + TABLE_TASKS + " (user_id, due_at)");
+        db.execSQL("CREATE INDEX idx_tasks_user_priority ON " + TABLE_TASKS + " (user_id, priority)");
+        db.execSQL("CREATE INDEX idx_tasks_user_dirty ON " + TABLE_TASKS + " (user_id, dirty)");
+        db.execSQL("CREATE INDEX idx_tasks_remind ON " + TABLE_TASKS + " (remind_at)");
+        db.execSQL("CREATE INDEX idx_tasks_recurring ON " + TABLE_TASKS + " (recurrence) WHERE recurrence IS NOT NULL");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion == 4) {
+            // Keeps unacknowledged writes; theirs are resent whole, as before
+            db.execSQL("ALTER TABLE " + TABLE_TASKS + " ADD COLUMN dirty_fields TEXT");
+            return;
+        }
+        // The store is only a cache of Firestore, so it is simply rebuilt and synced from scratch
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_TASKS);
+        onCreate(db);
+        TaskSyncEngine.resetSyncState(context);
+    }
+
+    // Tasks to render for the user, excluding local deletes still waiting to be pushed
+    public List<Task> loadTasks(String userId) {
+        return query("user_id = ? AND dirty != ?", new String[]{userId, String.valueOf(DIRTY_DELETE)});
+    }
+
+    // taskId -> dueAt of every listed task. Row order is stable across launches so positions match
+    // what the adapter showed last time; the due times let the list be sectioned before the tasks load.
+    public Map<String, Long> loadDueTimes(String userId) {
+        Map<String, Long> dueTimes = new LinkedHashMap<>();
+        try (Cursor cursor = getReadableDatabase().query(TABLE_TASKS, new String[]{"task_id", "due_at"},
+                "user_id = ? AND dirty != ?", new String[]{userId, String.valueOf(DIRTY_DELETE)},
+                null, null, "task_id")) {
+            while (cursor.moveToNext()) {
+                dueTimes.put(cursor.getString(0), cursor.getLong(1));
+            }
+        }
+        return dueTimes;
+    }
+
+    // Loads a page worth of tasks by id, used to refill evicted rows
+    public List<Task> loadTasks(List<String> taskIds) {
+        if (taskIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        StringBuilder selection = new StringBuilder("dirty != ").append(DIRTY_DELETE).append(" AND task_id IN (");
+        for (int i = 0; i < taskIds.size(); i++) {
+            selection.append(i == 0 ? "?" : ", ?");
+        }
+        selection.append(")");
+        return query(selection.toString(), taskIds.toArray(new String[0]));
+    }
+
+    // taskId -> remindAt of every reminder of the user still to come. The store may still hold
+    // another account's tasks, which must not remind anyone.
+    public Map<String, Long> loadUpcomingReminders(String userId, long now) {
+        Map<String, Long> reminders = new LinkedHashMap<>();
+        try (Cursor cursor = getReadableDatabase().query(TABLE_TASKS, new String[]{"task_id", "remind_at"},
+                "user_id = ? AND remind_at > ? AND dirty != ?",
+                new String[]{userId, String.valueOf(now), String.valueOf(DIRTY_DELETE)},
+                null, null, null)) {
+            while (cursor.moveToNext()) {
+                reminders.put(cursor.getString(0), cursor.getLong(1));
+            }
+        }
+        return reminders;
+    }
+
+    // Recurring tasks with a reminder; their next reminder is worked out from the rule, not stored
+    public List<Task> loadRecurringReminders(String userId) {
+        return query("user_id = ? AND recurrence IS NOT NULL AND remind_at != 0 AND dirty != ?",
+                new String[]{userId, String.valueOf(DIRTY_DELETE)});
+    }
+
+    // The user's recurring tasks, few enough to load whole; their section follows the next occurrence
+    public List<Task> loadRecurringTasks(String userId) {
+        return query("user_id = ? AND recurrence IS NOT NULL AND dirty != ?", new String[]{userId, String.valueOf(DIRTY_DELETE)});
+    }
+
+    public List<Task> loadDirtyTasks(String userId) {
+        return query("user_id = ? AND dirty != ?", new String[]{userId, String.valueOf(CLEAN)});
+    }
+
+    // taskId -> fields of each unacknowledged update; null for a task whose whole document is unsent
+    public Map<String, Set<String>> loadDirtyFields(String userId) {
+        Map<String, Set<String>> dirtyFields = new LinkedHashMap<>();
+        try (Cursor cursor = getReadableDatabase().query(TABLE_TASKS, new String[]{"task_id", "dirty_fields"},
+                "user_id = ? AND dirty = ?", new String[]{userId, String.valueOf(DIRTY_UPSERT)},
+                null, null, null)) {
+            while (cursor.moveToNext()) {
+                dirtyFields.put(cursor.getString(0),
+                        cursor.isNull(1) ? null : new HashSet<>(Arrays.asList(cursor.getString(1).split(","))));
+            }
+        }
+        return dirtyFields;
+    }
+
+    // A local write of the given fields, or of the whole task when fields is null, e.g. a create or delete
+    public void upsert(Task task, int dirty, Collection<String> fields) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.insertWithOnConflict(TABLE_TASKS, null, toValues(task, dirty, dirtyFields(db, task, fields)),
+                    SQLiteDatabase.CONFLICT_REPLACE);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // Local bulk edit of the same fields in one transaction; tombstoned tasks are kept as pending deletes
+    public void upsertAll(List<Task> tasks, Collection<String> fields) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (Task task : tasks) {
+                ContentValues values = task.isDeleted() ? toValues(task, DIRTY_DELETE, null)
+                        : toValues(task, DIRTY_UPSERT, dirtyFields(db, task, fields));
+                db.insertWithOnConflict(TABLE_TASKS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // The written fields joined with those of earlier writes still unacknowledged, so a resend
+    // covers all of them; null once any of the writes is a whole task
+    private static String dirtyFields(SQLiteDatabase db, Task task, Collection<String> fields) {
+        if (fields == null) {
+            return null;
+        }
+        Set<String> merged = new TreeSet<>(fields);
+        try (Cursor local = db.query(TABLE_TASKS, new String[]{"dirty", "dirty_fields"},
+                "task_id = ?", new String[]{task.getTaskId()}, null, null, null)) {
+            if (local.moveToFirst() && local.getInt(0) != CLEAN) {
+                if (local.isNull(1)) {
+                    return null;
+                }
+                merged.addAll(Arrays.asList(local.getString(1).split(",")));
+            }
+        }
+        return TextUtils.join(",", merged);
+    }
+
+    // Applies a batch of server state in one transaction; tombstoned tasks are dropped. A row with a
+    // local write that is not acknowledged yet is kept unless the server has a newer write, and
+    // summaries, which carry no description, keep the description already stored.
+    public void applyServerChanges(List<Task> tasks) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (Task task : tasks) {
+                String description = task.getDescription();
+                try (Cursor local = db.query(TABLE_TASKS, new String[]{"dirty", "updated_at", "description"},
+                        "task_id = ?", new String[]{task.getTaskId()}, null, null, null)) {
+                    if (local.moveToFirst()) {
+                        if (local.getInt(0) != CLEAN && local.getLong(1) >= task.getUpdatedAt()) {
+                            continue;
+                        }
+                        if (description == null) description = local.getString(2);
+                    }
+                }
+                if (task.isDeleted()) {
+                    db.delete(TABLE_TASKS, "task_id = ?", new String[]{task.getTaskId()});
+                } else {
+                    ContentValues values = toValues(task, CLEAN, null);
+                    values.put("description", description);
+                    db.insertWithOnConflict(TABLE_TASKS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // Clears the dirty flag once Firestore acknowledged the write; acknowledged deletes are dropped.
+    // Matching on updatedAt leaves the row dirty if a newer local write landed in the meantime.
+    public void markClean(String taskId, long updatedAt) {
+        SQLiteDatabase db = getWritableDatabase();
+        String[] args = {taskId, String.valueOf(updatedAt)};
+        db.delete(TABLE_TASKS, "task_id = ? AND updated_at = ? AND dirty = " + DIRTY_DELETE, args);
+        ContentValues values = new ContentValues();
+        values.put("dirty", CLEAN);
+        values.putNull("dirty_fields");
+        db.update(TABLE_TASKS, values, "task_id = ? AND updated_at = ?", args);
+    }
+
+    // Drops the user's synced rows so they are fetched again; unacknowledged local writes are kept
+    public void deleteClean(String userId) {
+        getWritableDatabase().delete(TABLE_TASKS, "user_id = ? AND dirty = " + CLEAN, new String[]{userId});
+    }
+
+    public void delete(String taskId) {
+        getWritableDatabase().delete(TABLE_TASKS, "task_id = ?", new String[]{taskId});
+    }
+
+    private List<Task> query(String selection, String[] args) {
+        List<Task> tasks = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().query(TABLE_TASKS, null, selection, args, null, null, null)) {
+            int id = cursor.getColumnIndexOrThrow("task_id");
+            int user = cursor.getColumnIndexOrThrow("user_id");
+            int title = cursor.getColumnIndexOrThrow("title");
+            int description = cursor.getColumnIndexOrThrow("description");
+            int priority = cursor.getColumnIndexOrThrow("priority");
+            int dueAt = cursor.getColumnIndexOrThrow("due_at");
+            int remindAt = cursor.getColumnIndexOrThrow("remind_at");
+            int updatedAt = cursor.getColumnIndexOrThrow("updated_at");
+            int dirty = cursor.getColumnIndexOrThrow("dirty");
+            int recurrence = cursor.getColumnIndexOrThrow("recurrence");
+            int exceptions = cursor.getColumnIndexOrThrow("recurrence_exceptions");
+            while (cursor.moveToNext()) {
+                Task task = new Task(cursor.getString(title), cursor.getString(description),
+                        cursor.getInt(priority), cursor.getLong(dueAt),
+                        cursor.getLong(remindAt), cursor.getString(user));
+                task.setTaskId(cursor.getString(id));
+                task.setUpdatedAt(cursor.getLong(updatedAt));
+                task.setDeleted(cursor.getInt(dirty) == DIRTY_DELETE);
+                if (!cursor.isNull(recurrence)) {
+                    task.setRecurrence(cursor.getString(recurrence));
+                    Map<String, Long> parsed = Recurrence.parseExceptions(cursor.getString(exceptions));
+                    task.setRecurrenceExceptions(parsed.isEmpty() ? null : parsed);
+                }
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    private static ContentValues toValues(Task task, int dirty, String dirtyFields) {
+        ContentValues values = new ContentValues();
+        values.put("task_id", task.getTaskId());
+        values.put("user_id", task.getUserId());
+        values.put("title", task.getTitle());
+        values.put("description", task.getDescription());
+        values.put("priority", task.getPriority());
+        values.put("due_at", task.getDueAt());
+        values.put("remind_at", task.getRemindAt());
+        values.put("updated_at", task.getUpdatedAt());
+        values.put("recurrence", task.getRecurrence());
+        values.put("recurrence_exceptions", Recurrence.formatExceptions(task.getRecurrenceExceptions()));
+        values.put("dirty", dirty);
+        values.put("dirty_fields", dirtyFields);
+        return values;
+    }
+}
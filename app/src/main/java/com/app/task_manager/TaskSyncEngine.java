@@ -0,0 +1,562 @@
+package com.app.task_manager;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Keeps the local TaskStore in step with Firestore: renders from disk first, then pulls only
+// documents written since the last sync watermark and pushes local writes that were never acknowledged.
+// Documents older than the first sync are backfilled page by page as the user scrolls.
+// Snapshots are decoded and every callback runs on the callback executor, never on the main thread.
+public class TaskSyncEngine {
+
+    private static final String TAG = "TaskSyncEngine";
+    private static final String PREFS_NAME = "task_sync";
+
+    // updatedAt comes from device clocks, so each pull re-reads a small overlap to tolerate skew
+    private static final long WATERMARK_OVERLAP_MS = 5 * 60 * 1000;
+
+    private static final int INITIAL_RESIDENT_PAGES = 2;
+
+    // Tombstones are kept so devices syncing from a watermark see the delete, then purged. A device
+    // whose watermark is older than this may have missed a purged tombstone and syncs from scratch.
+    static final long TOMBSTONE_TTL_MS = 30L * 24 * 60 * 60 * 1000;
+    private static final long PURGE_INTERVAL_MS = 24 * 60 * 60 * 1000;
+    private static final int PURGE_LIMIT = TaskBatchWriter.MAX_BATCH_WRITES;
+
+    // Single thread so store reads and writes are applied in order
+    private static final ExecutorService IO_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    // taskId -> writes of this process not answered yet. Process-wide, as a write outlives the
+    // session that made it.
+    private static final ConcurrentHashMap<String, Integer> IN_FLIGHT = new ConcurrentHashMap<>();
+    // Users whose unacknowledged writes of an earlier process were sent again
+    private static final Set<String> PUSHED_USERS = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    // First screen read ahead at process start, taken by the first loadLocal of the same user.
+    // Dropped by any store write, so it is never older than the store. IO thread only.
+    private static LocalSnapshot prefetched;
+
+    private final FirebaseFirestore db;
+    private final TaskStore store;
+    private final SharedPreferences prefs;
+    private final TaskMigrator migrator;
+    private final TaskBatchWriter batchWriter;
+    private final ReminderScheduler reminders;
+    private final String userId;
+    private final Executor callbackExecutor;
+    private ListenerRegistration registration;
+    private TaskPager backfillPager;
+    private volatile TaskSearchIndex searchIndex;
+    // Identical disk reads requested while one is running share its result
+    private final SingleFlight<String, LocalSnapshot> localLoads = new SingleFlight<>();
+    private final SingleFlight<List<String>, List<Task>> taskLoads = new SingleFlight<>();
+
+    public TaskSyncEngine(Context context, FirebaseFirestore db, String userId, Executor callbackExecutor) {
+        this.db = db;
+        this.callbackExecutor = callbackExecutor;
+        this.store = TaskStore.getInstance(context);
+        this.prefs = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.userId = userId;
+        this.migrator = new TaskMigrator(db);
+        this.batchWriter = new TaskBatchWriter(db, callbackExecutor);
+        this.reminders = ReminderScheduler.getInstance(context);
+    }
+
+    // Forgets the watermark and backfill progress of every user, e.g. after the store was rebuilt
+    public static void resetSyncState(Context context) {
+        context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+                .edit().clear().apply();
+    }
+
+    // Builds the index from every stored task once, then keeps it in step with each store write.
+    // The index is owned by the callback executor, so updates are posted there in write order.
+    public void attachSearchIndex(TaskSearchIndex index) {
+        searchIndex = index;
+        IO_EXECUTOR.execute(() -> {
+            List<Task> tasks = store.loadTasks(userId);
+            callbackExecutor.execute(() -> index.build(tasks));
+        });
+    }
+
+    // Starts reading the first screen from disk before TaskActivity exists, e.g. from the launcher activity
+    public static void prefetchLocal(Context context, String userId) {
+        TaskStore store = TaskStore.getInstance(context);
+        IO_EXECUTOR.execute(() -> prefetched = readLocal(store, userId));
+    }
+
+    // Reads every stored id but only the first pages of tasks, so the cost of the first
+    // screen does not depend on how many tasks the user has.
+    public void loadLocal(LocalCallback callback) {
+        localLoads.run(userId, done -> IO_EXECUTOR.execute(() -> {
+            LocalSnapshot snapshot = prefetched != null && prefetched.userId.equals(userId)
+                    ? prefetched : readLocal(store, userId);
+            prefetched = null;
+            done.onLoaded(snapshot);
+        }), snapshot -> callbackExecutor.execute(() -> callback.onLoaded(snapshot)));
+    }
+
+    private static LocalSnapshot readLocal(TaskStore store, String userId) {
+        long start = TaskMetrics.start();
+        Map<String, Long> dueTimes = store.loadDueTimes(userId);
+        List<String> taskIds = new ArrayList<>(dueTimes.keySet());
+        int resident = Math.min(taskIds.size(), IndexedTaskList.PAGE_SIZE * INITIAL_RESIDENT_PAGES);
+        LocalSnapshot snapshot = new LocalSnapshot(userId, taskIds, store.loadTasks(taskIds.subList(0, resident)),
+                dueTimes, store.loadRecurringTasks(userId));
+        TaskMetrics.stop("store.loadLocal", start);
+        return snapshot;
+    }
+
+    // Reloads evicted rows from disk
+    public void loadTasks(List<String> taskIds, TasksCallback callback) {
+        List<String> ids = new ArrayList<>(taskIds);
+        taskLoads.run(ids, done -> IO_EXECUTOR.execute(() -> done.onLoaded(store.loadTasks(ids))),
+                tasks -> callbackExecutor.execute(() -> callback.onLoaded(tasks)));
+    }
+
+    public boolean isBackfillComplete() {
+        return prefs.getBoolean(backfillDoneKey(), false);
+    }
+
+    // Fetches the next page of documents that predate the first sync. The cursor is persisted,
+    // so an interrupted backfill continues where it stopped on the next launch.
+    public void loadNextPage(TaskPager.PageCallback callback) {
+        if (isBackfillComplete()) {
+            return;
+        }
+        if (backfillPager == null) {
+            backfillPager = new TaskPager(db.collection("tasks")
+                    .whereEqualTo("userId", userId)
+                    .orderBy(FieldPath.documentId()), IndexedTaskList.PAGE_SIZE, migrator, callbackExecutor);
+            String cursor = prefs.getString(backfillCursorKey(), null);
+            if (cursor != null) {
+                backfillPager.resumeAfter(cursor);
+            }
+        }
+        backfillPager.loadNextPage(new TaskPager.PageCallback() {
+            @Override
+            public void onPage(List<Task> tasks, boolean endReached) {
+                migrator.flush();
+                String cursor = tasks.isEmpty() ? null : tasks.get(tasks.size() - 1).getTaskId();
+                IO_EXECUTOR.execute(() -> {
+                    applyServerChanges(tasks);
+                    SharedPreferences.Editor editor = prefs.edit();
+                    if (cursor != null) editor.putString(backfillCursorKey(), cursor);
+                    editor.putBoolean(backfillDoneKey(), endReached).apply();
+                });
+                callback.onPage(tasks, endReached);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                callback.onError(e);
+            }
+        });
+    }
+
+    // Pager over a filtered query built by TaskQueryBuilder
+    public TaskPager newPager(Query orderedQuery) {
+        return new TaskPager(orderedQuery, IndexedTaskList.PAGE_SIZE, migrator, callbackExecutor);
+    }
+
+    // Loads the next page of a filtered query; results are kept in the store like any other server state
+    public void loadQueryPage(TaskPager pager, TaskPager.PageCallback callback) {
+        pager.loadNextPage(new TaskPager.PageCallback() {
+            @Override
+            public void onPage(List<Task> tasks, boolean endReached) {
+                migrator.flush();
+                IO_EXECUTOR.execute(() -> applyServerChanges(tasks));
+                callback.onPage(tasks, endReached);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                callback.onError(e);
+            }
+        });
+    }
+
+    public void start(ChangeCallback callback) {
+        stop();
+        long watermark = prefs.getLong(watermarkKey(), 0);
+        if (watermark != 0 && watermark < System.currentTimeMillis() - TOMBSTONE_TTL_MS + WATERMARK_OVERLAP_MS) {
+            // Deletes since then may no longer have tombstones; the synced rows are fetched again
+            IO_EXECUTOR.execute(() -> store.deleteClean(userId));
+            prefs.edit().remove(watermarkKey()).remove(backfillCursorKey()).remove(backfillDoneKey()).apply();
+            backfillPager = null;
+            watermark = 0;
+        }
+        if (watermark == 0) {
+            // First sync: older documents, including legacy ones without updatedAt, arrive through the backfill
+            watermark = System.currentTimeMillis();
+            prefs.edit().putLong(watermarkKey(), watermark).apply();
+        }
+
+        Query query = db.collection("tasks")
+                .whereEqualTo("userId", userId)
+                .whereGreaterThan("updatedAt", watermark - WATERMARK_OVERLAP_MS);
+
+        registration = query.addSnapshotListener(callbackExecutor, (snapshots, e) -> {
+            if (e != null) {
+                TaskMetrics.count(FirestoreMetrics.ERRORS, 1);
+                callback.onError(e);
+                return;
+            }
+            // Listener reads are billed per changed document; the timer covers decoding and applying them
+            long start = TaskMetrics.start();
+            FirestoreMetrics.read(snapshots.getDocumentChanges().size());
+            List<Task> confirmed = new ArrayList<>();
+            List<String> hardDeleted = new ArrayList<>();
+            for (DocumentChange change : snapshots.getDocumentChanges()) {
+                QueryDocumentSnapshot documentSnapshot = change.getDocument();
+                if (change.getType() == DocumentChange.Type.REMOVED) {
+                    hardDeleted.add(documentSnapshot.getId());
+                    callback.onTaskRemoved(documentSnapshot.getId());
+                    continue;
+                }
+
+                Task task = migrator.decode(documentSnapshot);
+                // Local echoes are persisted by the write path; only server state moves the watermark
+                if (!documentSnapshot.getMetadata().hasPendingWrites()) {
+                    confirmed.add(task);
+                }
+                if (task.isDeleted()) {
+                    callback.onTaskRemoved(task.getTaskId());
+                } else {
+                    callback.onTaskChanged(task);
+                }
+            }
+            migrator.flush();
+            if (!confirmed.isEmpty() || !hardDeleted.isEmpty()) {
+                IO_EXECUTOR.execute(() -> persistServerChanges(confirmed, hardDeleted));
+            }
+            TaskMetrics.stop("firestore.listen.snapshot", start);
+        });
+
+        pushDirtyTasks();
+        purgeTombstones();
+    }
+
+    // Deletes the user's tombstones older than TOMBSTONE_TTL_MS, a batch at most once a day, so
+    // deleted tasks stop costing listener reads and counts
+    private void purgeTombstones() {
+        long now = System.currentTimeMillis();
+        if (now - prefs.getLong(purgedAtKey(), 0) < PURGE_INTERVAL_MS) {
+            return;
+        }
+        prefs.edit().putLong(purgedAtKey(), now).apply();
+        long start = TaskMetrics.start();
+        db.collection("tasks")
+                .whereEqualTo("userId", userId)
+                .whereEqualTo("deleted", true)
+                .whereLessThan("updatedAt", now - TOMBSTONE_TTL_MS)
+                .limit(PURGE_LIMIT)
+                .get()
+                .addOnSuccessListener(IO_EXECUTOR, snapshots -> {
+                    FirestoreMetrics.read(snapshots.size());
+                    if (snapshots.isEmpty()) {
+                        return;
+                    }
+                    WriteBatch batch = db.batch();
+                    for (QueryDocumentSnapshot tombstone : snapshots) {
+                        batch.delete(tombstone.getReference());
+                    }
+                    FirestoreMetrics.write("firestore.write.purge", batch.commit(), snapshots.size(), start);
+                })
+                .addOnFailureListener(IO_EXECUTOR, e -> Log.w(TAG, "Tombstone purge failed", e));
+    }
+
+    public void stop() {
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+    }
+
+    // Summary and detail document are written in one batch so neither exists without the other
+    public com.google.android.gms.tasks.Task<Void> create(Task task) {
+        long start = TaskMetrics.start();
+        task.setUpdatedAt(System.currentTimeMillis());
+        Task snapshot = new Task(task);
+        IO_EXECUTOR.execute(() -> upsertLocal(snapshot, TaskStore.DIRTY_UPSERT, null));
+        WriteBatch batch = db.batch();
+        batch.set(summary(task.getTaskId()), TaskCodec.encode(task));
+        batch.set(detail(task.getTaskId()), TaskCodec.encodeDetail(task));
+        return trackAck(FirestoreMetrics.write("firestore.write.create", batch.commit(), 2, start), snapshot);
+    }
+
+    // Sends only the given fields; the full updated task is what the store keeps. A changed
+    // description goes to the detail document, the summary still gets the new updatedAt.
+    public com.google.android.gms.tasks.Task<Void> update(Task updated, Map<String, Object> fields) {
+        long start = TaskMetrics.start();
+        long now = System.currentTimeMillis();
+        updated.setUpdatedAt(now);
+        Set<String> written = new HashSet<>(fields.keySet());
+        boolean descriptionChanged = fields.containsKey(TaskChangeTracker.DESCRIPTION);
+        fields.remove(TaskChangeTracker.DESCRIPTION);
+        fields.put("updatedAt", now);
+        Task snapshot = new Task(updated);
+        IO_EXECUTOR.execute(() -> upsertLocal(snapshot, TaskStore.DIRTY_UPSERT, written));
+        WriteBatch batch = db.batch();
+        batch.update(summary(updated.getTaskId()), fields);
+        if (descriptionChanged) {
+            batch.set(detail(updated.getTaskId()), TaskCodec.encodeDetail(updated), SetOptions.merge());
+        }
+        return trackAck(FirestoreMetrics.write("firestore.write.update", batch.commit(),
+                descriptionChanged ? 2 : 1, start), snapshot);
+    }
+
+    // Deletes are written as tombstones so devices syncing from a watermark still see them;
+    // the detail document is not needed by anyone after that and is removed
+    public com.google.android.gms.tasks.Task<Void> delete(Task task) {
+        long start = TaskMetrics.start();
+        Task tombstone = new Task(task);
+        tombstone.setDeleted(true);
+        tombstone.setUpdatedAt(System.currentTimeMillis());
+        IO_EXECUTOR.execute(() -> upsertLocal(tombstone, TaskStore.DIRTY_DELETE, null));
+        return trackAck(FirestoreMetrics.write("firestore.write.delete", tombstoneBatch(tombstone).commit(), 2, start),
+                tombstone);
+    }
+
+    // Writes the same fields to every given task in chunked batches; tombstoned tasks are kept as
+    // pending deletes in the store. The callback runs once, after the last chunk finished.
+    public void bulkUpdate(List<Task> updated, Map<String, Object> fields, BulkCallback callback) {
+        long now = System.currentTimeMillis();
+        fields.put("updatedAt", now);
+        List<Task> snapshots = new ArrayList<>();
+        List<String> taskIds = new ArrayList<>();
+        for (Task task : updated) {
+            task.setUpdatedAt(now);
+            snapshots.add(new Task(task));
+            taskIds.add(task.getTaskId());
+        }
+        Set<String> written = new HashSet<>(fields.keySet());
+        IO_EXECUTOR.execute(() -> {
+            store.upsertAll(snapshots, written);
+            onStored(snapshots);
+        });
+
+        boolean deleting = Boolean.TRUE.equals(fields.get("deleted"));
+        for (String taskId : taskIds) {
+            startWrite(taskId);
+        }
+        batchWriter.update(taskIds, fields, deleting, new TaskBatchWriter.Callback() {
+            @Override
+            public void onChunkCommitted(List<String> committedIds) {
+                for (String taskId : committedIds) {
+                    endWrite(taskId);
+                }
+                IO_EXECUTOR.execute(() -> {
+                    for (String taskId : committedIds) {
+                        store.markClean(taskId, now);
+                    }
+                });
+            }
+
+            @Override
+            public void onComplete(Set<String> failedTaskIds, Exception firstError) {
+                for (String taskId : failedTaskIds) {
+                    endWrite(taskId);
+                }
+                if (firstError != null) {
+                    Log.w(TAG, "Bulk write failed for " + failedTaskIds.size() + " tasks", firstError);
+                }
+                callback.onComplete(failedTaskIds);
+            }
+        });
+    }
+
+    private com.google.android.gms.tasks.Task<Void> trackAck(com.google.android.gms.tasks.Task<Void> write, Task written) {
+        startWrite(written.getTaskId());
+        return write
+                .addOnCompleteListener(IO_EXECUTOR, done -> endWrite(written.getTaskId()))
+                .addOnSuccessListener(IO_EXECUTOR, aVoid -> store.markClean(written.getTaskId(), written.getUpdatedAt()))
+                // The listener redelivers the server state after a rejected write, which overwrites the row
+                .addOnFailureListener(IO_EXECUTOR, e -> Log.w(TAG, "Write failed for task " + written.getTaskId(), e));
+    }
+
+    private static void startWrite(String taskId) {
+        IN_FLIGHT.merge(taskId, 1, Integer::sum);
+    }
+
+    private static void endWrite(String taskId) {
+        IN_FLIGHT.computeIfPresent(taskId, (id, writes) -> writes == 1 ? null : writes - 1);
+    }
+
+    // Re-sends writes that were made locally but never acknowledged, e.g. because the app was killed
+    // offline. Only once per user and process, and not for tasks with a write in flight: Firestore
+    // still has those queued and sends them itself. An update resends only the fields it changed,
+    // so edits made elsewhere to the other fields are kept.
+    private void pushDirtyTasks() {
+        if (!PUSHED_USERS.add(userId)) {
+            return;
+        }
+        IO_EXECUTOR.execute(() -> {
+            Map<String, Set<String>> dirtyFields = store.loadDirtyFields(userId);
+            for (Task task : store.loadDirtyTasks(userId)) {
+                if (IN_FLIGHT.containsKey(task.getTaskId())) {
+                    continue;
+                }
+                long start = TaskMetrics.start();
+                if (task.isDeleted()) {
+                    trackAck(FirestoreMetrics.write("firestore.write.resend", tombstoneBatch(task).commit(), 2, start), task);
+                    continue;
+                }
+                Set<String> fields = dirtyFields.get(task.getTaskId());
+                Map<String, Object> data = TaskCodec.encode(task);
+                if (fields != null) {
+                    data.keySet().retainAll(fields);
+                    data.put("updatedAt", task.getUpdatedAt());
+                }
+                boolean withDetail = task.getDescription() != null
+                        && (fields == null || fields.contains(TaskChangeTracker.DESCRIPTION));
+                WriteBatch batch = db.batch();
+                batch.set(summary(task.getTaskId()), data, SetOptions.merge());
+                if (withDetail) {
+                    batch.set(detail(task.getTaskId()), TaskCodec.encodeDetail(task), SetOptions.merge());
+                }
+                trackAck(FirestoreMetrics.write("firestore.write.resend", batch.commit(), withDetail ? 2 : 1, start), task);
+            }
+        });
+    }
+
+    // A merge rather than an update, as a task created and deleted offline has no document yet
+    private WriteBatch tombstoneBatch(Task tombstone) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("userId", tombstone.getUserId());
+        fields.put("deleted", true);
+        fields.put("updatedAt", tombstone.getUpdatedAt());
+        WriteBatch batch = db.batch();
+        batch.set(summary(tombstone.getTaskId()), fields, SetOptions.merge());
+        batch.delete(detail(tombstone.getTaskId()));
+        return batch;
+    }
+
+    private DocumentReference summary(String taskId) {
+        return db.collection("tasks").document(taskId);
+    }
+
+    private DocumentReference detail(String taskId) {
+        return db.collection(TaskSchema.DETAILS_COLLECTION).document(taskId);
+    }
+
+    // Store writes go through these so the reminder queue and search index get the same delta
+    private void upsertLocal(Task task, int dirty, Collection<String> fields) {
+        store.upsert(task, dirty, fields);
+        onStored(Collections.singletonList(task));
+    }
+
+    private void applyServerChanges(List<Task> tasks) {
+        store.applyServerChanges(tasks);
+        onStored(tasks);
+    }
+
+    private void onStored(List<Task> tasks) {
+        prefetched = null;
+        reminders.onTasksChanged(tasks);
+        TaskSearchIndex index = searchIndex;
+        if (index != null) {
+            callbackExecutor.execute(() -> index.upsertAll(tasks));
+        }
+    }
+
+    private void persistServerChanges(List<Task> confirmed, List<String> hardDeleted) {
+        applyServerChanges(confirmed);
+        for (String taskId : hardDeleted) {
+            store.delete(taskId);
+        }
+        if (!hardDeleted.isEmpty()) {
+            prefetched = null;
+            reminders.onTasksRemoved(hardDeleted);
+            TaskSearchIndex index = searchIndex;
+            if (index != null) {
+                callbackExecutor.execute(() -> index.removeAll(hardDeleted));
+            }
+        }
+
+        long watermark = prefs.getLong(watermarkKey(), 0);
+        long newWatermark = watermark;
+        for (Task task : confirmed) {
+            newWatermark = Math.max(newWatermark, task.getUpdatedAt());
+        }
+        if (newWatermark > watermark) {
+            prefs.edit().putLong(watermarkKey(), newWatermark).apply();
+        }
+    }
+
+    private String watermarkKey() {
+        return "watermark_" + userId;
+    }
+
+    private String purgedAtKey() {
+        return "tombstones_purged_" + userId;
+    }
+
+    private String backfillCursorKey() {
+        return "backfill_cursor_" + userId;
+    }
+
+    private String backfillDoneKey() {
+        return "backfill_done_" + userId;
+    }
+
+    // The on-device list: every id, the tasks of the first pages, and what the due-date sections
+    // need for the rest
+    public static final class LocalSnapshot {
+        final String userId;
+        public final List<String> taskIds;
+        public final List<Task> tasks; // Resident
+        public final Map<String, Long> dueTimes; // taskId -> dueAt for every id
+        public final List<Task> recurringTasks;
+
+        LocalSnapshot(String userId, List<String> taskIds, List<Task> tasks, Map<String, Long> dueTimes,
+                      List<Task> recurringTasks) {
+            this.userId = userId;
+            this.taskIds = taskIds;
+            this.tasks = tasks;
+            this.dueTimes = dueTimes;
+            this.recurringTasks = recurringTasks;
+        }
+    }
+
+    public interface LocalCallback {
+        void onLoaded(LocalSnapshot snapshot);
+    }
+
+    public interface TasksCallback {
+        void onLoaded(List<Task> tasks);
+    }
+
+    public interface BulkCallback {
+        void onComplete(Set<String> failedTaskIds);
+    }
+
+    public interface ChangeCallback {
+        void onTaskChanged(Task task);
+        void onTaskRemoved(String taskId);
+        void onError(Exception e);
+    }
+}
@@ -0,0 +1,143 @@
+package com.app.task_manager;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Runs task exports and imports one at a time on a background thread and publishes their
+// progress. Process-wide, like TaskRepository, so a transfer carries on while the screen that
+// started it is recreated. Import progress is saved per file as it commits, so an import that was
+// interrupted, e.g. by the process being killed, carries on where it stopped when the same file is
+// imported again.
+public final class TaskTransfer {
+
+    private static final String TAG = "TaskTransfer";
+    private static final String PREFS_NAME = "task_transfer";
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor();
+    private static final MutableLiveData<Status> status = new MutableLiveData<>();
+    private static volatile boolean running;
+
+    private TaskTransfer() {
+    }
+
+    public static LiveData<Status> getStatus() {
+        return status;
+    }
+
+    public static boolean isRunning() {
+        return running;
+    }
+
+    // Main thread only
+    public static void export(Context context, Uri uri, String userId) {
+        Context app = context.getApplicationContext();
+        start("Exporting tasks...");
+        EXECUTOR.execute(() -> {
+            // "wt" truncates, so exporting over an older file leaves no lines of it behind
+            try (ParcelFileDescriptor fd = open(app, uri, "wt");
+                 FileChannel channel = new FileOutputStream(fd.getFileDescriptor()).getChannel()) {
+                LineChannelWriter writer = new LineChannelWriter(channel);
+                int exported = new TaskExporter(FirebaseFirestore.getInstance(), userId)
+                        .export(writer, tasks -> post("Exported " + tasks + " tasks...", false));
+                channel.force(true);
+                post("Exported " + exported + " tasks", true);
+            } catch (Exception e) {
+                Log.w(TAG, "Export failed", e);
+                post("Export failed: " + e.getMessage(), true);
+            }
+        });
+    }
+
+    // Main thread only
+    public static void importFrom(Context context, Uri uri, String userId) {
+        Context app = context.getApplicationContext();
+        SharedPreferences prefs = app.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String key = userId + "." + uri;
+        start("Importing tasks...");
+        EXECUTOR.execute(() -> {
+            try (ParcelFileDescriptor fd = open(app, uri, "r");
+                 FileChannel channel = new FileInputStream(fd.getFileDescriptor()).getChannel()) {
+                // Saved progress only counts for the same export, not another file saved under the same name
+                long exportedAt = TaskImporter.readHeader(channel).exportedAt;
+                long resumeOffset = prefs.getLong(key + ".exportedAt", -1) == exportedAt
+                        ? prefs.getLong(key + ".offset", 0) : 0;
+                // Counts of the lines before the offset, which the importer does not read again
+                int resumedCount = resumeOffset > 0 ? prefs.getInt(key + ".imported", 0) : 0;
+                int resumedSkipped = resumeOffset > 0 ? prefs.getInt(key + ".skipped", 0) : 0;
+                int resumedKept = resumeOffset > 0 ? prefs.getInt(key + ".kept", 0) : 0;
+                prefs.edit().putLong(key + ".exportedAt", exportedAt).apply();
+
+                int[] result = new TaskImporter(FirebaseFirestore.getInstance(), userId).run(channel, resumeOffset,
+                        (offset, imported, skipped, kept) -> {
+                            prefs.edit().putLong(key + ".offset", offset)
+                                    .putInt(key + ".imported", resumedCount + imported)
+                                    .putInt(key + ".skipped", resumedSkipped + skipped)
+                                    .putInt(key + ".kept", resumedKept + kept).apply();
+                            post("Imported " + (resumedCount + imported) + " tasks...", false);
+                        });
+                prefs.edit().remove(key + ".exportedAt").remove(key + ".offset").remove(key + ".imported")
+                        .remove(key + ".skipped").remove(key + ".kept").apply();
+                int skippedLines = resumedSkipped + result[1];
+                int keptTasks = resumedKept + result[2];
+                String skipped = skippedLines > 0 ? ", skipped " + skippedLines + " unreadable lines" : "";
+                String kept = keptTasks > 0 ? ", kept " + keptTasks + " tasks already up to date" : "";
+                post("Imported " + (resumedCount + result[0]) + " tasks" + skipped + kept, true);
+            } catch (Exception e) {
+                Log.w(TAG, "Import failed", e);
+                post("Import stopped: " + e.getMessage() + ". Import the file again to continue.", true);
+            }
+        });
+    }
+
+    private static ParcelFileDescriptor open(Context context, Uri uri, String mode) throws FileNotFoundException {
+        ParcelFileDescriptor fd = context.getContentResolver().openFileDescriptor(uri, mode);
+        if (fd == null) {
+            throw new FileNotFoundException(uri.toString());
+        }
+        return fd;
+    }
+
+    private static void start(String text) {
+        running = true;
+        status.setValue(new Status(text, false));
+    }
+
+    private static void post(String text, boolean finished) {
+        if (finished) running = false;
+        status.postValue(new Status(text, finished));
+    }
+
+    public static final class Status {
+        public final String text;
+        public final boolean finished;
+        private boolean shown; // Main thread only
+
+        Status(String text, boolean finished) {
+            this.text = text;
+            this.finished = finished;
+        }
+
+        // True the first time a finished status is shown, so a recreated screen does not repeat it
+        public boolean markShown() {
+            if (!finished || shown) {
+                return false;
+            }
+            shown = true;
+            return true;
+        }
+    }
+}
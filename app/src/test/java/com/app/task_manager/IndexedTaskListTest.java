@@ -0,0 +1,136 @@
+package com.app.task_manager;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class IndexedTaskListTest {
+
+    private static Task task(String id, String title) {
+        Task task = new Task(title, "", TaskPriority.LOW, 1000L, 1000L, "user");
+        task.setTaskId(id);
+        return task;
+    }
+
+    @Test
+    public void deltas_produceFineGrainedNotifications() {
+        IndexedTaskList list = new IndexedTaskList();
+        List<String> events = new ArrayList<>();
+        list.setChangeListener(new IndexedTaskList.ChangeListener() {
+            @Override
+            public void onInserted(int position) { events.add("insert " + position); }
+
+            @Override
+            public void onChanged(int position) { events.add("change " + position); }
+
+            @Override
+            public void onRemoved(int position, String taskId) { events.add("remove " + position); }
+
+            @Override
+            public void onEvicted(String taskId) { events.add("evict " + taskId); }
+
+            @Override
+            public void onReset() { events.add("reset"); }
+        });
+
+        list.upsert(task("a", "A"));
+        list.upsert(task("b", "B"));
+        list.upsert(task("c", "C"));
+        list.upsert(task("b", "B2"));
+        list.remove("a");
+
+        assertEquals("[insert 0, insert 1, insert 2, change 1, remove 0]", events.toString());
+        assertEquals(0, list.indexOf("b"));
+        assertEquals(1, list.indexOf("c"));
+        assertEquals("B2", list.find("b").getTitle());
+        assertFalse(list.remove("missing"));
+    }
+
+    @Test
+    public void evictedPages_keepPositionsAndReloadById() {
+        IndexedTaskList list = new IndexedTaskList();
+        List<String> ids = new ArrayList<>();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < IndexedTaskList.PAGE_SIZE * 10; i++) {
+            String id = String.format("t%04d", i);
+            ids.add(id);
+            tasks.add(task(id, "Task " + i));
+        }
+        list.replaceAll(ids, tasks);
+
+        // Viewport on page 8: pages 6..9 stay resident, everything before is evicted
+        int first = IndexedTaskList.PAGE_SIZE * 8;
+        assertTrue(list.evictOutside(first, first + 10));
+        assertFalse(list.evictOutside(first, first + 10)); // Nothing left to drop
+        assertNull(list.get(0));
+        assertEquals("t0000", list.getTaskId(0));
+        assertNotNull(list.get(IndexedTaskList.PAGE_SIZE * 6));
+        assertEquals(0, list.indexOf("t0000"));
+        assertEquals(IndexedTaskList.PAGE_SIZE * 10, list.size());
+
+        List<String> missing = list.missingIds(0, 0);
+        assertEquals(IndexedTaskList.PAGE_SIZE, missing.size());
+        list.restore(tasks.subList(0, IndexedTaskList.PAGE_SIZE));
+        assertEquals("Task 0", list.get(0).getTitle());
+        assertTrue(list.missingIds(0, 0).isEmpty());
+
+        // A removal shifts the first row of page 6 into page 5, which eviction still reaches
+        list.remove("t0000");
+        assertTrue(list.evictOutside(first, first + 10));
+        assertNull(list.get(IndexedTaskList.PAGE_SIZE * 6 - 1));
+        assertNotNull(list.get(IndexedTaskList.PAGE_SIZE * 6));
+    }
+
+    // Positions are implicit, so a change renumbers nothing after it: with 100 times the rows, a
+    // removal and an insert allocate about as much, growing only with the tree's O(log n) depth.
+    // Renumbering the rows after the removed one would allocate a boxed position for each.
+    @Test
+    public void oneChange_costsAboutTheSameAtAnySize() {
+        long small = bytesPerChange(1_000);
+        long large = bytesPerChange(100_000);
+        assertTrue(small + " bytes per change at 1k rows, " + large + " at 100k", large < 3 * small);
+    }
+
+    private static final int CHANGES = 10_000;
+
+    // Bytes this thread allocates per removal and re-insert in a list of the given size
+    private static long bytesPerChange(int size) {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        IndexedTaskList list = new IndexedTaskList();
+        List<String> ids = new ArrayList<>();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            String id = "t" + i;
+            ids.add(id);
+            tasks.add(task(id, id));
+        }
+        list.replaceAll(ids, tasks);
+        for (int i = 0; i < CHANGES; i++) {
+            change(list, tasks, i); // Warm up so the change path is compiled
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < CHANGES; i++) {
+            change(list, tasks, i);
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - before) / CHANGES;
+    }
+
+    // Takes a row out of the middle and adds it back at the end
+    private static void change(IndexedTaskList list, List<Task> tasks, int i) {
+        Task task = tasks.get((int) ((i * 7919L) % tasks.size()));
+        list.remove(task.getTaskId());
+        list.upsert(task);
+    }
+}
@@ -0,0 +1,59 @@
+package com.app.task_manager;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PendingWriteQueueTest {
+
+    private static Task task(String id, String title) {
+        Task task = new Task(title, "", TaskPriority.LOW, 1000L, 1000L, "user");
+        task.setTaskId(id);
+        return task;
+    }
+
+    @Test
+    public void failedCreate_removesOptimisticRow() {
+        IndexedTaskList list = new IndexedTaskList();
+        PendingWriteQueue queue = new PendingWriteQueue(list);
+
+        PendingWriteQueue.PendingWrite write = queue.create(task("a", "A"));
+        assertEquals(1, list.size());
+        assertTrue(queue.isPending("a"));
+
+        queue.rollback(write);
+        assertEquals(0, list.size());
+        assertFalse(queue.isPending("a"));
+    }
+
+    @Test
+    public void failedUpdateUnderNewerUpdate_restoresOriginalWhenBothFail() {
+        IndexedTaskList list = new IndexedTaskList();
+        list.upsert(task("a", "original"));
+        PendingWriteQueue queue = new PendingWriteQueue(list);
+
+        PendingWriteQueue.PendingWrite first = queue.update(task("a", "first"));
+        PendingWriteQueue.PendingWrite second = queue.update(task("a", "second"));
+
+        queue.rollback(first);
+        assertEquals("second", list.find("a").getTitle());
+        assertFalse(queue.isEmpty());
+        queue.rollback(second);
+        assertEquals("original", list.find("a").getTitle());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void confirmedDelete_staysRemoved() {
+        IndexedTaskList list = new IndexedTaskList();
+        list.upsert(task("a", "A"));
+        PendingWriteQueue queue = new PendingWriteQueue(list);
+
+        PendingWriteQueue.PendingWrite write = queue.delete("a");
+        assertTrue(queue.isPendingDelete("a"));
+        queue.confirm(write);
+
+        assertEquals(-1, list.indexOf("a"));
+        assertFalse(queue.isPending("a"));
+    }
+}
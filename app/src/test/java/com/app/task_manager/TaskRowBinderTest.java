@@ -0,0 +1,100 @@
+package com.app.task_manager;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+public class TaskRowBinderTest {
+
+    private static final int BINDS = 100_000;
+
+    // Stands in for the view holder; keeps what was bound without copying it
+    private static class RecordingRowView implements TaskRowBinder.RowView {
+        CharSequence title, dueDate, priority;
+        float alpha;
+        boolean actionsEnabled, selected;
+
+        @Override public void setTitle(CharSequence title) { this.title = title; }
+        @Override public void setDueDate(CharSequence dueDate) { this.dueDate = dueDate; }
+        @Override public void setPriority(CharSequence priority) { this.priority = priority; }
+        @Override public void setAlpha(float alpha) { this.alpha = alpha; }
+        @Override public void setActionsEnabled(boolean enabled) { this.actionsEnabled = enabled; }
+        @Override public void setSelected(boolean selected) { this.selected = selected; }
+    }
+
+    private static TaskRow row(String id, boolean pending) {
+        Task task = new Task("Task " + id, "", TaskPriority.HIGH, 1000L, 1000L, "user");
+        task.setTaskId(id);
+        return TaskRow.of(1L, task, pending, false, task.getDueAt());
+    }
+
+    @Test
+    public void bind_copiesPrecomputedFields() {
+        RecordingRowView view = new RecordingRowView();
+        TaskRow row = row("a", true);
+        TaskRowBinder.bind(row, view);
+        assertSame(row.getTitle(), view.title);
+        assertEquals(TaskDates.formatDate(1000L), view.dueDate);
+        assertEquals("High", view.priority);
+        assertEquals(TaskRowBinder.PENDING_ALPHA, view.alpha, 0f);
+        assertTrue(view.actionsEnabled);
+
+        TaskRowBinder.bind(TaskRow.placeholder(2L, "b", true), view);
+        assertEquals("", view.title);
+        assertFalse(view.actionsEnabled);
+        assertTrue(view.selected);
+    }
+
+    @Test
+    public void bind_allocatesNothing() {
+        TaskRow[] rows = {row("a", false), row("b", true), TaskRow.placeholder(3L, "c", false)};
+        RecordingRowView view = new RecordingRowView();
+        assertEquals("bytes allocated by " + BINDS + " binds", 0,
+                allocatedBy(i -> TaskRowBinder.bind(rows[i % rows.length], view)));
+    }
+
+    // The adapter times every bind; recording into an existing timer must not allocate either
+    @Test
+    public void timedBind_allocatesNothing() {
+        TaskRow[] rows = {row("a", false), row("b", true), TaskRow.placeholder(3L, "c", false)};
+        RecordingRowView view = new RecordingRowView();
+        TaskMetrics.setEnabled(true);
+        try {
+            assertEquals("bytes allocated by " + BINDS + " timed binds", 0, allocatedBy(i -> {
+                long start = TaskMetrics.start();
+                TaskRowBinder.bind(rows[i % rows.length], view);
+                TaskMetrics.stop("list.bind", start);
+            }));
+        } finally {
+            TaskMetrics.setEnabled(false);
+            TaskMetrics.reset();
+        }
+    }
+
+    // Bytes this thread allocates running bind BINDS times, after as many runs to warm it up
+    private static long allocatedBy(java.util.function.IntConsumer bind) {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < BINDS; i++) {
+            bind.accept(i); // Warm up so the bind path is compiled
+        }
+
+        // Cost of the measurement itself, subtracted below
+        long overhead = threads.getThreadAllocatedBytes(threadId);
+        overhead = threads.getThreadAllocatedBytes(threadId) - overhead;
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < BINDS; i++) {
+            bind.accept(i);
+        }
+        return threads.getThreadAllocatedBytes(threadId) - before - overhead;
+    }
+}
@@ -2,5 +2,6 @@
 plugins {
     alias(libs.plugins.android.application) apply false
     alias(libs.plugins.google.services) apply false
+    alias(libs.plugins.jmh) apply false
 
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+// Task domain logic with no Android or Firebase dependencies, so it can be unit tested and
+// benchmarked on any JVM: ./gradlew :core:test :core:jmh
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
+
+// Benchmarks with a time budget, checked against the last JMH results: ./gradlew :core:jmh :core:jmhBudget
+// Keys are "benchmark:param=value", budgets in the benchmark's own time unit.
+val jmhBudgets = mapOf(
+    "com.app.task_manager.TaskSearchBenchmark.query:tasks=10000" to 5000.0,
+    // Publishing one changed task; a few microseconds where rebuilding every row takes milliseconds
+    "com.app.task_manager.TaskListUpdateBenchmark.updateOneRow:tasks=10000" to 20.0
+)
+
+tasks.register("jmhBudget") {
+    doLast {
+        @Suppress("UNCHECKED_CAST")
+        val results = groovy.json.JsonSlurper().parse(layout.buildDirectory.file("results/jmh/results.json").get().asFile) as List<Map<String, Any>>
+        val overBudget = mutableListOf<String>()
+        for (result in results) {
+            @Suppress("UNCHECKED_CAST")
+            val params = (result["params"] as Map<String, String>?).orEmpty()
+            @Suppress("UNCHECKED_CAST")
+            val score = ((result["primaryMetric"] as Map<String, Any>)["score"] as Number).toDouble()
+            for ((key, budget) in jmhBudgets) {
+                val (benchmark, param) = key.split(":")
+                val (name, value) = param.split("=")
+                if (result["benchmark"] == benchmark && params[name] == value && score > budget) {
+                    overBudget += "$benchmark $params: $score over $budget"
+                }
+            }
+        }
+        if (overBudget.isNotEmpty()) throw GradleException(overBudget.joinToString("\n"))
+    }
+}
@@ -0,0 +1,42 @@
+package com.app.task_manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Deterministic task sets for the benchmarks, shaped like real lists: short titles from a small
+// vocabulary, due dates spread over a year, a few tasks without one
+final class BenchmarkTasks {
+
+    static final String[] WORDS = {"buy", "call", "email", "report", "review", "plan", "book", "pay", "fix",
+            "clean", "meeting", "invoice", "groceries", "dentist", "project", "budget", "travel", "school",
+            "renew", "insurance", "birthday", "present", "car", "service", "tax", "return", "garden", "paint"};
+
+    private static final long START = 1_700_000_000_000L;
+    private static final long YEAR_MS = 365L * 24 * 60 * 60 * 1000;
+
+    private BenchmarkTasks() {}
+
+    static List<Task> generate(int count) {
+        Random random = new Random(count);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long dueAt = random.nextInt(20) == 0 ? 0 : START + (long) (random.nextDouble() * YEAR_MS);
+            Task task = new Task(words(random, 2 + random.nextInt(3)), words(random, 8 + random.nextInt(12)),
+                    random.nextInt(3), dueAt, dueAt, "user");
+            task.setTaskId(String.format("task%08d", i));
+            task.setUpdatedAt(START + random.nextInt(Integer.MAX_VALUE));
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) text.append(' ');
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
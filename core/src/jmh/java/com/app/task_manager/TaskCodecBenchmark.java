@@ -0,0 +1,69 @@
+package com.app.task_manager;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Decoding a whole snapshot of documents, as the sync engine does on a full resync
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskCodecBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int tasks;
+
+    private List<Map<String, Object>> documents;
+    private List<Map<String, Object>> legacyDocuments;
+
+    @Setup
+    public void setUp() {
+        documents = new ArrayList<>(tasks);
+        legacyDocuments = new ArrayList<>(tasks);
+        for (Task task : BenchmarkTasks.generate(tasks)) {
+            documents.add(TaskCodec.encode(task));
+            legacyDocuments.add(legacy(task));
+        }
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) {
+        for (int i = 0; i < documents.size(); i++) {
+            blackhole.consume(TaskCodec.decode("task" + i, documents.get(i)));
+        }
+    }
+
+    // v1 documents parse their date strings, the slow path the migrator takes
+    @Benchmark
+    public void decodeLegacy(Blackhole blackhole) {
+        for (int i = 0; i < legacyDocuments.size(); i++) {
+            blackhole.consume(TaskSchema.fromOlder("task" + i, legacyDocuments.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void encode(Blackhole blackhole) {
+        for (Map<String, Object> document : documents) {
+            blackhole.consume(TaskCodec.encode(TaskCodec.decode("task", document)));
+        }
+    }
+
+    private static Map<String, Object> legacy(Task task) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("userId", task.getUserId());
+        data.put("title", task.getTitle());
+        data.put("description", task.getDescription());
+        data.put("priority", TaskPriority.label(task.getPriority()));
+        if (task.getDueAt() != 0) {
+            data.put(TaskSchema.LEGACY_DUE_DATE, TaskDates.formatDate(task.getDueAt()));
+            data.put(TaskSchema.LEGACY_REMINDER_DATE_TIME,
+                    TaskDates.formatDate(task.getDueAt()) + " " + TaskDates.formatTime(task.getDueAt()));
+        }
+        return data;
+    }
+}
@@ -0,0 +1,53 @@
+package com.app.task_manager;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Field-level diffing of edited tasks, and the coalescing tracker around it
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskDiffBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int tasks;
+
+    private List<Task> bases;
+    private List<Task> edits;
+
+    @Setup
+    public void setUp() {
+        bases = BenchmarkTasks.generate(tasks);
+        edits = new ArrayList<>(tasks);
+        for (int i = 0; i < bases.size(); i++) {
+            Task edited = new Task(bases.get(i));
+            // A mix of the edits the dialog makes: retitle, reprioritise, reschedule
+            switch (i % 3) {
+                case 0: edited.setTitle(edited.getTitle() + " today"); break;
+                case 1: edited.setPriority((edited.getPriority() + 1) % 3); break;
+                default: edited.setDueAt(edited.getDueAt() + 3_600_000L); break;
+            }
+            edits.add(edited);
+        }
+    }
+
+    @Benchmark
+    public void diff(Blackhole blackhole) {
+        for (int i = 0; i < bases.size(); i++) {
+            blackhole.consume(TaskChangeTracker.diff(bases.get(i), edits.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void coalesceAndFlush(Blackhole blackhole) {
+        TaskChangeTracker<Integer> tracker = new TaskChangeTracker<>();
+        for (int i = 0; i < bases.size(); i++) {
+            tracker.edit(bases.get(i), edits.get(i), i);
+        }
+        blackhole.consume(tracker.flushAll());
+    }
+}
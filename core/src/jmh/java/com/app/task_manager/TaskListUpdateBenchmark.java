@@ -0,0 +1,63 @@
+package com.app.task_manager;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Publishing one changed task to the list: RowUpdates puts its row where it belongs and records
+// the notification for it, against rebuilding every row, the path resets and large batches take.
+// The diff that follows a rebuild runs DiffUtil, an Android library, so it is measured on a device
+// by TaskListDiffBenchmark in androidTest.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskListUpdateBenchmark {
+
+    private static final long HOUR_MS = 3_600_000L;
+
+    @Param({"1000", "10000"})
+    public int tasks;
+
+    // In the order the list shows them, by (due time, id)
+    private List<Task> sorted;
+    private RowUpdates<Task> rows;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        sorted = new ArrayList<>(BenchmarkTasks.generate(tasks));
+        sorted.sort((a, b) -> {
+            int byDue = Long.compare(a.getDueAt(), b.getDueAt());
+            return byDue != 0 ? byDue : a.getTaskId().compareTo(b.getTaskId());
+        });
+        rows = new RowUpdates<>();
+        rows.reset(build(sorted));
+    }
+
+    // One task rescheduled by an hour, and back on its next turn, so the rows stay the same size
+    @Benchmark
+    public List<RowUpdates.Change> updateOneRow() {
+        int turn = next++;
+        Task task = sorted.get(turn % sorted.size());
+        long shift = (turn / sorted.size()) % 2 == 0 ? HOUR_MS : 0;
+        rows.put(task.getTaskId(), task.getDueAt() + shift, task);
+        return rows.takeChanges();
+    }
+
+    @Benchmark
+    public RankedList<Task> rebuildAllRows() {
+        RowUpdates<Task> rebuilt = new RowUpdates<>();
+        rebuilt.reset(build(sorted));
+        return rebuilt.getRows();
+    }
+
+    private static RankedList.Builder<Task> build(List<Task> sorted) {
+        RankedList.Builder<Task> builder = new RankedList.Builder<>();
+        for (Task task : sorted) {
+            builder.add(task.getDueAt(), task.getTaskId(), task);
+        }
+        return builder;
+    }
+}
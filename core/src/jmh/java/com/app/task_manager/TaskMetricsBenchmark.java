@@ -0,0 +1,37 @@
+package com.app.task_manager;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of timing one operation, with metrics off (release builds) and on
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TaskMetricsBenchmark {
+
+    @Param({"false", "true"})
+    public boolean enabled;
+
+    @Setup
+    public void setUp() {
+        TaskMetrics.reset();
+        TaskMetrics.setEnabled(enabled);
+    }
+
+    @TearDown
+    public void tearDown() {
+        TaskMetrics.setEnabled(false);
+    }
+
+    @Benchmark
+    public void startStop() {
+        TaskMetrics.stop("decode", TaskMetrics.start());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void startStopContended() {
+        TaskMetrics.stop("decode", TaskMetrics.start());
+    }
+}
@@ -0,0 +1,65 @@
+package com.app.task_manager;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Search-as-you-type against the inverted index; short prefixes match most of the list.
+// query() at 10000 tasks has a budget of 5000 us per query, well inside a frame; see jmhBudget.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskSearchBenchmark {
+
+    private static final int RESULT_LIMIT = 500;
+
+    @Param({"1000", "10000", "100000"})
+    public int tasks;
+
+    @Param({"r", "rep", "pay inv"})
+    public String query;
+
+    private List<Task> list;
+    private List<Task> renamed;
+    private TaskSearchIndex index;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        list = BenchmarkTasks.generate(tasks);
+        renamed = new ArrayList<>(tasks);
+        for (int i = 0; i < list.size(); i++) {
+            Task edited = new Task(list.get(i));
+            edited.setTitle(BenchmarkTasks.WORDS[i % BenchmarkTasks.WORDS.length] + " " + edited.getTitle());
+            renamed.add(edited);
+        }
+        index = new TaskSearchIndex();
+        index.build(list);
+    }
+
+    @Benchmark
+    public List<String> query() {
+        return index.query(query, RESULT_LIMIT);
+    }
+
+    // One edit arriving from the sync engine; each task alternates between two titles
+    @Benchmark
+    public int upsert() {
+        int i = next++ % list.size();
+        Task edited = (next / list.size()) % 2 == 0 ? renamed.get(i) : list.get(i);
+        index.upsertAll(Collections.singletonList(edited));
+        return index.size();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public TaskSearchIndex build() {
+        TaskSearchIndex fresh = new TaskSearchIndex();
+        fresh.build(list);
+        return fresh;
+    }
+}
@@ -0,0 +1,57 @@
+package com.app.task_manager;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Client-side sorting and filtering of a loaded list, as done for filters Firestore cannot order
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskSortBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int tasks;
+
+    @Param({"DUE_AT", "PRIORITY", "TITLE"})
+    public TaskFilter.SortKey sortKey;
+
+    private List<Task> list;
+    private Comparator<Task> comparator;
+    private TaskFilter filter;
+    private long now;
+
+    @Setup
+    public void setUp() {
+        list = BenchmarkTasks.generate(tasks);
+        TaskFilter sort = new TaskFilter();
+        sort.setSortKey(sortKey);
+        comparator = sort.comparator();
+
+        filter = new TaskFilter();
+        filter.setPriorities(Collections.singletonList(TaskPriority.LOW));
+        filter.setTitlePrefix("re");
+        now = list.get(list.size() / 2).getDueAt();
+    }
+
+    @Benchmark
+    public List<Task> sort() {
+        List<Task> sorted = new ArrayList<>(list);
+        Collections.sort(sorted, comparator);
+        return sorted;
+    }
+
+    @Benchmark
+    public List<Task> filterAndSort() {
+        List<Task> matching = new ArrayList<>();
+        for (Task task : list) {
+            if (filter.matches(task, now)) matching.add(task);
+        }
+        Collections.sort(matching, comparator);
+        return matching;
+    }
+}
@@ -0,0 +1,10 @@
+package com.app.task_manager;
+
+// Where day-relative code reads the time, so tests can move it, e.g. across midnight
+public interface Clock {
+
+    Clock SYSTEM = System::currentTimeMillis;
+
+    // Epoch millis
+    long now();
+}
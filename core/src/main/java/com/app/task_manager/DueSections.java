@@ -0,0 +1,217 @@
+package com.app.task_manager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TimeZone;
+import java.util.TreeSet;
+
+// The list's due-date sections: overdue, today, this week and later, each in due time order.
+// Tasks sit in one tree ordered by (due time, id), so a section is the run of tasks between two
+// day boundaries. Adding, moving or removing a task is O(log n) and never re-sorts the others;
+// section sizes are counts moved along with the tasks.
+//
+// When the day rolls over the boundaries move forward. Only the tasks between an old boundary
+// and its new one change section, so rollover() walks just those. Days are local days in the
+// given zone and weeks end where the locale's week does. Not thread-safe; the owner confines it
+// to one thread.
+public class DueSections {
+
+    public enum Section {
+        OVERDUE("Overdue"), TODAY("Today"), THIS_WEEK("This week"), LATER("Later");
+
+        private final String label;
+
+        Section(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    private static final Section[] SECTIONS = Section.values();
+
+    private final Clock clock;
+    private final Calendar calendar;
+    private final TreeSet<Entry> entries = new TreeSet<>();
+    private final Map<String, Entry> byId = new HashMap<>();
+    private final int[] counts = new int[SECTIONS.length];
+    // Start of today, of tomorrow and of next week; the sections lie between them
+    private final long[] bounds = new long[3];
+
+    public DueSections(Clock clock, TimeZone zone, Locale locale) {
+        this.clock = clock;
+        this.calendar = Calendar.getInstance(zone, locale);
+        computeBounds(clock.now());
+    }
+
+    // Adds the task, or moves it if its due time changed
+    public void put(String taskId, long dueAt) {
+        Entry entry = byId.get(taskId);
+        if (entry != null) {
+            if (entry.dueAt == dueAt) {
+                return;
+            }
+            entries.remove(entry);
+            counts[entry.section.ordinal()]--;
+        }
+        entry = new Entry(taskId, dueAt);
+        entry.section = sectionOf(dueAt);
+        entries.add(entry);
+        byId.put(taskId, entry);
+        counts[entry.section.ordinal()]++;
+    }
+
+    public void remove(String taskId) {
+        Entry entry = byId.remove(taskId);
+        if (entry != null) {
+            entries.remove(entry);
+            counts[entry.section.ordinal()]--;
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        byId.clear();
+        Arrays.fill(counts, 0);
+    }
+
+    // Null for a task not in any section
+    public Section sectionOf(String taskId) {
+        Entry entry = byId.get(taskId);
+        return entry == null ? null : entry.section;
+    }
+
+    // The due time the task is sectioned by; only valid for a task in a section
+    public long dueAtOf(String taskId) {
+        return byId.get(taskId).dueAt;
+    }
+
+    // Where the section starts in the (due time, id) order of its tasks
+    public long startOf(Section section) {
+        return section == Section.OVERDUE ? Long.MIN_VALUE : bounds[section.ordinal() - 1];
+    }
+
+    public int size(Section section) {
+        return counts[section.ordinal()];
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    // Ids in the section by due time; a view, not to be kept across changes
+    public Iterable<String> taskIds(Section section) {
+        NavigableSet<Entry> run = entriesIn(section);
+        return () -> new Iterator<String>() {
+            private final Iterator<Entry> entries = run.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public String next() {
+                return entries.next().taskId;
+            }
+        };
+    }
+
+    public long getTodayStart() {
+        return bounds[0];
+    }
+
+    // When the day next rolls over, i.e. the start of tomorrow
+    public long getNextRollover() {
+        return bounds[1];
+    }
+
+    // Moves the boundaries to the clock's current day and re-sections the tasks that crossed one.
+    // Returns their ids; empty if the day has not changed.
+    public List<String> rollover() {
+        long[] old = bounds.clone();
+        computeBounds(clock.now());
+        List<String> moved = new ArrayList<>();
+        for (int i = 0; i < bounds.length; i++) {
+            // Also right if the clock was set back
+            for (Entry entry : range(Math.min(old[i], bounds[i]), Math.max(old[i], bounds[i]))) {
+                Section section = sectionOf(entry.dueAt);
+                if (section != entry.section) {
+                    counts[entry.section.ordinal()]--;
+                    counts[section.ordinal()]++;
+                    entry.section = section;
+                    moved.add(entry.taskId);
+                }
+            }
+        }
+        return moved;
+    }
+
+    private Section sectionOf(long dueAt) {
+        if (dueAt < bounds[0]) return Section.OVERDUE;
+        if (dueAt < bounds[1]) return Section.TODAY;
+        if (dueAt < bounds[2]) return Section.THIS_WEEK;
+        return Section.LATER;
+    }
+
+    private NavigableSet<Entry> entriesIn(Section section) {
+        switch (section) {
+            case OVERDUE: return entries.headSet(bound(bounds[0]), false);
+            case TODAY: return range(bounds[0], bounds[1]);
+            case THIS_WEEK: return range(bounds[1], bounds[2]);
+            default: return entries.tailSet(bound(bounds[2]), true);
+        }
+    }
+
+    // Tasks due in [from, to)
+    private NavigableSet<Entry> range(long from, long to) {
+        return entries.subSet(bound(from), true, bound(to), false);
+    }
+
+    // Sorts before every task due at the same time, as no task id is empty
+    private static Entry bound(long dueAt) {
+        return new Entry("", dueAt);
+    }
+
+    private void computeBounds(long now) {
+        calendar.setTimeInMillis(now);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        bounds[0] = calendar.getTimeInMillis();
+        calendar.add(Calendar.DAY_OF_MONTH, 1);
+        bounds[1] = calendar.getTimeInMillis();
+        // On the last day of a week "this week" is empty and tomorrow starts the next one
+        while (calendar.get(Calendar.DAY_OF_WEEK) != calendar.getFirstDayOfWeek()) {
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        bounds[2] = calendar.getTimeInMillis();
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        final String taskId;
+        final long dueAt;
+        Section section; // Not part of the order; moved by rollover()
+
+        Entry(String taskId, long dueAt) {
+            this.taskId = taskId;
+            this.dueAt = dueAt;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byDue = Long.compare(dueAt, other.dueAt);
+            return byDue != 0 ? byDue : taskId.compareTo(other.taskId);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.app.task_manager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Reads UTF-8 lines from a channel through one fixed buffer, so reading a file of any size holds
+// one buffer and the current line. Keeps the byte offset of the end of each line returned, which
+// a caller can store and later hand back, with the channel positioned there, to carry on from
+// that line. Not thread-safe.
+public class LineChannelReader implements Closeable {
+
+    // A longer line is treated as a corrupt file rather than read into memory
+    public static final int MAX_LINE_BYTES = 1024 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private byte[] line = new byte[256];
+    private int lineLength;
+    private long offset;
+    private boolean eof;
+
+    public LineChannelReader(ReadableByteChannel channel) {
+        this(channel, 0, LineChannelWriter.DEFAULT_BUFFER_SIZE);
+    }
+
+    // startOffset is where the channel is positioned, e.g. an offset from an earlier reader
+    public LineChannelReader(ReadableByteChannel channel, long startOffset, int bufferSize) {
+        this.channel = channel;
+        this.offset = startOffset;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        buffer.flip(); // Starts empty
+    }
+
+    // The next line without its terminator, or null at the end of the channel. A last line
+    // without a terminator is still returned.
+    public String readLine() throws IOException {
+        lineLength = 0;
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                if (eof || !fill()) {
+                    if (lineLength == 0) return null;
+                    return decode(); // Unterminated last line
+                }
+            }
+            byte[] bytes = buffer.array();
+            int start = buffer.position();
+            int end = buffer.limit();
+            int i = start;
+            while (i < end && bytes[i] != '\n') i++;
+            append(bytes, start, i - start);
+            if (i < end) {
+                buffer.position(i + 1);
+                offset++; // The terminator
+                return decode();
+            }
+            buffer.position(end);
+        }
+    }
+
+    // Byte offset just past the last line returned
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        buffer.flip();
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        return true;
+    }
+
+    private void append(byte[] bytes, int start, int length) throws IOException {
+        if (lineLength + length > MAX_LINE_BYTES) {
+            throw new IOException("Line at offset " + offset + " is longer than " + MAX_LINE_BYTES + " bytes");
+        }
+        if (lineLength + length > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+        }
+        System.arraycopy(bytes, start, line, lineLength, length);
+        lineLength += length;
+        offset += length;
+    }
+
+    private String decode() {
+        int length = lineLength;
+        if (length > 0 && line[length - 1] == '\r') length--;
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,70 @@
+package com.app.task_manager;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+// Writes UTF-8 lines to a channel through one fixed buffer, so writing a file of any size holds
+// one buffer and the line being written. Not thread-safe.
+public class LineChannelWriter implements Closeable, Flushable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private long written;
+
+    public LineChannelWriter(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public LineChannelWriter(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+    }
+
+    public void writeLine(String line) throws IOException {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length + 1 > buffer.remaining()) {
+            flush();
+        }
+        if (bytes.length + 1 > buffer.capacity()) {
+            // Longer than the whole buffer; written straight through
+            drain(ByteBuffer.wrap(bytes));
+            buffer.put((byte) '\n');
+        } else {
+            buffer.put(bytes).put((byte) '\n');
+        }
+        written += bytes.length + 1;
+    }
+
+    // Bytes accepted so far, flushed or not
+    public long getBytesWritten() {
+        return written;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        buffer.flip();
+        drain(buffer);
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void drain(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.app.task_manager;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TimeZone;
+
+// Turns tasks into the occurrences that fall inside a date window, e.g. the days on screen. A
+// recurring task stays one document; its occurrences are worked out here when asked for and only
+// for the window asked for, each from the rule in constant time, so a year of a daily task costs
+// the occurrences in view rather than 365 of them.
+//
+// Results are kept per task. A window that overlaps the previous one for the same task, as when
+// scrolling, only expands the part that is new. A task whose rule, first due time or exceptions
+// changed is expanded afresh; others keep their results. One-off tasks come back as a single
+// occurrence at dueAt. Not thread-safe; the owner confines it to one thread.
+public class OccurrenceExpander {
+
+    // Tasks whose results are kept; the least recently used ones are dropped past this
+    static final int MAX_CACHED_TASKS = 512;
+
+    private final Calendar calendar;
+    private final Map<String, Expansion> cache = new LinkedHashMap<String, Expansion>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Expansion> eldest) {
+            return size() > MAX_CACHED_TASKS;
+        }
+    };
+
+    public OccurrenceExpander(TimeZone zone) {
+        this.calendar = Calendar.getInstance(zone);
+    }
+
+    // Occurrences starting in [from, to), in start order
+    public List<Occurrence> expand(Task task, long from, long to) {
+        Expansion expansion = expansionOf(task);
+        if (expansion.rule == null) {
+            long dueAt = task.getDueAt();
+            return dueAt >= from && dueAt < to
+                    ? Collections.singletonList(new Occurrence(task.getTaskId(), dueAt, dueAt, 0))
+                    : Collections.<Occurrence>emptyList();
+        }
+        if (expansion.occurrences != null && from == expansion.from && to == expansion.to) {
+            return expansion.occurrences;
+        }
+        List<Occurrence> occurrences = new ArrayList<>();
+        if (expansion.occurrences != null && from < expansion.to && to > expansion.from) {
+            // Overlaps the last window: keep what is still inside, expand only the new parts
+            for (Occurrence occurrence : expansion.occurrences) {
+                if (occurrence.start >= from && occurrence.start < to) occurrences.add(occurrence);
+            }
+            if (from < expansion.from) expand(expansion, from, expansion.from, occurrences);
+            if (to > expansion.to) expand(expansion, expansion.to, to, occurrences);
+        } else {
+            expand(expansion, from, to, occurrences);
+        }
+        Collections.sort(occurrences);
+        expansion.from = from;
+        expansion.to = to;
+        expansion.occurrences = Collections.unmodifiableList(occurrences);
+        return expansion.occurrences;
+    }
+
+    // The first occurrence starting at or after from, or null if the task has none left
+    public Occurrence next(Task task, long from) {
+        Expansion expansion = expansionOf(task);
+        if (expansion.nextResult != null && expansion.nextFrom == from) {
+            return expansion.nextResult == NONE ? null : expansion.nextResult;
+        }
+        Occurrence next;
+        if (expansion.rule == null) {
+            next = task.getDueAt() >= from ? new Occurrence(task.getTaskId(), task.getDueAt(), task.getDueAt(), 0) : null;
+        } else {
+            next = firstPlain(expansion, from);
+            // A moved occurrence may come earlier
+            for (Map.Entry<Long, Long> exception : expansion.exceptions.entrySet()) {
+                long moved = exception.getValue();
+                if (moved == Recurrence.SKIPPED || moved < from || (next != null && moved >= next.start)) continue;
+                int index = indexOf(expansion, exception.getKey());
+                if (index >= 0) next = new Occurrence(task.getTaskId(), exception.getKey(), moved, index);
+            }
+        }
+        expansion.nextFrom = from;
+        expansion.nextResult = next == null ? NONE : next;
+        return next;
+    }
+
+    // When the task's next reminder after the given time goes off, 0 if none. A recurring task
+    // reminds the same time ahead of each occurrence as its reminder is ahead of its first one.
+    public long nextReminder(Task task, long after) {
+        if (task.getRemindAt() == 0) {
+            return 0;
+        }
+        if (task.getRecurrence() == null) {
+            return task.getRemindAt() > after ? task.getRemindAt() : 0;
+        }
+        long lead = task.getDueAt() - task.getRemindAt();
+        Occurrence next = next(task, after + lead + 1);
+        return next == null ? 0 : next.start - lead;
+    }
+
+    // Drops a task's results, e.g. when it is deleted
+    public void invalidate(String taskId) {
+        cache.remove(taskId);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    // The task's cached results, or fresh ones if what they were worked out from has changed
+    private Expansion expansionOf(Task task) {
+        Expansion expansion = cache.get(task.getTaskId());
+        if (expansion == null || !expansion.isFor(task)) {
+            expansion = new Expansion(task);
+            cache.put(task.getTaskId(), expansion);
+        }
+        return expansion;
+    }
+
+    // Appends the occurrences starting in [from, to), not in order
+    private void expand(Expansion expansion, long from, long to, List<Occurrence> out) {
+        long anchor = expansion.anchor;
+        for (int index = expansion.rule.firstIndexFrom(calendar, anchor, from); ; index++) {
+            long start = expansion.rule.start(calendar, anchor, index);
+            if (start < 0 || start >= to) break;
+            Long moved = expansion.exceptions.get(start);
+            if (moved == null) {
+                out.add(new Occurrence(expansion.taskId, start, start, index));
+            } else if (moved != Recurrence.SKIPPED && moved >= from && moved < to) {
+                out.add(new Occurrence(expansion.taskId, start, moved, index));
+            }
+        }
+        // Occurrences moved into the window from outside it
+        for (Map.Entry<Long, Long> exception : expansion.exceptions.entrySet()) {
+            long original = exception.getKey();
+            long moved = exception.getValue();
+            if (moved == Recurrence.SKIPPED || moved < from || moved >= to || (original >= from && original < to)) {
+                continue;
+            }
+            int index = indexOf(expansion, original);
+            if (index >= 0) out.add(new Occurrence(expansion.taskId, original, moved, index));
+        }
+    }
+
+    // The first occurrence at or after from that the rule places and no exception changes
+    private Occurrence firstPlain(Expansion expansion, long from) {
+        for (int index = expansion.rule.firstIndexFrom(calendar, expansion.anchor, from); ; index++) {
+            long start = expansion.rule.start(calendar, expansion.anchor, index);
+            if (start < 0) return null;
+            if (!expansion.exceptions.containsKey(start)) {
+                return new Occurrence(expansion.taskId, start, start, index);
+            }
+        }
+    }
+
+    // Index of the occurrence the rule starts at start, or -1 if it starts none there
+    private int indexOf(Expansion expansion, long start) {
+        int index = expansion.rule.firstIndexFrom(calendar, expansion.anchor, start);
+        return expansion.rule.start(calendar, expansion.anchor, index) == start ? index : -1;
+    }
+
+    private static final Occurrence NONE = new Occurrence(null, 0, 0, -1);
+
+    private static final class Expansion {
+        final String taskId;
+        final long anchor;
+        final String ruleText;
+        final Map<String, Long> exceptionsSource;
+        final Recurrence rule; // Null for a one-off task or an unreadable rule
+        final Map<Long, Long> exceptions = new LinkedHashMap<>();
+        long from, to;
+        List<Occurrence> occurrences;
+        long nextFrom;
+        Occurrence nextResult;
+
+        Expansion(Task task) {
+            taskId = task.getTaskId();
+            anchor = task.getDueAt();
+            ruleText = task.getRecurrence();
+            exceptionsSource = task.getRecurrenceExceptions();
+            Recurrence parsed;
+            try {
+                parsed = Recurrence.parse(ruleText);
+            } catch (IllegalArgumentException e) {
+                parsed = null; // Shown as a one-off rather than failing the list
+            }
+            rule = parsed;
+            if (exceptionsSource != null) {
+                for (Map.Entry<String, Long> exception : exceptionsSource.entrySet()) {
+                    try {
+                        exceptions.put(Long.parseLong(exception.getKey()), exception.getValue());
+                    } catch (NumberFormatException ignored) {
+                    }
+                }
+            }
+        }
+
+        boolean isFor(Task task) {
+            return anchor == task.getDueAt() && Objects.equals(ruleText, task.getRecurrence())
+                    && (exceptionsSource == task.getRecurrenceExceptions()
+                    || Objects.equals(exceptionsSource, task.getRecurrenceExceptions()));
+        }
+    }
+
+    // One occurrence of a task. originalStart is where the rule puts it, which identifies it in
+    // the task's exceptions; start is when it happens.
+    public static final class Occurrence implements Comparable<Occurrence> {
+        public final String taskId;
+        public final long originalStart;
+        public final long start;
+        public final int index;
+
+        Occurrence(String taskId, long originalStart, long start, int index) {
+            this.taskId = taskId;
+            this.originalStart = originalStart;
+            this.start = start;
+            this.index = index;
+        }
+
+        @Override
+        public int compareTo(Occurrence other) {
+            return Long.compare(start, other.start);
+        }
+    }
+}
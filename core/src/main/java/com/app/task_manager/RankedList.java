@@ -0,0 +1,295 @@
+package com.app.task_manager;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Immutable list of values kept in (key, id) order, where positions are implicit: a node knows
+// the size of its subtree, so looking up, adding or removing an entry is O(log n) and never
+// renumbers the entries after it. Updates return a new list that shares all but O(log n) nodes
+// with this one, so a version handed to another thread stays valid while the next one is built.
+//
+// A treap: each node's priority is a hash of its key and id, which keeps the tree balanced in
+// expectation and makes its shape depend only on the entries, not on the order of updates.
+public final class RankedList<T> extends AbstractList<T> {
+
+    private static final RankedList<?> EMPTY = new RankedList<>(null);
+
+    private final Node<T> root;
+
+    private RankedList(Node<T> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> RankedList<T> empty() {
+        return (RankedList<T>) EMPTY;
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public T get(int index) {
+        return nodeAt(index).value;
+    }
+
+    public long keyAt(int index) {
+        return nodeAt(index).key;
+    }
+
+    public String idAt(int index) {
+        return nodeAt(index).id;
+    }
+
+    // Position of the entry, or -(insertion point) - 1 if there is none, as in Collections.binarySearch
+    public int indexOf(long key, String id) {
+        int before = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int order = compare(key, id, node);
+            if (order == 0) {
+                return before + size(node.left);
+            }
+            if (order < 0) {
+                node = node.left;
+            } else {
+                before += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return -before - 1;
+    }
+
+    // The entry's value, or null if there is none
+    public T find(long key, String id) {
+        Node<T> node = root;
+        while (node != null) {
+            int order = compare(key, id, node);
+            if (order == 0) {
+                return node.value;
+            }
+            node = order < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    // Adds the entry, or replaces the value of the one with the same key and id
+    public RankedList<T> with(long key, String id, T value) {
+        return new RankedList<>(insert(root, key, id, value, priority(key, id)));
+    }
+
+    // This list if there is no such entry
+    public RankedList<T> without(long key, String id) {
+        Node<T> removed = delete(root, key, id);
+        return removed == root ? this : new RankedList<>(removed);
+    }
+
+    // In order without a lookup per element
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private final Deque<Node<T>> path = new ArrayDeque<>();
+            private Node<T> next = root;
+
+            @Override
+            public boolean hasNext() {
+                return next != null || !path.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                while (next != null) {
+                    path.push(next);
+                    next = next.left;
+                }
+                if (path.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node<T> node = path.pop();
+                next = node.right;
+                return node.value;
+            }
+        };
+    }
+
+    private Node<T> nodeAt(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size());
+        }
+        Node<T> node = root;
+        while (true) {
+            int left = size(node.left);
+            if (index == left) {
+                return node;
+            }
+            if (index < left) {
+                node = node.left;
+            } else {
+                index -= left + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    private static <T> Node<T> insert(Node<T> node, long key, String id, T value, int priority) {
+        if (node == null) {
+            return new Node<>(key, id, value, priority, null, null);
+        }
+        int order = compare(key, id, node);
+        if (order == 0) {
+            return new Node<>(key, id, value, node.priority, node.left, node.right);
+        }
+        if (order < 0) {
+            Node<T> left = insert(node.left, key, id, value, priority);
+            if (left.priority > node.priority) {
+                // Rotate the new entry up
+                return new Node<>(left.key, left.id, left.value, left.priority, left.left,
+                        new Node<>(node.key, node.id, node.value, node.priority, left.right, node.right));
+            }
+            return new Node<>(node.key, node.id, node.value, node.priority, left, node.right);
+        }
+        Node<T> right = insert(node.right, key, id, value, priority);
+        if (right.priority > node.priority) {
+            return new Node<>(right.key, right.id, right.value, right.priority,
+                    new Node<>(node.key, node.id, node.value, node.priority, node.left, right.left), right.right);
+        }
+        return new Node<>(node.key, node.id, node.value, node.priority, node.left, right);
+    }
+
+    private static <T> Node<T> delete(Node<T> node, long key, String id) {
+        if (node == null) {
+            return null;
+        }
+        int order = compare(key, id, node);
+        if (order == 0) {
+            return merge(node.left, node.right);
+        }
+        if (order < 0) {
+            Node<T> left = delete(node.left, key, id);
+            return left == node.left ? node : new Node<>(node.key, node.id, node.value, node.priority, left, node.right);
+        }
+        Node<T> right = delete(node.right, key, id);
+        return right == node.right ? node : new Node<>(node.key, node.id, node.value, node.priority, node.left, right);
+    }
+
+    // Joins two trees where every entry of the first comes before every entry of the second
+    private static <T> Node<T> merge(Node<T> first, Node<T> second) {
+        if (first == null) return second;
+        if (second == null) return first;
+        if (first.priority > second.priority) {
+            return new Node<>(first.key, first.id, first.value, first.priority, first.left, merge(first.right, second));
+        }
+        return new Node<>(second.key, second.id, second.value, second.priority, merge(first, second.left), second.right);
+    }
+
+    private static int compare(long key, String id, Node<?> node) {
+        int byKey = Long.compare(key, node.key);
+        return byKey != 0 ? byKey : id.compareTo(node.id);
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    // Murmur3's finalizer, so ids that differ in one character still get unrelated priorities
+    static int priority(long key, String id) {
+        int hash = id.hashCode() * 31 + (int) (key ^ (key >>> 32));
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    private static final class Node<T> {
+        final long key;
+        final String id;
+        final T value;
+        final int priority;
+        final int size;
+        final Node<T> left, right;
+
+        Node(long key, String id, T value, int priority, Node<T> left, Node<T> right) {
+            this.key = key;
+            this.id = id;
+            this.value = value;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+
+    // Builds a list from entries added in (key, id) order in O(n), e.g. when a whole list is replaced
+    public static final class Builder<T> {
+        final List<String> ids = new ArrayList<>();
+        private final List<T> values = new ArrayList<>();
+        private long[] keys = new long[16];
+
+        public Builder<T> add(long key, String id, T value) {
+            int count = ids.size();
+            if (count > 0) {
+                int byKey = Long.compare(key, keys[count - 1]);
+                if (byKey < 0 || (byKey == 0 && id.compareTo(ids.get(count - 1)) <= 0)) {
+                    throw new IllegalArgumentException("Entry " + key + "/" + id + " is out of order");
+                }
+            }
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+            }
+            keys[count] = key;
+            ids.add(id);
+            values.add(value);
+            return this;
+        }
+
+        long keyAt(int index) {
+            return keys[index];
+        }
+
+        public RankedList<T> build() {
+            int count = ids.size();
+            if (count == 0) {
+                return empty();
+            }
+            // The treap's shape is the Cartesian tree of the priorities: every entry's parent is
+            // the nearer of the closest higher-priority entries on either side. One pass with a
+            // stack of the right spine finds each entry's children.
+            int[] priorities = new int[count];
+            int[] left = new int[count];
+            int[] right = new int[count];
+            int[] spine = new int[count];
+            int depth = 0;
+            for (int i = 0; i < count; i++) {
+                priorities[i] = priority(keys[i], ids.get(i));
+                left[i] = -1;
+                right[i] = -1;
+                int last = -1;
+                while (depth > 0 && priorities[spine[depth - 1]] < priorities[i]) {
+                    last = spine[--depth];
+                }
+                left[i] = last;
+                if (depth > 0) right[spine[depth - 1]] = i;
+                spine[depth++] = i;
+            }
+            return new RankedList<>(node(spine[0], priorities, left, right));
+        }
+
+        private Node<T> node(int index, int[] priorities, int[] left, int[] right) {
+            if (index < 0) {
+                return null;
+            }
+            return new Node<>(keys[index], ids.get(index), values.get(index), priorities[index],
+                    node(left[index], priorities, left, right), node(right[index], priorities, left, right));
+        }
+    }
+}
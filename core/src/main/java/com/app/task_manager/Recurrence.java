@@ -0,0 +1,183 @@
+package com.app.task_manager;
+
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// A repeat rule stored on the task document as a string in the style of an iCalendar RRULE:
+//
+//   FREQ=WEEKLY;INTERVAL=2;COUNT=10
+//   FREQ=MONTHLY;UNTIL=1767225600000
+//
+// UNTIL is epoch millis rather than an iCalendar date. The task's dueAt is the first occurrence
+// and every later one keeps its local time of day, across daylight saving changes too. Monthly
+// occurrences on a day the month does not have fall on its last day instead.
+//
+// Occurrences that differ from the rule are exceptions on the task, keyed by the start the rule
+// gives them: moved to another time, or SKIPPED.
+public final class Recurrence {
+
+    public enum Frequency { DAILY, WEEKLY, MONTHLY }
+
+    // Exception value for an occurrence that does not happen
+    public static final long SKIPPED = 0;
+    // Bounds the index arithmetic; a daily series this long runs for over 270 years
+    static final int MAX_OCCURRENCES = 100_000;
+    static final int MAX_INTERVAL = 999;
+
+    private final Frequency frequency;
+    private final int interval;
+    private final int count; // 0: no limit
+    private final long until; // Epoch millis, 0: no limit
+
+    public Recurrence(Frequency frequency, int interval, int count, long until) {
+        if (frequency == null || interval < 1 || interval > MAX_INTERVAL || count < 0 || until < 0) {
+            throw new IllegalArgumentException("Bad recurrence");
+        }
+        this.frequency = frequency;
+        this.interval = interval;
+        this.count = count;
+        this.until = until;
+    }
+
+    // Null for null, IllegalArgumentException for anything unreadable
+    public static Recurrence parse(String rule) {
+        if (rule == null) {
+            return null;
+        }
+        Frequency frequency = null;
+        int interval = 1, count = 0;
+        long until = 0;
+        for (String part : rule.split(";")) {
+            int equals = part.indexOf('=');
+            if (equals < 0) throw new IllegalArgumentException("Bad recurrence " + rule);
+            String name = part.substring(0, equals);
+            String value = part.substring(equals + 1);
+            try {
+                switch (name) {
+                    case "FREQ": frequency = Frequency.valueOf(value); break;
+                    case "INTERVAL": interval = Integer.parseInt(value); break;
+                    case "COUNT": count = Integer.parseInt(value); break;
+                    case "UNTIL": until = Long.parseLong(value); break;
+                    default: break; // Parts added by a newer version are ignored
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Bad recurrence " + rule, e);
+            }
+        }
+        return new Recurrence(frequency, interval, count, until);
+    }
+
+    public String format() {
+        StringBuilder out = new StringBuilder("FREQ=").append(frequency.name());
+        if (interval != 1) out.append(";INTERVAL=").append(interval);
+        if (count != 0) out.append(";COUNT=").append(count);
+        if (until != 0) out.append(";UNTIL=").append(until);
+        return out.toString();
+    }
+
+    // Short label for the list, e.g. "Weekly" or "Every 2 months"
+    public String describe() {
+        if (interval == 1) {
+            switch (frequency) {
+                case DAILY: return "Daily";
+                case WEEKLY: return "Weekly";
+                default: return "Monthly";
+            }
+        }
+        String unit = frequency == Frequency.DAILY ? "days" : frequency == Frequency.WEEKLY ? "weeks" : "months";
+        return "Every " + interval + " " + unit;
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getUntil() {
+        return until;
+    }
+
+    // Start of occurrence index (0 is the anchor) before exceptions, or -1 past the end of the
+    // series. Computed from the anchor directly, so it costs the same for any index.
+    long start(Calendar calendar, long anchor, int index) {
+        if (index >= MAX_OCCURRENCES || (count != 0 && index >= count)) {
+            return -1;
+        }
+        long start = startIgnoringEnd(calendar, anchor, index);
+        return until != 0 && start > until ? -1 : start;
+    }
+
+    // Index of the first occurrence starting at or after time, which may be past the end
+    int firstIndexFrom(Calendar calendar, long anchor, long time) {
+        if (time <= anchor) {
+            return 0;
+        }
+        long estimate;
+        if (frequency == Frequency.MONTHLY) {
+            calendar.setTimeInMillis(anchor);
+            int anchorMonth = calendar.get(Calendar.YEAR) * 12 + calendar.get(Calendar.MONTH);
+            calendar.setTimeInMillis(time);
+            estimate = (calendar.get(Calendar.YEAR) * 12 + calendar.get(Calendar.MONTH) - anchorMonth) / interval;
+        } else {
+            long period = (frequency == Frequency.DAILY ? 1 : 7) * interval * 86_400_000L;
+            estimate = (time - anchor) / period;
+        }
+        if (estimate >= MAX_OCCURRENCES) {
+            return MAX_OCCURRENCES;
+        }
+        // The estimate is off by at most one, from daylight saving or month lengths
+        int index = (int) estimate;
+        while (index > 0 && startIgnoringEnd(calendar, anchor, index - 1) >= time) index--;
+        while (index < MAX_OCCURRENCES && startIgnoringEnd(calendar, anchor, index) < time) index++;
+        return index;
+    }
+
+    private long startIgnoringEnd(Calendar calendar, long anchor, int index) {
+        calendar.setTimeInMillis(anchor);
+        switch (frequency) {
+            case DAILY: calendar.add(Calendar.DAY_OF_MONTH, index * interval); break;
+            case WEEKLY: calendar.add(Calendar.DAY_OF_MONTH, index * interval * 7); break;
+            default: calendar.add(Calendar.MONTH, index * interval); break;
+        }
+        return calendar.getTimeInMillis();
+    }
+
+    // Exceptions as one string for places that store flat values, e.g. "1700000000000=0,1700086400000=1700090000000"
+    public static String formatExceptions(Map<String, Long> exceptions) {
+        if (exceptions == null || exceptions.isEmpty()) {
+            return null;
+        }
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, Long> exception : exceptions.entrySet()) {
+            if (out.length() > 0) out.append(',');
+            out.append(exception.getKey()).append('=').append(exception.getValue());
+        }
+        return out.toString();
+    }
+
+    // Entries that do not parse are dropped
+    public static Map<String, Long> parseExceptions(String text) {
+        Map<String, Long> exceptions = new LinkedHashMap<>();
+        if (text == null || text.isEmpty()) {
+            return exceptions;
+        }
+        for (String entry : text.split(",")) {
+            int equals = entry.indexOf('=');
+            if (equals < 0) continue;
+            try {
+                long start = Long.parseLong(entry.substring(0, equals));
+                exceptions.put(String.valueOf(start), Long.parseLong(entry.substring(equals + 1)));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return exceptions;
+    }
+}
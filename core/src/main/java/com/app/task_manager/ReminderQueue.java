@@ -0,0 +1,132 @@
+package com.app.task_manager;
+
+import java.util.*;
+
+// Min-heap of upcoming reminders keyed by task. Changing or removing a task's reminder only
+// touches the index; the superseded heap entry is skipped when it reaches the top, so every
+// update is O(log n) and nothing ever rescans all tasks.
+public class ReminderQueue {
+
+    private final PriorityQueue<Entry> heap = new PriorityQueue<>();
+    // The live reminder of each task; heap entries that disagree with it are stale
+    private final Map<String, Long> remindAtByTask = new HashMap<>();
+
+    public int size() {
+        return remindAtByTask.size();
+    }
+
+    // Schedules or moves the task's reminder; a remindAt of 0 removes it
+    public void upsert(String taskId, long remindAt) {
+        if (remindAt <= 0) {
+            remove(taskId);
+            return;
+        }
+        Long previous = remindAtByTask.put(taskId, remindAt);
+        if (previous == null || previous != remindAt) {
+            heap.add(new Entry(taskId, remindAt));
+            compactIfNeeded();
+        }
+    }
+
+    public void remove(String taskId) {
+        if (remindAtByTask.remove(taskId) != null) {
+            compactIfNeeded();
+        }
+    }
+
+    public void clear() {
+        heap.clear();
+        remindAtByTask.clear();
+    }
+
+    // Earliest live reminders in order, at most limit of them; the queue is left unchanged
+    public List<Entry> peekNext(int limit) {
+        List<Entry> next = new ArrayList<>(limit);
+        List<Entry> popped = new ArrayList<>(limit);
+        while (next.size() < limit && !heap.isEmpty()) {
+            Entry entry = heap.poll();
+            if (isLive(entry)) {
+                next.add(entry);
+                popped.add(entry);
+            }
+            // Stale entries are dropped for good
+        }
+        heap.addAll(popped);
+        return next;
+    }
+
+    // Removes and returns every live reminder due at or before now
+    public List<Entry> pollDue(long now) {
+        List<Entry> due = new ArrayList<>();
+        while (!heap.isEmpty() && heap.peek().remindAt <= now) {
+            Entry entry = heap.poll();
+            if (isLive(entry)) {
+                remindAtByTask.remove(entry.taskId);
+                due.add(entry);
+            }
+        }
+        return due;
+    }
+
+    // What an alarm for the task's reminder at remindAt has to handle: every reminder due by now,
+    // removed from the queue, with the alarm's own first. Other reminders at the same time, or ones
+    // that came due while an inexact alarm ran late, are handled with it rather than losing their
+    // alarm when the slots are re-armed. The alarm's reminder is included even if it is no longer
+    // queued, e.g. when the queue was reloaded in a fresh process.
+    public List<Entry> pollFired(String taskId, long remindAt, long now) {
+        List<Entry> fired = new ArrayList<>();
+        fired.add(new Entry(taskId, remindAt));
+        for (Entry entry : pollDue(now)) {
+            if (!entry.equals(fired.get(0))) fired.add(entry);
+        }
+        return fired;
+    }
+
+    private boolean isLive(Entry entry) {
+        Long remindAt = remindAtByTask.get(entry.taskId);
+        return remindAt != null && remindAt == entry.remindAt;
+    }
+
+    // Rebuilds the heap once stale entries outnumber live ones, so edits cannot grow it unbounded
+    private void compactIfNeeded() {
+        if (heap.size() <= 2 * remindAtByTask.size() + 16) {
+            return;
+        }
+        heap.clear();
+        for (Map.Entry<String, Long> reminder : remindAtByTask.entrySet()) {
+            heap.add(new Entry(reminder.getKey(), reminder.getValue()));
+        }
+    }
+
+    int heapSize() {
+        return heap.size();
+    }
+
+    public static final class Entry implements Comparable<Entry> {
+        public final String taskId;
+        public final long remindAt;
+
+        Entry(String taskId, long remindAt) {
+            this.taskId = taskId;
+            this.remindAt = remindAt;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byTime = Long.compare(remindAt, other.remindAt);
+            return byTime != 0 ? byTime : taskId.compareTo(other.taskId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) return false;
+            Entry other = (Entry) o;
+            return remindAt == other.remindAt && taskId.equals(other.taskId);
+        }
+
+        @Override
+        public int hashCode() {
+            return taskId.hashCode() * 31 + Long.hashCode(remindAt);
+        }
+    }
+}
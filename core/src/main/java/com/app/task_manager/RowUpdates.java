@@ -0,0 +1,117 @@
+package com.app.task_manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// The rows a list shows, kept in key order in a RankedList and updated one row at a time. Every
+// update is recorded as the notification a RecyclerView adapter needs for it, so one changed row
+// costs O(log n) to apply and a few notifications to dispatch, instead of a rebuild and a diff of
+// the whole list. Rows are identified by an id and ordered by (key, id).
+// Not thread-safe; the published RankedList versions can be read from any thread.
+public class RowUpdates<R> {
+
+    public enum Type { INSERTED, REMOVED, CHANGED, MOVED }
+
+    // Positions are as of when the change is applied, after the ones recorded before it
+    public static final class Change {
+        public final Type type;
+        public final int position;
+        public final int toPosition; // Where a MOVED row ends up; the same as position otherwise
+
+        Change(Type type, int position, int toPosition) {
+            this.type = type;
+            this.position = position;
+            this.toPosition = toPosition;
+        }
+
+        @Override
+        public String toString() {
+            return type == Type.MOVED ? "MOVED " + position + "->" + toPosition : type + " " + position;
+        }
+    }
+
+    private RankedList<R> rows = RankedList.empty();
+    private final Map<String, Long> keys = new HashMap<>();
+    private List<Change> changes = new ArrayList<>();
+
+    // The current rows; an immutable version that later updates leave as it is
+    public RankedList<R> getRows() {
+        return rows;
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    // The row with the id, or null
+    public R find(String id) {
+        Long key = keys.get(id);
+        return key == null ? null : rows.find(key, id);
+    }
+
+    // Position of the row with the id, or -1
+    public int indexOf(String id) {
+        Long key = keys.get(id);
+        return key == null ? -1 : rows.indexOf(key, id);
+    }
+
+    // Adds the row, or replaces the row with the id, moving it if its key changed. Replacing a row
+    // with the same instance at the same key changes nothing.
+    public void put(String id, long key, R row) {
+        Long oldKey = keys.put(id, key);
+        if (oldKey == null) {
+            rows = rows.with(key, id, row);
+            record(Type.INSERTED, rows.indexOf(key, id), -1);
+            return;
+        }
+        if (oldKey == key) {
+            if (rows.find(key, id) != row) {
+                rows = rows.with(key, id, row);
+                record(Type.CHANGED, rows.indexOf(key, id), -1);
+            }
+            return;
+        }
+        int from = rows.indexOf(oldKey, id);
+        R old = rows.get(from);
+        rows = rows.without(oldKey, id).with(key, id, row);
+        int to = rows.indexOf(key, id);
+        if (from != to) record(Type.MOVED, from, to);
+        if (old != row) record(Type.CHANGED, to, -1);
+    }
+
+    public void remove(String id) {
+        Long key = keys.remove(id);
+        if (key != null) {
+            record(Type.REMOVED, rows.indexOf(key, id), -1);
+            rows = rows.without(key, id);
+        }
+    }
+
+    // Replaces every row with the built ones. Records no changes and drops those not yet taken:
+    // the caller diffs the old and new lists itself.
+    public void reset(RankedList.Builder<R> builder) {
+        keys.clear();
+        for (int i = 0; i < builder.ids.size(); i++) {
+            keys.put(builder.ids.get(i), builder.keyAt(i));
+        }
+        rows = builder.build();
+        changes = new ArrayList<>();
+    }
+
+    // The changes since the last call, in the order they are to be dispatched
+    public List<Change> takeChanges() {
+        if (changes.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Change> taken = changes;
+        changes = new ArrayList<>();
+        return taken;
+    }
+
+    private void record(Type type, int position, int toPosition) {
+        changes.add(new Change(type, position, toPosition < 0 ? position : toPosition));
+    }
+}
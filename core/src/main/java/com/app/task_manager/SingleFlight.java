@@ -0,0 +1,53 @@
+package com.app.task_manager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Deduplicates concurrent identical loads: while a load for a key is running, further requests
+// for the same key wait for its result instead of starting their own. Nothing is cached once the
+// load completes. Callbacks run on whichever thread completes the load.
+public class SingleFlight<K, V> {
+
+    private final Map<K, List<Callback<V>>> inFlight = new HashMap<>();
+
+    // Returns true if this call started the load, false if it joined one already running
+    public boolean run(K key, Loader<V> loader, Callback<V> callback) {
+        synchronized (this) {
+            List<Callback<V>> waiting = inFlight.get(key);
+            if (waiting != null) {
+                waiting.add(callback);
+                return false;
+            }
+            waiting = new ArrayList<>();
+            waiting.add(callback);
+            inFlight.put(key, waiting);
+        }
+        loader.load(value -> complete(key, value));
+        return true;
+    }
+
+    public synchronized boolean isInFlight(K key) {
+        return inFlight.containsKey(key);
+    }
+
+    private void complete(K key, V value) {
+        List<Callback<V>> waiting;
+        synchronized (this) {
+            waiting = inFlight.remove(key);
+        }
+        if (waiting != null) {
+            for (Callback<V> callback : waiting) callback.onLoaded(value);
+        }
+    }
+
+    public interface Loader<V> {
+        // Calls done exactly once, on any thread
+        void load(Callback<V> done);
+    }
+
+    public interface Callback<V> {
+        void onLoaded(V value);
+    }
+}
@@ -0,0 +1,85 @@
+package com.app.task_manager;
+
+import java.util.Map;
+
+public class Task {
+    private String userId;
+    private String title;
+    private String description;
+    private int priority; // One of the TaskPriority ordinals
+    private long dueAt; // Epoch millis
+    private long remindAt; // Epoch millis of the reminder, 0 when none is set
+    private String taskId;
+    private long updatedAt; // Epoch millis of the last write, used as the sync watermark
+    private boolean deleted; // Tombstone so delta syncs can see deletions
+    private int schemaVersion = TaskSchema.CURRENT_VERSION;
+    private String recurrence; // Recurrence rule, null for a one-off task; dueAt is the first occurrence
+    // Recurrence exceptions, occurrence start -> moved start or Recurrence.SKIPPED. Replaced, never mutated.
+    private Map<String, Long> recurrenceExceptions;
+
+    // Default constructor required for Firestore
+    public Task() {}
+
+    // Constructor
+    public Task(String title, String description, int priority, long dueAt, long remindAt, String userId) {
+        this.title = title;
+        this.description = description;
+        this.priority = priority;
+        this.dueAt = dueAt;
+        this.remindAt = remindAt;
+        this.userId = userId; // Set userId when creating a task
+    }
+
+    // Copy constructor, used to keep the pre-edit state of a task for rollback
+    public Task(Task other) {
+        this.title = other.title;
+        this.description = other.description;
+        this.priority = other.priority;
+        this.dueAt = other.dueAt;
+        this.remindAt = other.remindAt;
+        this.userId = other.userId;
+        this.taskId = other.taskId;
+        this.updatedAt = other.updatedAt;
+        this.deleted = other.deleted;
+        this.schemaVersion = other.schemaVersion;
+        this.recurrence = other.recurrence;
+        this.recurrenceExceptions = other.recurrenceExceptions;
+    }
+
+    // Getters and Setters
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public int getPriority() { return priority; }
+    public void setPriority(int priority) { this.priority = priority; }
+
+    public long getDueAt() { return dueAt; }
+    public void setDueAt(long dueAt) { this.dueAt = dueAt; }
+
+    public long getRemindAt() { return remindAt; }
+    public void setRemindAt(long remindAt) { this.remindAt = remindAt; }
+
+    public String getTaskId() { return taskId; }
+    public void setTaskId(String taskId) { this.taskId = taskId; }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public long getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(long updatedAt) { this.updatedAt = updatedAt; }
+
+    public boolean isDeleted() { return deleted; }
+    public void setDeleted(boolean deleted) { this.deleted = deleted; }
+
+    public int getSchemaVersion() { return schemaVersion; }
+    public void setSchemaVersion(int schemaVersion) { this.schemaVersion = schemaVersion; }
+
+    public String getRecurrence() { return recurrence; }
+    public void setRecurrence(String recurrence) { this.recurrence = recurrence; }
+
+    public Map<String, Long> getRecurrenceExceptions() { return recurrenceExceptions; }
+    public void setRecurrenceExceptions(Map<String, Long> recurrenceExceptions) { this.recurrenceExceptions = recurrenceExceptions; }
+}
@@ -0,0 +1,163 @@
+package com.app.task_manager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// Turns task edits into field-level writes. The first edit of a task opens a coalescing window and
+// remembers the state it started from; later edits in the window only replace the edited task.
+// When the window closes, the latest state is diffed against that base and only the fields that
+// differ are written, once. The token of each merged edit (e.g. its pending write) is handed back
+// so the caller can confirm or roll all of them back together.
+public class TaskChangeTracker<T> {
+
+    public static final long COALESCE_WINDOW_MS = 2000;
+
+    // Lives in the detail document; the caller routes it there
+    public static final String DESCRIPTION = "description";
+
+    // Fields the server maintains or that an edit never changes
+    private static final Set<String> UNTRACKED_FIELDS =
+            new HashSet<>(Arrays.asList("updatedAt", "userId", "schemaVersion"));
+    // What every edit used to send, for comparison in the stats
+    private static final List<String> EDIT_DIALOG_FIELDS =
+            Arrays.asList("title", DESCRIPTION, "priority", "dueAt", "remindAt");
+
+    private final Map<String, PendingEdit<T>> pending = new LinkedHashMap<>();
+    private long edits, writes, fieldsWritten, bytesWritten, bytesWithoutTracking;
+
+    // Records an edit made on top of base (the state last sent to or received from the server).
+    // Returns true if it opened a new window; the caller then flushes the task after COALESCE_WINDOW_MS.
+    public boolean edit(Task base, Task edited, T token) {
+        edits++;
+        Map<String, Object> encoded = editableFields(edited);
+        Map<String, Object> fullWrite = new HashMap<>();
+        for (String field : EDIT_DIALOG_FIELDS) {
+            fullWrite.put(field, encoded.get(field));
+        }
+        bytesWithoutTracking += estimateBytes(fullWrite);
+        PendingEdit<T> edit = pending.get(edited.getTaskId());
+        if (edit != null) {
+            edit.latest = edited;
+            edit.tokens.add(token);
+            return false;
+        }
+        pending.put(edited.getTaskId(), new PendingEdit<>(base, edited, token));
+        return true;
+    }
+
+    public boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    // Closes the task's window, when it runs out or early, e.g. before the task is deleted.
+    // Returns null if nothing is pending.
+    public Write<T> flush(String taskId) {
+        PendingEdit<T> edit = pending.remove(taskId);
+        return edit == null ? null : toWrite(edit);
+    }
+
+    public List<Write<T>> flushAll() {
+        List<Write<T>> all = new ArrayList<>();
+        for (PendingEdit<T> edit : pending.values()) {
+            all.add(toWrite(edit));
+        }
+        pending.clear();
+        return all;
+    }
+
+    private Write<T> toWrite(PendingEdit<T> edit) {
+        Map<String, Object> fields = diff(edit.base, edit.latest);
+        if (!fields.isEmpty()) {
+            writes++;
+            fieldsWritten += fields.size();
+            bytesWritten += estimateBytes(fields);
+        }
+        return new Write<>(edit.latest, fields, edit.tokens);
+    }
+
+    // Fields whose values differ between the two states, with the edited values
+    public static Map<String, Object> diff(Task base, Task edited) {
+        Map<String, Object> before = editableFields(base);
+        Map<String, Object> after = editableFields(edited);
+        Map<String, Object> changed = new HashMap<>();
+        for (Map.Entry<String, Object> field : after.entrySet()) {
+            if (!UNTRACKED_FIELDS.contains(field.getKey())
+                    && !Objects.equals(field.getValue(), before.get(field.getKey()))) {
+                changed.put(field.getKey(), field.getValue());
+            }
+        }
+        return changed;
+    }
+
+    // Summary fields plus the description
+    private static Map<String, Object> editableFields(Task task) {
+        Map<String, Object> fields = TaskCodec.encode(task);
+        fields.put(DESCRIPTION, task.getDescription());
+        return fields;
+    }
+
+    // Payload size using Firestore's storage size rules: field names and strings count their
+    // UTF-8 bytes plus one, numbers eight bytes, booleans and nulls one
+    public static long estimateBytes(Map<String, Object> fields) {
+        long bytes = 0;
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            bytes += field.getKey().getBytes(StandardCharsets.UTF_8).length + 1;
+            Object value = field.getValue();
+            if (value instanceof String) {
+                bytes += ((String) value).getBytes(StandardCharsets.UTF_8).length + 1;
+            } else if (value instanceof Number) {
+                bytes += 8;
+            } else {
+                bytes += 1;
+            }
+        }
+        return bytes;
+    }
+
+    public Stats getStats() {
+        return new Stats(edits, writes, fieldsWritten, bytesWritten, bytesWithoutTracking);
+    }
+
+    private static class PendingEdit<T> {
+        final Task base;
+        final List<T> tokens = new ArrayList<>();
+        Task latest;
+
+        PendingEdit(Task base, Task latest, T token) {
+            this.base = base;
+            this.latest = latest;
+            tokens.add(token);
+        }
+    }
+
+    // One merged edit ready to send; fields is empty when the edits cancelled out
+    public static final class Write<T> {
+        public final Task task;
+        public final Map<String, Object> fields;
+        public final List<T> tokens;
+
+        Write(Task task, Map<String, Object> fields, List<T> tokens) {
+            this.task = task;
+            this.fields = fields;
+            this.tokens = tokens;
+        }
+    }
+
+    public static final class Stats {
+        public final long edits, writes, fieldsWritten, bytesWritten, bytesWithoutTracking;
+
+        Stats(long edits, long writes, long fieldsWritten, long bytesWritten, long bytesWithoutTracking) {
+            this.edits = edits;
+            this.writes = writes;
+            this.fieldsWritten = fieldsWritten;
+            this.bytesWritten = bytesWritten;
+            this.bytesWithoutTracking = bytesWithoutTracking;
+        }
+
+        @Override
+        public String toString() {
+            return edits + " edits -> " + writes + " writes, " + fieldsWritten + " fields, "
+                    + bytesWritten + " bytes (" + bytesWithoutTracking + " bytes as full writes)";
+        }
+    }
+}
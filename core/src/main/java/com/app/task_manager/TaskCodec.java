@@ -0,0 +1,71 @@
+package com.app.task_manager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Hand-written mapping between Task and a Firestore document's field map. Used instead of
+// toObject()/set(Object), which go through the SDK's reflection-based class mapper.
+// Only understands TaskSchema.CURRENT_VERSION; callers fall back for other versions.
+// The description is not part of the summary document, it is written with encodeDetail().
+public final class TaskCodec {
+
+    private TaskCodec() {}
+
+    // The document id is not stored in the document, so it is passed in separately
+    public static Task decode(String taskId, Map<String, Object> data) {
+        Task task = new Task();
+        task.setTaskId(taskId);
+        task.setUserId((String) data.get("userId"));
+        task.setTitle((String) data.get("title"));
+        task.setDescription((String) data.get("description"));
+        task.setPriority((int) asLong(data.get("priority")));
+        task.setDueAt(asLong(data.get("dueAt")));
+        task.setRemindAt(asLong(data.get("remindAt")));
+        task.setUpdatedAt(asLong(data.get("updatedAt")));
+        task.setDeleted(Boolean.TRUE.equals(data.get("deleted")));
+        task.setSchemaVersion((int) asLong(data.get("schemaVersion")));
+        task.setRecurrence((String) data.get("recurrence"));
+        task.setRecurrenceExceptions(asExceptions(data.get("recurrenceExceptions")));
+        return task;
+    }
+
+    public static Map<String, Object> encode(Task task) {
+        Map<String, Object> data = new HashMap<>(16);
+        data.put("userId", task.getUserId());
+        data.put("title", task.getTitle());
+        data.put("priority", task.getPriority());
+        data.put("dueAt", task.getDueAt());
+        data.put("remindAt", task.getRemindAt());
+        data.put("updatedAt", task.getUpdatedAt());
+        data.put("deleted", task.isDeleted());
+        data.put("schemaVersion", task.getSchemaVersion());
+        data.put("recurrence", task.getRecurrence());
+        data.put("recurrenceExceptions", task.getRecurrenceExceptions());
+        return data;
+    }
+
+    // taskDetails/{taskId}; userId is repeated so security rules and queries can check ownership
+    public static Map<String, Object> encodeDetail(Task task) {
+        Map<String, Object> data = new HashMap<>(4);
+        data.put("userId", task.getUserId());
+        data.put("description", task.getDescription());
+        return data;
+    }
+
+    // A map field of occurrence start -> moved start; null when the task has none
+    private static Map<String, Long> asExceptions(Object value) {
+        if (!(value instanceof Map) || ((Map<?, ?>) value).isEmpty()) {
+            return null;
+        }
+        Map<String, Long> exceptions = new HashMap<>();
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+            exceptions.put(String.valueOf(entry.getKey()), asLong(entry.getValue()));
+        }
+        return exceptions;
+    }
+
+    // Firestore hands back integers as Long; anything missing or non-numeric reads as 0
+    private static long asLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+}
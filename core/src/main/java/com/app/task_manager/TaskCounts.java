@@ -0,0 +1,208 @@
+package com.app.task_manager;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// The dashboard numbers: server counts from aggregation queries plus the effect of local writes
+// not yet acknowledged, which the server does not count yet. Each number is cached until it is
+// invalidated, expires after TTL_MS, or, for the day-relative ones, the day rolls over.
+//
+// A change only moves a count when it moves the task into or out of that count, so local writes
+// are applied as deltas: an acknowledged delta is folded into the cached server count instead of
+// being read back. Changes made elsewhere invalidate the counts they touch.
+// Not thread-safe; the owner confines it to one thread.
+public class TaskCounts {
+
+    public enum Key { ALL, LOW, MEDIUM, HIGH, OVERDUE, DUE_TODAY }
+
+    // Backstop for drift, e.g. from changes made on another device to tasks not in memory
+    public static final long TTL_MS = 15 * 60 * 1000;
+
+    private static final Key[] KEYS = Key.values();
+    private static final Key[] PRIORITY_KEYS = {Key.LOW, Key.MEDIUM, Key.HIGH};
+
+    private final long[] server = new long[KEYS.length];
+    private final long[] fetchedAt = new long[KEYS.length]; // 0: never fetched or invalidated
+    // Fetched at least once; an invalidated count keeps showing its last value until refetched
+    private final boolean[] known = new boolean[KEYS.length];
+    private final long[] pending = new long[KEYS.length];
+    // Bumped whenever a fetch result in flight would no longer be right
+    private final int[] versions = new int[KEYS.length];
+    private long dayStart, dayEnd;
+
+    // "Overdue" is due before today and "due today" within [dayStart, dayEnd), so both stay valid
+    // for the whole day. Rolling over invalidates them.
+    public void setDay(long dayStart, long dayEnd) {
+        if (dayStart == this.dayStart && dayEnd == this.dayEnd) {
+            return;
+        }
+        this.dayStart = dayStart;
+        this.dayEnd = dayEnd;
+        for (Key key : new Key[]{Key.OVERDUE, Key.DUE_TODAY}) {
+            invalidate(key);
+            pending[key.ordinal()] = 0; // Deltas of the old day are dropped when acknowledged, see confirm()
+        }
+    }
+
+    public long getDayStart() {
+        return dayStart;
+    }
+
+    public long getDayEnd() {
+        return dayEnd;
+    }
+
+    // The counts a task is part of under the current day; none for a missing task or one the list
+    // does not show
+    public Set<Key> keysOf(Task task) {
+        EnumSet<Key> keys = EnumSet.noneOf(Key.class);
+        if (task == null || !TaskFilter.isListed(task)) {
+            return keys;
+        }
+        keys.add(Key.ALL);
+        int priority = task.getPriority();
+        if (priority >= 0 && priority < PRIORITY_KEYS.length) {
+            keys.add(PRIORITY_KEYS[priority]);
+        }
+        if (task.getDueAt() < dayStart) {
+            keys.add(Key.OVERDUE);
+        } else if (task.getDueAt() < dayEnd) {
+            keys.add(Key.DUE_TODAY);
+        }
+        return keys;
+    }
+
+    // How going from before to after moves each count; either may be null. Accumulates, e.g. over
+    // every task of a bulk edit.
+    public Delta delta(Delta delta, Task before, Task after) {
+        if (delta == null) {
+            delta = new Delta(dayStart);
+        }
+        for (Key key : keysOf(before)) delta.values[key.ordinal()]--;
+        for (Key key : keysOf(after)) delta.values[key.ordinal()]++;
+        return delta;
+    }
+
+    // A local write was made; its delta shows until the write is acknowledged or fails
+    public void applyPending(Delta delta) {
+        for (int i = 0; i < KEYS.length; i++) {
+            pending[i] += delta.values[i];
+        }
+    }
+
+    // The write reached the server, which counts it from now on
+    public void confirm(Delta delta) {
+        for (int i = 0; i < KEYS.length; i++) {
+            if (delta.values[i] == 0 || !sameDay(delta, KEYS[i])) continue;
+            pending[i] -= delta.values[i];
+            server[i] += delta.values[i];
+            versions[i]++; // A fetch in flight may or may not have seen the write
+        }
+    }
+
+    public void rollback(Delta delta) {
+        for (int i = 0; i < KEYS.length; i++) {
+            if (sameDay(delta, KEYS[i])) pending[i] -= delta.values[i];
+        }
+    }
+
+    // A change made elsewhere; before is null when the previous state is not known
+    public void onRemoteChange(Task before, Task after) {
+        if (before == null) {
+            for (Key key : KEYS) invalidate(key);
+            return;
+        }
+        Delta delta = delta(null, before, after);
+        for (Key key : KEYS) {
+            if (delta.values[key.ordinal()] != 0) invalidate(key);
+        }
+    }
+
+    public void invalidate(Key key) {
+        fetchedAt[key.ordinal()] = 0;
+        versions[key.ordinal()]++;
+    }
+
+    // Counts to fetch: never fetched, invalidated or expired
+    public Set<Key> staleKeys(long now) {
+        EnumSet<Key> stale = EnumSet.noneOf(Key.class);
+        for (Key key : KEYS) {
+            long at = fetchedAt[key.ordinal()];
+            if (at == 0 || now - at >= TTL_MS || now < at) stale.add(key);
+        }
+        return stale;
+    }
+
+    // Taken when a fetch is issued and handed back with its result
+    public int version(Key key) {
+        return versions[key.ordinal()];
+    }
+
+    // Returns false, dropping the result, if the count changed since the fetch was issued
+    public boolean setServerCount(Key key, int version, long count, long now) {
+        if (versions[key.ordinal()] != version) {
+            return false;
+        }
+        server[key.ordinal()] = count;
+        fetchedAt[key.ordinal()] = now;
+        known[key.ordinal()] = true;
+        return true;
+    }
+
+    // Puts back a count cached by an earlier run; it is as fresh as when it was fetched
+    public void restore(Key key, long count, long fetchedAt) {
+        server[key.ordinal()] = count;
+        this.fetchedAt[key.ordinal()] = fetchedAt;
+        known[key.ordinal()] = true;
+    }
+
+    public long getServerCount(Key key) {
+        return server[key.ordinal()];
+    }
+
+    public long getFetchedAt(Key key) {
+        return fetchedAt[key.ordinal()];
+    }
+
+    // What the dashboard shows; -1 for a count never fetched
+    public Snapshot snapshot() {
+        long[] values = new long[KEYS.length];
+        for (int i = 0; i < KEYS.length; i++) {
+            values[i] = known[i] ? Math.max(0, server[i] + pending[i]) : -1;
+        }
+        return new Snapshot(values);
+    }
+
+    private boolean sameDay(Delta delta, Key key) {
+        return delta.dayStart == dayStart || (key != Key.OVERDUE && key != Key.DUE_TODAY);
+    }
+
+    public static final class Delta {
+        final long dayStart;
+        final int[] values = new int[KEYS.length];
+
+        Delta(long dayStart) {
+            this.dayStart = dayStart;
+        }
+
+        public boolean isEmpty() {
+            for (int value : values) {
+                if (value != 0) return false;
+            }
+            return true;
+        }
+    }
+
+    // Immutable, so it can be handed to the main thread
+    public static final class Snapshot {
+        private final long[] values;
+
+        Snapshot(long[] values) {
+            this.values = values;
+        }
+
+        public long get(Key key) {
+            return values[key.ordinal()];
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.app.task_manager;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+
+// Conversions between epoch millis and the date strings shown in the UI or written by schema v1.
+// SimpleDateFormat is not thread-safe, so a new instance is created per call.
+public final class TaskDates {
+
+    // Format used by v1 documents: "2024-1-5" and "2024-1-5 14:30" (not zero-padded)
+    private static final String LEGACY_DATE = "yyyy-M-d";
+    private static final String LEGACY_DATE_TIME = "yyyy-M-d HH:mm";
+
+    private TaskDates() {}
+
+    public static String formatDate(long epochMillis) {
+        return new SimpleDateFormat("yyyy-MM-dd", Locale.US).format(new Date(epochMillis));
+    }
+
+    public static String formatTime(long epochMillis) {
+        return new SimpleDateFormat("HH:mm", Locale.US).format(new Date(epochMillis));
+    }
+
+    // Local midnight at the start of the day the instant falls on
+    public static long startOfDay(long epochMillis) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(epochMillis);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar.getTimeInMillis();
+    }
+
+    // Returns 0 when the value is missing or malformed
+    public static long parseLegacyDate(String value) {
+        return parse(value, LEGACY_DATE);
+    }
+
+    public static long parseLegacyDateTime(String value) {
+        return parse(value, LEGACY_DATE_TIME);
+    }
+
+    private static long parse(String value, String pattern) {
+        if (value == null || value.trim().isEmpty()) {
+            return 0;
+        }
+        SimpleDateFormat format = new SimpleDateFormat(pattern, Locale.US);
+        format.setLenient(false);
+        try {
+            return format.parse(value.trim()).getTime();
+        } catch (ParseException e) {
+            return 0;
+        }
+    }
+}
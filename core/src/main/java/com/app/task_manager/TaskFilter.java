@@ -0,0 +1,122 @@
+package com.app.task_manager;
+
+import java.util.*;
+
+// Filter and sort spec for the task list. TaskQueryBuilder pushes as much of it as Firestore
+// allows into the query; matches() and comparator() evaluate the whole spec on the client.
+public class TaskFilter {
+
+    public enum SortKey {
+        NONE(null, false),
+        DUE_AT("dueAt", false),
+        PRIORITY("priority", true),
+        TITLE("title", false),
+        UPDATED_AT("updatedAt", true);
+
+        final String field;
+        final boolean descending;
+
+        SortKey(String field, boolean descending) {
+            this.field = field;
+            this.descending = descending;
+        }
+    }
+
+    private final Set<Integer> priorities = new TreeSet<>(); // Empty means every priority
+    private long dueFrom; // Inclusive, 0 when unbounded
+    private long dueTo; // Exclusive, 0 when unbounded
+    private boolean overdueOnly;
+    private String titlePrefix;
+    private SortKey sortKey = SortKey.NONE;
+
+    public Set<Integer> getPriorities() { return priorities; }
+    public void setPriorities(Collection<Integer> values) {
+        priorities.clear();
+        priorities.addAll(values);
+    }
+
+    public long getDueFrom() { return dueFrom; }
+    public void setDueFrom(long dueFrom) { this.dueFrom = dueFrom; }
+
+    public long getDueTo() { return dueTo; }
+    public void setDueTo(long dueTo) { this.dueTo = dueTo; }
+
+    public boolean isOverdueOnly() { return overdueOnly; }
+    public void setOverdueOnly(boolean overdueOnly) { this.overdueOnly = overdueOnly; }
+
+    public String getTitlePrefix() { return titlePrefix; }
+    public void setTitlePrefix(String titlePrefix) {
+        this.titlePrefix = titlePrefix == null || titlePrefix.trim().isEmpty() ? null : titlePrefix.trim();
+    }
+
+    public SortKey getSortKey() { return sortKey; }
+    public void setSortKey(SortKey sortKey) { this.sortKey = sortKey == null ? SortKey.NONE : sortKey; }
+
+    // True when the spec selects every task in the default order
+    public boolean isDefault() {
+        return !hasPriorityFilter() && !hasDueRange() && titlePrefix == null && sortKey == SortKey.NONE;
+    }
+
+    public boolean hasPriorityFilter() {
+        return !priorities.isEmpty() && priorities.size() < TaskPriority.COUNT;
+    }
+
+    public boolean hasDueRange() {
+        return dueFrom > 0 || dueTo > 0 || overdueOnly;
+    }
+
+    // Exclusive upper bound on dueAt once "overdue" is resolved against the current time, 0 when
+    // unbounded. Overdue means due before today, as in the list's sections and the dashboard count.
+    public long dueUpperBound(long now) {
+        if (!overdueOnly) return dueTo;
+        long today = TaskDates.startOfDay(now);
+        return dueTo > 0 ? Math.min(dueTo, today) : today;
+    }
+
+    // Whether the list shows the task under any spec: tombstones and tasks without a reminder
+    // time are skipped. The dashboard counts the same tasks, see TaskCounts.keysOf().
+    public static boolean isListed(Task task) {
+        return !task.isDeleted() && task.getRemindAt() != 0;
+    }
+
+    public boolean matches(Task task, long now) {
+        if (task.isDeleted()) return false;
+        if (hasPriorityFilter() && !priorities.contains(task.getPriority())) return false;
+        if (dueFrom > 0 && task.getDueAt() < dueFrom) return false;
+        long upper = dueUpperBound(now);
+        if (upper > 0 && task.getDueAt() >= upper) return false;
+        return titlePrefix == null || (task.getTitle() != null && task.getTitle().startsWith(titlePrefix));
+    }
+
+    // Order of the sort key, ties broken by taskId so the order is stable
+    public Comparator<Task> comparator() {
+        Comparator<Task> byKey;
+        switch (sortKey) {
+            case DUE_AT:
+                byKey = (a, b) -> Long.compare(a.getDueAt(), b.getDueAt());
+                break;
+            case PRIORITY:
+                byKey = (a, b) -> Integer.compare(b.getPriority(), a.getPriority());
+                break;
+            case TITLE:
+                byKey = (a, b) -> compareNullable(a.getTitle(), b.getTitle());
+                break;
+            case UPDATED_AT:
+                byKey = (a, b) -> Long.compare(b.getUpdatedAt(), a.getUpdatedAt());
+                break;
+            default:
+                byKey = (a, b) -> 0;
+                break;
+        }
+        return (a, b) -> {
+            int result = byKey.compare(a, b);
+            return result != 0 ? result : compareNullable(a.getTaskId(), b.getTaskId());
+        };
+    }
+
+    private static int compareNullable(String a, String b) {
+        if (a == null) return b == null ? 0 : -1;
+        if (b == null) return 1;
+        return a.compareTo(b);
+    }
+}
@@ -0,0 +1,199 @@
+package com.app.task_manager;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Process-wide latency timers and counters, e.g. for Firestore calls, decoding and list updates.
+// Off by default: while disabled, start() returns 0 and every other call returns after one
+// volatile read, so instrumented code costs next to nothing in release builds.
+//
+//   long start = TaskMetrics.start();
+//   ... work ...
+//   TaskMetrics.stop("decode", start);
+//
+// Each timer keeps a histogram since the last reset and a rolling one of roughly the last
+// minute, made of the current and the previous WINDOW_MS window.
+public final class TaskMetrics {
+
+    static final long WINDOW_MS = 30_000;
+
+    private static volatile boolean enabled;
+    // Names are fixed strings from the instrumented code, so they are written to JSON unescaped
+    private static final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    private TaskMetrics() {
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    // A start time for stop(), or 0 while disabled
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    // Records the time since start; a start taken while disabled records nothing
+    public static void stop(String timer, long start) {
+        if (start != 0) {
+            long now = System.nanoTime();
+            record(timer, now - start, now);
+        }
+    }
+
+    // Records a duration measured elsewhere
+    public static void record(String timer, long nanos) {
+        if (enabled) {
+            record(timer, nanos, System.nanoTime());
+        }
+    }
+
+    private static void record(String timer, long nanos, long now) {
+        if (!enabled) {
+            return;
+        }
+        Timer t = timers.get(timer);
+        if (t == null) {
+            t = new Timer();
+            Timer raced = timers.putIfAbsent(timer, t);
+            if (raced != null) t = raced;
+        }
+        t.record(nanos, now);
+    }
+
+    public static void count(String counter, long delta) {
+        if (!enabled) {
+            return;
+        }
+        AtomicLong c = counters.get(counter);
+        if (c == null) {
+            c = new AtomicLong();
+            AtomicLong raced = counters.putIfAbsent(counter, c);
+            if (raced != null) c = raced;
+        }
+        c.addAndGet(delta);
+    }
+
+    public static void reset() {
+        timers.clear();
+        counters.clear();
+    }
+
+    // Human-readable table, times in milliseconds
+    public static String dump() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.US, "%-28s %7s %8s %8s %8s %8s%n", "timer", "count", "p50", "p95", "p99", "max"));
+        long now = System.nanoTime();
+        for (Map.Entry<String, Timer> entry : new TreeMap<>(timers).entrySet()) {
+            LatencyHistogram total = entry.getValue().total;
+            LatencyHistogram recent = entry.getValue().recent(now);
+            appendRow(out, entry.getKey(), total);
+            if (recent.getCount() != total.getCount()) {
+                appendRow(out, "  last minute", recent);
+            }
+        }
+        out.append(String.format(Locale.US, "%n%-28s %14s%n", "counter", "value"));
+        for (Map.Entry<String, AtomicLong> entry : new TreeMap<>(counters).entrySet()) {
+            out.append(String.format(Locale.US, "%-28s %14d%n", entry.getKey(), entry.getValue().get()));
+        }
+        return out.toString();
+    }
+
+    private static void appendRow(StringBuilder out, String name, LatencyHistogram histogram) {
+        out.append(String.format(Locale.US, "%-28s %7d %8.2f %8.2f %8.2f %8.2f%n", name, histogram.getCount(),
+                millis(histogram.valueAtPercentile(50)), millis(histogram.valueAtPercentile(95)),
+                millis(histogram.valueAtPercentile(99)), millis(histogram.getMax())));
+    }
+
+    // Machine-readable export: {"timers": {name: {count, meanMs, p50Ms, ..., recent: {...}}}, "counters": {...}}
+    public static String toJson() {
+        StringBuilder out = new StringBuilder("{\"timers\":{");
+        long now = System.nanoTime();
+        boolean first = true;
+        for (Map.Entry<String, Timer> entry : new TreeMap<>(timers).entrySet()) {
+            if (!first) out.append(',');
+            first = false;
+            out.append('"').append(entry.getKey()).append("\":");
+            appendJson(out, entry.getValue().total);
+            out.setLength(out.length() - 1);
+            out.append(",\"recent\":");
+            appendJson(out, entry.getValue().recent(now));
+            out.append('}');
+        }
+        out.append("},\"counters\":{");
+        first = true;
+        for (Map.Entry<String, AtomicLong> entry : new TreeMap<>(counters).entrySet()) {
+            if (!first) out.append(',');
+            first = false;
+            out.append('"').append(entry.getKey()).append("\":").append(entry.getValue().get());
+        }
+        return out.append("}}").toString();
+    }
+
+    private static void appendJson(StringBuilder out, LatencyHistogram histogram) {
+        out.append(String.format(Locale.US,
+                "{\"count\":%d,\"meanMs\":%.3f,\"p50Ms\":%.3f,\"p95Ms\":%.3f,\"p99Ms\":%.3f,\"maxMs\":%.3f}",
+                histogram.getCount(), histogram.getMean() / 1e6, millis(histogram.valueAtPercentile(50)),
+                millis(histogram.valueAtPercentile(95)), millis(histogram.valueAtPercentile(99)),
+                millis(histogram.getMax())));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static final class Timer {
+        private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(WINDOW_MS);
+
+        final LatencyHistogram total = new LatencyHistogram();
+        private volatile LatencyHistogram current = new LatencyHistogram();
+        private volatile LatencyHistogram previous = new LatencyHistogram();
+        private volatile long windowStart = System.nanoTime();
+
+        void record(long nanos, long now) {
+            total.record(nanos);
+            rotate(now).record(nanos);
+        }
+
+        // The current and previous window merged
+        LatencyHistogram recent(long now) {
+            LatencyHistogram merged = new LatencyHistogram();
+            synchronized (this) {
+                rotate(now);
+                merged.add(previous);
+                merged.add(current);
+            }
+            return merged;
+        }
+
+        // Starts a new window once the current one is over; returns the current window
+        private LatencyHistogram rotate(long now) {
+            if (now - windowStart < WINDOW_NANOS) {
+                return current;
+            }
+            synchronized (this) {
+                long elapsed = now - windowStart;
+                if (elapsed >= WINDOW_NANOS) {
+                    LatencyHistogram recycled = previous;
+                    recycled.reset();
+                    if (elapsed >= 2 * WINDOW_NANOS) {
+                        current.reset(); // Nothing was recorded for a whole window, so it is stale too
+                    }
+                    previous = current;
+                    current = recycled;
+                    windowStart = now;
+                }
+                return current;
+            }
+        }
+    }
+}
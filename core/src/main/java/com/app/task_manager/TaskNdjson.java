@@ -0,0 +1,240 @@
+package com.app.task_manager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// The export file format: newline-delimited JSON, a header line followed by one compact object
+// per task. Every line stands alone, so a file is written and read as a stream and an import can
+// resume at any line boundary.
+//
+//   {"format":"tasks","version":1,"userId":"u1","exportedAt":1700000000000}
+//   {"id":"t1","title":"Pay rent","description":"...","priority":2,"dueAt":...,"remindAt":...,"updatedAt":...}
+//
+// A recurring task also has "recurrence" and its exceptions as one "recurrenceExceptions" string.
+//
+// Only flat objects of strings, integers, booleans and null are needed, so the JSON is written
+// and parsed here rather than pulling a JSON library into :core.
+public final class TaskNdjson {
+
+    public static final String FORMAT = "tasks";
+    public static final int VERSION = 1;
+
+    private TaskNdjson() {}
+
+    public static String header(String userId, long exportedAt) {
+        StringBuilder out = new StringBuilder(96).append('{');
+        field(out, "format", FORMAT, true);
+        out.append(",\"version\":").append(VERSION);
+        field(out, "userId", userId, false);
+        out.append(",\"exportedAt\":").append(exportedAt);
+        return out.append('}').toString();
+    }
+
+    public static Header parseHeader(String line) {
+        Map<String, Object> fields = parse(line);
+        if (!FORMAT.equals(fields.get("format"))) {
+            throw new IllegalArgumentException("Not a task export");
+        }
+        long version = asLong(fields.get("version"));
+        if (version > VERSION) {
+            throw new IllegalArgumentException("Export version " + version + " is newer than this app");
+        }
+        return new Header((String) fields.get("userId"), asLong(fields.get("exportedAt")));
+    }
+
+    // The user and deleted flag are not exported; an imported task belongs to the importing user
+    public static String encode(Task task) {
+        StringBuilder out = new StringBuilder(128).append('{');
+        field(out, "id", task.getTaskId(), true);
+        field(out, "title", task.getTitle(), false);
+        field(out, "description", task.getDescription(), false);
+        out.append(",\"priority\":").append(task.getPriority());
+        out.append(",\"dueAt\":").append(task.getDueAt());
+        out.append(",\"remindAt\":").append(task.getRemindAt());
+        out.append(",\"updatedAt\":").append(task.getUpdatedAt());
+        if (task.getRecurrence() != null) {
+            field(out, "recurrence", task.getRecurrence(), false);
+            field(out, "recurrenceExceptions", Recurrence.formatExceptions(task.getRecurrenceExceptions()), false);
+        }
+        return out.append('}').toString();
+    }
+
+    public static Task decode(String line) {
+        Map<String, Object> fields = parse(line);
+        Task task = new Task();
+        task.setTaskId((String) fields.get("id"));
+        task.setTitle((String) fields.get("title"));
+        task.setDescription((String) fields.get("description"));
+        task.setPriority((int) asLong(fields.get("priority")));
+        task.setDueAt(asLong(fields.get("dueAt")));
+        task.setRemindAt(asLong(fields.get("remindAt")));
+        task.setUpdatedAt(asLong(fields.get("updatedAt")));
+        task.setSchemaVersion(TaskSchema.CURRENT_VERSION);
+        task.setRecurrence((String) fields.get("recurrence"));
+        Map<String, Long> exceptions = Recurrence.parseExceptions((String) fields.get("recurrenceExceptions"));
+        task.setRecurrenceExceptions(exceptions.isEmpty() ? null : exceptions);
+        return task;
+    }
+
+    private static void field(StringBuilder out, String name, String value, boolean first) {
+        if (!first) out.append(',');
+        out.append('"').append(name).append("\":");
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    // Parses one flat JSON object; throws IllegalArgumentException on anything else
+    static Map<String, Object> parse(String line) {
+        Parser parser = new Parser(line);
+        Map<String, Object> fields = parser.object();
+        parser.skipWhitespace();
+        if (parser.pos != line.length()) {
+            throw parser.error("Trailing characters");
+        }
+        return fields;
+    }
+
+    private static long asLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    public static final class Header {
+        public final String userId;
+        public final long exportedAt;
+
+        Header(String userId, long exportedAt) {
+            this.userId = userId;
+            this.exportedAt = exportedAt;
+        }
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Map<String, Object> object() {
+            Map<String, Object> fields = new HashMap<>();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return fields;
+            }
+            while (true) {
+                skipWhitespace();
+                String name = string();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                fields.put(name, value());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') return fields;
+                if (c != ',') throw error("Expected , or }");
+            }
+        }
+
+        private Object value() {
+            char c = peek();
+            if (c == '"') return string();
+            if (text.startsWith("null", pos)) { pos += 4; return null; }
+            if (text.startsWith("true", pos)) { pos += 4; return Boolean.TRUE; }
+            if (text.startsWith("false", pos)) { pos += 5; return Boolean.FALSE; }
+            int start = pos;
+            while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) pos++;
+            if (start == pos) throw error("Unexpected value");
+            String number = text.substring(start, pos);
+            try {
+                return Long.parseLong(number);
+            } catch (NumberFormatException e) {
+                try {
+                    return (long) Double.parseDouble(number);
+                } catch (NumberFormatException notNumber) {
+                    throw error("Bad number " + number);
+                }
+            }
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder out = null;
+            int start = pos;
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return out == null ? text.substring(start, pos - 1) : out.toString();
+                }
+                if (c != '\\') {
+                    if (out != null) out.append(c);
+                    continue;
+                }
+                if (out == null) out = new StringBuilder(text.substring(start, pos - 1));
+                char escape = next();
+                switch (escape) {
+                    case 'n': out.append('\n'); break;
+                    case 'r': out.append('\r'); break;
+                    case 't': out.append('\t'); break;
+                    case 'b': out.append('\b'); break;
+                    case 'f': out.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 > text.length()) throw error("Bad escape");
+                        try {
+                            out.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Bad escape");
+                        }
+                        pos += 4;
+                        break;
+                    default: out.append(escape); // \" \\ \/
+                }
+            }
+        }
+
+        void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+
+        private char peek() {
+            if (pos >= text.length()) throw error("Unexpected end");
+            return text.charAt(pos);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char c) {
+            if (next() != c) throw error("Expected " + c);
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at column " + pos);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.app.task_manager;
+
+// Priorities are stored as ordinals so Firestore can filter and sort on them.
+// The order matches the task_priorities string array used by the priority spinner.
+public final class TaskPriority {
+
+    public static final int LOW = 0;
+    public static final int MEDIUM = 1;
+    public static final int HIGH = 2;
+    public static final int COUNT = 3;
+
+    private static final String[] LABELS = {"Low", "Medium", "High"};
+
+    private TaskPriority() {}
+
+    public static String label(int priority) {
+        return priority >= 0 && priority < LABELS.length ? LABELS[priority] : LABELS[LOW];
+    }
+
+    // Maps the free-form labels stored by schema v1 documents; unknown values fall back to LOW
+    public static int fromLabel(String label) {
+        if (label != null) {
+            for (int i = 0; i < LABELS.length; i++) {
+                if (LABELS[i].equalsIgnoreCase(label.trim())) return i;
+            }
+        }
+        return LOW;
+    }
+}
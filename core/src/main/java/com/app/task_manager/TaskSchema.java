@@ -0,0 +1,78 @@
+package com.app.task_manager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Versions of the task document layout.
+//   v1: priority, dueDate and reminderDateTime stored as free-form strings, no schemaVersion field
+//   v2: priority as a TaskPriority ordinal, dueAt/remindAt as epoch millis
+//   v3: the description moves out of tasks/{id} into taskDetails/{id}, so list queries only
+//       download the compact summary and descriptions are fetched when the editor opens
+public final class TaskSchema {
+
+    public static final int CURRENT_VERSION = 3;
+
+    public static final String DETAILS_COLLECTION = "taskDetails";
+
+    static final String LEGACY_DUE_DATE = "dueDate";
+    static final String LEGACY_REMINDER_DATE_TIME = "reminderDateTime";
+    // Stored in the summary document up to v2
+    static final String INLINE_DESCRIPTION = "description";
+
+    private TaskSchema() {}
+
+    public static int versionOf(Map<String, Object> data) {
+        Object version = data.get("schemaVersion");
+        return version instanceof Number ? ((Number) version).intValue() : 1;
+    }
+
+    // Builds a current task from a v1 or v2 document; the inline description is kept on the task
+    public static Task fromOlder(String taskId, Map<String, Object> data) {
+        if (versionOf(data) == 1) {
+            return fromLegacy(taskId, data);
+        }
+        Task task = TaskCodec.decode(taskId, data);
+        task.setDescription(asString(data.get(INLINE_DESCRIPTION)));
+        task.setSchemaVersion(CURRENT_VERSION);
+        return task;
+    }
+
+    // Builds a current task from a v1 document's fields
+    public static Task fromLegacy(String taskId, Map<String, Object> data) {
+        Task task = new Task();
+        task.setTaskId(taskId);
+        task.setUserId(asString(data.get("userId")));
+        task.setTitle(asString(data.get("title")));
+        task.setDescription(asString(data.get("description")));
+        task.setPriority(TaskPriority.fromLabel(asString(data.get("priority"))));
+
+        long remindAt = TaskDates.parseLegacyDateTime(asString(data.get(LEGACY_REMINDER_DATE_TIME)));
+        long dueAt = remindAt != 0 ? remindAt : TaskDates.parseLegacyDate(asString(data.get(LEGACY_DUE_DATE)));
+        task.setDueAt(dueAt);
+        task.setRemindAt(remindAt);
+
+        Object updatedAt = data.get("updatedAt");
+        task.setUpdatedAt(updatedAt instanceof Number ? ((Number) updatedAt).longValue() : 0);
+        task.setDeleted(Boolean.TRUE.equals(data.get("deleted")));
+        task.setSchemaVersion(CURRENT_VERSION);
+        return task;
+    }
+
+    // Summary fields that bring an older document up to date. Removing the v1 string fields and the
+    // inline description is left to the caller, since the delete sentinel is specific to the Firestore SDK;
+    // the description itself moves to the detail document (TaskCodec.encodeDetail).
+    public static Map<String, Object> upgradeFields(Task upgraded) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("priority", upgraded.getPriority());
+        fields.put("dueAt", upgraded.getDueAt());
+        fields.put("remindAt", upgraded.getRemindAt());
+        fields.put("schemaVersion", CURRENT_VERSION);
+        // Older documents may lack it, and the dashboard count queries filter on it
+        fields.put("deleted", upgraded.isDeleted());
+        return fields;
+    }
+
+    private static String asString(Object value) {
+        return value == null ? null : value.toString();
+    }
+}
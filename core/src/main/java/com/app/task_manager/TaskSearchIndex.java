@@ -0,0 +1,212 @@
+package com.app.task_manager;
+
+import java.util.*;
+
+// Inverted index over task titles and descriptions. Tokens are kept sorted, so a prefix maps to
+// one contiguous range of the token map. Every query token must prefix-match some token of a task;
+// hits are ranked by due time (tasks without one last), then priority. Updates are incremental:
+// only the tokens that changed are moved between posting sets. Not thread-safe, the owner confines it.
+public class TaskSearchIndex {
+
+    // Earliest due first with undated tasks last, then highest priority, then taskId
+    private static final Comparator<Doc> RANKING = (a, b) -> {
+        int byDue = Long.compare(dueRank(a.dueAt), dueRank(b.dueAt));
+        if (byDue != 0) return byDue;
+        int byPriority = Integer.compare(b.priority, a.priority);
+        return byPriority != 0 ? byPriority : a.taskId.compareTo(b.taskId);
+    };
+
+    // Postings hold the Doc itself, so ranking hits needs no lookups
+    private final TreeMap<String, Set<Doc>> postings = new TreeMap<>();
+    private final Map<String, Doc> docs = new HashMap<>();
+    private boolean built;
+    private Runnable changeListener;
+
+    // Called after each update, e.g. to re-run an active search
+    public void setChangeListener(Runnable listener) {
+        this.changeListener = listener;
+    }
+
+    public boolean isBuilt() {
+        return built;
+    }
+
+    public int size() {
+        return docs.size();
+    }
+
+    // Initial load; after this the index only changes through upsert and remove
+    public void build(List<Task> tasks) {
+        postings.clear();
+        docs.clear();
+        for (Task task : tasks) {
+            index(task);
+        }
+        built = true;
+        notifyChanged();
+    }
+
+    // Tombstoned tasks are removed. A task without a description (a summary) keeps the
+    // description tokens indexed earlier, since an unknown description is not an empty one.
+    public void upsertAll(List<Task> tasks) {
+        for (Task task : tasks) {
+            if (task.isDeleted()) {
+                unindex(task.getTaskId());
+            } else {
+                index(task);
+            }
+        }
+        notifyChanged();
+    }
+
+    public void removeAll(List<String> taskIds) {
+        for (String taskId : taskIds) {
+            unindex(taskId);
+        }
+        notifyChanged();
+    }
+
+    // Adds a description fetched separately, e.g. from the detail document
+    public void indexDescription(String taskId, String description) {
+        Doc doc = docs.get(taskId);
+        if (doc == null) {
+            return;
+        }
+        Set<String> tokens = tokenize(description);
+        move(doc, doc.descriptionTokens, tokens, doc.titleTokens);
+        doc.descriptionTokens = tokens;
+    }
+
+    // Ids of the best matching tasks, best first; an empty query matches nothing
+    public List<String> query(String text, int limit) {
+        Set<String> queryTokens = tokenize(text);
+        if (queryTokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // Collect the matches of each query token, then intersect starting from the smallest set
+        List<Set<Doc>> matches = new ArrayList<>(queryTokens.size());
+        for (String prefix : queryTokens) {
+            Set<Doc> docs = new HashSet<>();
+            for (Set<Doc> posting : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                docs.addAll(posting);
+            }
+            if (docs.isEmpty()) {
+                return Collections.emptyList();
+            }
+            matches.add(docs);
+        }
+        Collections.sort(matches, (a, b) -> Integer.compare(a.size(), b.size()));
+        Set<Doc> hits = matches.get(0);
+        for (int i = 1; i < matches.size() && !hits.isEmpty(); i++) {
+            hits.retainAll(matches.get(i));
+        }
+
+        // Keep only the best `limit` hits in a heap whose head is the worst kept one
+        PriorityQueue<Doc> best = new PriorityQueue<>(Math.min(limit, hits.size()) + 1, RANKING.reversed());
+        for (Doc doc : hits) {
+            if (best.size() < limit) {
+                best.add(doc);
+            } else if (RANKING.compare(doc, best.peek()) < 0) {
+                best.poll();
+                best.add(doc);
+            }
+        }
+        List<Doc> ranked = new ArrayList<>(best);
+        Collections.sort(ranked, RANKING);
+        List<String> taskIds = new ArrayList<>(ranked.size());
+        for (Doc doc : ranked) {
+            taskIds.add(doc.taskId);
+        }
+        return taskIds;
+    }
+
+    private static long dueRank(long dueAt) {
+        return dueAt == 0 ? Long.MAX_VALUE : dueAt;
+    }
+
+    private void index(Task task) {
+        String taskId = task.getTaskId();
+        Set<String> titleTokens = tokenize(task.getTitle());
+        Doc doc = docs.get(taskId);
+        if (doc == null) {
+            doc = new Doc(taskId);
+            docs.put(taskId, doc);
+        }
+        Set<String> descriptionTokens = task.getDescription() != null
+                ? tokenize(task.getDescription()) : doc.descriptionTokens;
+        move(doc, doc.titleTokens, titleTokens, descriptionTokens);
+        move(doc, doc.descriptionTokens, descriptionTokens, titleTokens);
+        doc.titleTokens = titleTokens;
+        doc.descriptionTokens = descriptionTokens;
+        doc.dueAt = task.getDueAt();
+        doc.priority = task.getPriority();
+    }
+
+    private void unindex(String taskId) {
+        Doc doc = docs.remove(taskId);
+        if (doc != null) {
+            move(doc, doc.titleTokens, Collections.<String>emptySet(), Collections.<String>emptySet());
+            move(doc, doc.descriptionTokens, Collections.<String>emptySet(), Collections.<String>emptySet());
+        }
+    }
+
+    // Moves the task from the postings of `before` to those of `after`. Tokens still present in
+    // `alsoKept` (the task's other field) stay posted.
+    private void move(Doc doc, Set<String> before, Set<String> after, Set<String> alsoKept) {
+        for (String token : before) {
+            if (!after.contains(token) && !alsoKept.contains(token)) {
+                Set<Doc> posting = postings.get(token);
+                if (posting != null && posting.remove(doc) && posting.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+        for (String token : after) {
+            if (!before.contains(token)) {
+                Set<Doc> posting = postings.get(token);
+                if (posting == null) {
+                    posting = new HashSet<>();
+                    postings.put(token, posting);
+                }
+                posting.add(doc);
+            }
+        }
+    }
+
+    private void notifyChanged() {
+        if (changeListener != null) changeListener.run();
+    }
+
+    // Lower-cased runs of letters and digits
+    static Set<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> tokens = new HashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // Identity equality, one instance per indexed task
+    private static class Doc {
+        final String taskId;
+        Set<String> titleTokens = Collections.emptySet();
+        Set<String> descriptionTokens = Collections.emptySet();
+        long dueAt;
+        int priority;
+
+        Doc(String taskId) {
+            this.taskId = taskId;
+        }
+    }
+}
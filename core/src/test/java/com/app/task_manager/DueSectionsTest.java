@@ -0,0 +1,97 @@
+package com.app.task_manager;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class DueSectionsTest {
+
+    private static final TimeZone ZONE = TimeZone.getTimeZone("Europe/Berlin");
+
+    // Weeks start on Monday in Germany; 2026-10-14 is a Wednesday
+    private final long[] now = {at(Calendar.OCTOBER, 14, 9)};
+    private final DueSections sections = new DueSections(() -> now[0], ZONE, Locale.GERMANY);
+
+    @Test
+    public void tasksAreSectionedInDueOrder_andMoveWhenEdited() {
+        sections.put("late", at(Calendar.OCTOBER, 12, 8));
+        sections.put("b", at(Calendar.OCTOBER, 14, 18));
+        sections.put("a", at(Calendar.OCTOBER, 14, 7));
+        sections.put("sunday", at(Calendar.OCTOBER, 18, 23));
+        sections.put("monday", at(Calendar.OCTOBER, 19, 0));
+
+        assertEquals(Collections.singletonList("late"), ids(DueSections.Section.OVERDUE));
+        assertEquals(Arrays.asList("a", "b"), ids(DueSections.Section.TODAY));
+        assertEquals(Collections.singletonList("sunday"), ids(DueSections.Section.THIS_WEEK));
+        assertEquals(Collections.singletonList("monday"), ids(DueSections.Section.LATER));
+
+        sections.put("a", at(Calendar.NOVEMBER, 1, 9));
+        assertEquals(1, sections.size(DueSections.Section.TODAY));
+        assertEquals(DueSections.Section.LATER, sections.sectionOf("a"));
+        assertEquals(Arrays.asList("monday", "a"), ids(DueSections.Section.LATER));
+
+        sections.remove("late");
+        assertEquals(0, sections.size(DueSections.Section.OVERDUE));
+        assertEquals(4, sections.size());
+    }
+
+    // A section's start sorts at or before the due time of each of its tasks, after the ones before it
+    @Test
+    public void sectionStarts_orderHeadersBetweenTheirTasks() {
+        sections.put("a", at(Calendar.OCTOBER, 14, 0));
+        assertEquals(Long.MIN_VALUE, sections.startOf(DueSections.Section.OVERDUE));
+        assertEquals(sections.getTodayStart(), sections.startOf(DueSections.Section.TODAY));
+        assertEquals(sections.dueAtOf("a"), sections.startOf(DueSections.Section.TODAY));
+        assertEquals(sections.getNextRollover(), sections.startOf(DueSections.Section.THIS_WEEK));
+        assertEquals(at(Calendar.OCTOBER, 19, 0), sections.startOf(DueSections.Section.LATER));
+    }
+
+    @Test
+    public void rollover_movesOnlyTasksThatCrossedABoundary() {
+        sections.put("today", at(Calendar.OCTOBER, 14, 20));
+        sections.put("tomorrow", at(Calendar.OCTOBER, 15, 10));
+        sections.put("friday", at(Calendar.OCTOBER, 16, 10));
+        sections.put("nextWeek", at(Calendar.OCTOBER, 20, 10));
+        assertTrue(sections.rollover().isEmpty());
+
+        now[0] = at(Calendar.OCTOBER, 15, 0) + 1;
+        List<String> moved = sections.rollover();
+        Collections.sort(moved);
+        assertEquals(Arrays.asList("today", "tomorrow"), moved);
+        assertEquals(DueSections.Section.OVERDUE, sections.sectionOf("today"));
+        assertEquals(DueSections.Section.TODAY, sections.sectionOf("tomorrow"));
+        assertEquals(1, sections.size(DueSections.Section.THIS_WEEK));
+        assertEquals(at(Calendar.OCTOBER, 16, 0), sections.getNextRollover());
+
+        // Into a new week: next week's tasks become this week's
+        now[0] = at(Calendar.OCTOBER, 19, 9);
+        sections.rollover();
+        assertEquals(Arrays.asList("today", "tomorrow", "friday"), ids(DueSections.Section.OVERDUE));
+        assertEquals(Collections.singletonList("nextWeek"), ids(DueSections.Section.THIS_WEEK));
+        assertEquals(0, sections.size(DueSections.Section.LATER));
+    }
+
+    private List<String> ids(DueSections.Section section) {
+        List<String> ids = new ArrayList<>();
+        for (String id : sections.taskIds(section)) {
+            ids.add(id);
+        }
+        assertEquals(ids.size(), sections.size(section));
+        return ids;
+    }
+
+    private static long at(int month, int day, int hour) {
+        Calendar calendar = Calendar.getInstance(ZONE);
+        calendar.clear();
+        calendar.set(2026, month, day, hour, 0);
+        return calendar.getTimeInMillis();
+    }
+}
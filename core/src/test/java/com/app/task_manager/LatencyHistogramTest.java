@@ -0,0 +1,66 @@
+package com.app.task_manager;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void buckets_coverEveryValueContiguously() {
+        long previousLowest = -1;
+        for (int index = 0; index <= LatencyHistogram.indexOf(LatencyHistogram.MAX_VALUE); index++) {
+            long lowest = LatencyHistogram.lowestValue(index);
+            assertTrue(lowest > previousLowest);
+            assertEquals(index, LatencyHistogram.indexOf(lowest));
+            assertEquals(index, LatencyHistogram.indexOf(lowest + LatencyHistogram.bucketWidth(index) - 1));
+            previousLowest = lowest;
+        }
+    }
+
+    @Test
+    public void percentiles_areWithinThreePercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1000L); // 1 us .. 10 ms
+        }
+        for (double p : new double[]{50, 90, 99, 99.9}) {
+            long expected = (long) Math.ceil(p / 100 * 10_000) * 1000L;
+            long actual = histogram.valueAtPercentile(p);
+            assertEquals("p" + p, expected, actual, expected * 0.03);
+        }
+        assertEquals(10_000_000L, histogram.getMax());
+        assertEquals(10_000, histogram.getCount());
+
+        LatencyHistogram merged = new LatencyHistogram();
+        merged.add(histogram);
+        merged.record(7);
+        assertEquals(10_001, merged.getCount());
+        histogram.reset();
+        assertEquals(0, histogram.valueAtPercentile(50));
+    }
+
+    @Test
+    public void metrics_recordNothingWhileDisabled() {
+        TaskMetrics.reset();
+        TaskMetrics.setEnabled(false);
+        long start = TaskMetrics.start();
+        assertEquals(0, start);
+        TaskMetrics.stop("decode", start);
+        TaskMetrics.count("firestore.docs.read", 5);
+        assertEquals("{\"timers\":{},\"counters\":{}}", TaskMetrics.toJson());
+
+        TaskMetrics.setEnabled(true);
+        try {
+            TaskMetrics.record("decode", 2_000_000);
+            TaskMetrics.count("firestore.docs.read", 5);
+            String json = TaskMetrics.toJson();
+            assertTrue(json, json.contains("\"decode\":{\"count\":1,"));
+            assertTrue(json, json.contains("\"recent\":{\"count\":1,"));
+            assertTrue(json, json.contains("\"firestore.docs.read\":5"));
+        } finally {
+            TaskMetrics.setEnabled(false);
+            TaskMetrics.reset();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.app.task_manager;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class OccurrenceExpanderTest {
+
+    private static final TimeZone ZONE = TimeZone.getTimeZone("Europe/Berlin");
+    private static final long DAY = 86_400_000L;
+
+    @Test
+    public void ruleText_roundTrips() {
+        Recurrence rule = Recurrence.parse("FREQ=WEEKLY;INTERVAL=2;COUNT=10;UNTIL=5");
+        assertEquals(Recurrence.Frequency.WEEKLY, rule.getFrequency());
+        assertEquals(2, rule.getInterval());
+        assertEquals("FREQ=WEEKLY;INTERVAL=2;COUNT=10;UNTIL=5", rule.format());
+        assertEquals("FREQ=DAILY", Recurrence.parse("FREQ=DAILY").format());
+        assertEquals("Every 2 weeks", rule.describe());
+    }
+
+    @Test
+    public void dailyAcrossDaylightSaving_keepsLocalTimeAndStopsAtCount() {
+        // 9:00 on 2026-03-27; clocks go forward on the 29th
+        Task task = recurring(at(2026, Calendar.MARCH, 27, 9), "FREQ=DAILY;COUNT=4");
+        List<OccurrenceExpander.Occurrence> occurrences = new OccurrenceExpander(ZONE)
+                .expand(task, at(2026, Calendar.MARCH, 1, 0), at(2026, Calendar.APRIL, 30, 0));
+
+        assertEquals(4, occurrences.size());
+        assertEquals(at(2026, Calendar.MARCH, 29, 9), occurrences.get(2).start);
+        assertEquals(at(2026, Calendar.MARCH, 30, 9), occurrences.get(3).start);
+        assertEquals(3, occurrences.get(3).index);
+    }
+
+    @Test
+    public void monthlyOnThe31st_fallsOnLastDayOfShorterMonths() {
+        Task task = recurring(at(2026, Calendar.JANUARY, 31, 8), "FREQ=MONTHLY");
+        OccurrenceExpander expander = new OccurrenceExpander(ZONE);
+
+        List<OccurrenceExpander.Occurrence> occurrences =
+                expander.expand(task, at(2026, Calendar.FEBRUARY, 1, 0), at(2026, Calendar.MAY, 1, 0));
+
+        assertEquals(3, occurrences.size());
+        assertEquals(at(2026, Calendar.FEBRUARY, 28, 8), occurrences.get(0).start);
+        assertEquals(at(2026, Calendar.MARCH, 31, 8), occurrences.get(1).start);
+        assertEquals(at(2026, Calendar.APRIL, 30, 8), occurrences.get(2).start);
+        // Years ahead costs the same as the first month
+        assertEquals(at(2036, Calendar.FEBRUARY, 29, 8), expander.next(task, at(2036, Calendar.FEBRUARY, 1, 0)).start);
+    }
+
+    @Test
+    public void exceptions_skipAndMoveOccurrences_acrossScrolledWindows() {
+        long start = at(2026, Calendar.JUNE, 1, 10);
+        Task task = recurring(start, "FREQ=DAILY");
+        Map<String, Long> exceptions = new HashMap<>();
+        exceptions.put(String.valueOf(start + DAY), Recurrence.SKIPPED);
+        exceptions.put(String.valueOf(start + 2 * DAY), start + 7 * DAY + 3_600_000L); // 3rd moved to the 8th, 11:00
+        task.setRecurrenceExceptions(exceptions);
+        OccurrenceExpander expander = new OccurrenceExpander(ZONE);
+
+        List<OccurrenceExpander.Occurrence> first = expander.expand(task, start, start + 5 * DAY);
+        assertEquals(3, first.size()); // 1st, 4th, 5th
+        assertEquals(start + 3 * DAY, first.get(1).start);
+
+        // Scrolled forward: the moved occurrence comes in next to the 8th's own
+        List<OccurrenceExpander.Occurrence> second = expander.expand(task, start + 3 * DAY, start + 9 * DAY);
+        assertEquals(7, second.size());
+        assertEquals(start + 7 * DAY, second.get(4).start);
+        assertEquals(start + 7 * DAY + 3_600_000L, second.get(5).start);
+        assertEquals(start + 2 * DAY, second.get(5).originalStart);
+
+        assertEquals(start + 3 * DAY, expander.next(task, start + 1).start);
+    }
+
+    @Test
+    public void changedTask_isExpandedAfresh_andRemindersFollowOccurrences() {
+        long start = at(2026, Calendar.JUNE, 1, 10);
+        Task task = recurring(start, "FREQ=WEEKLY");
+        task.setRemindAt(start - 600_000L);
+        OccurrenceExpander expander = new OccurrenceExpander(ZONE);
+
+        assertEquals(start + 7 * DAY - 600_000L, expander.nextReminder(task, start));
+        Task edited = new Task(task);
+        edited.setRecurrence("FREQ=WEEKLY;COUNT=1");
+        assertEquals(0, expander.nextReminder(edited, start));
+        assertEquals(1, expander.expand(edited, start, start + 30 * DAY).size());
+        assertEquals(5, expander.expand(task, start, start + 30 * DAY).size());
+    }
+
+    private static Task recurring(long dueAt, String rule) {
+        Task task = new Task("Water plants", null, TaskPriority.LOW, dueAt, 0, "user");
+        task.setTaskId("t1");
+        task.setRecurrence(rule);
+        return task;
+    }
+
+    private static long at(int year, int month, int day, int hour) {
+        Calendar calendar = Calendar.getInstance(ZONE);
+        calendar.clear();
+        calendar.set(year, month, day, hour, 0);
+        return calendar.getTimeInMillis();
+    }
+}
@@ -0,0 +1,80 @@
+package com.app.task_manager;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class RankedListTest {
+
+    @Test
+    public void updates_keepKeyOrderAndPositions() {
+        RankedList<String> list = RankedList.<String>empty()
+                .with(20, "b", "B")
+                .with(10, "z", "Z")
+                .with(20, "a", "A")
+                .with(30, "c", "C");
+        assertEquals("[Z, A, B, C]", list.toString());
+        assertEquals(2, list.indexOf(20, "b"));
+        assertEquals(-2, list.indexOf(15, "x")); // Would go in at 1
+        assertEquals("a", list.idAt(1));
+        assertEquals(20, list.keyAt(1));
+
+        RankedList<String> replaced = list.with(20, "a", "A2").without(10, "z");
+        assertEquals("[A2, B, C]", replaced.toString());
+        assertNull(replaced.find(10, "z"));
+        assertSame(replaced, replaced.without(10, "z"));
+        assertEquals("[Z, A, B, C]", list.toString()); // Earlier versions are unchanged
+    }
+
+    @Test
+    public void randomUpdates_matchASortedMap() {
+        Random random = new Random(42);
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        RankedList<Integer> list = RankedList.empty();
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(500);
+            String id = "t" + random.nextInt(50);
+            String sortable = String.format("%03d/%s", key, id);
+            if (random.nextInt(3) == 0) {
+                expected.remove(sortable);
+                list = list.without(key, id);
+            } else {
+                expected.put(sortable, i);
+                list = list.with(key, id, i);
+            }
+        }
+        assertEquals(new ArrayList<>(expected.values()), list);
+        int position = 0;
+        for (String sortable : expected.keySet()) {
+            String[] parts = sortable.split("/");
+            assertEquals(position++, list.indexOf(Integer.parseInt(parts[0]), parts[1]));
+        }
+    }
+
+    @Test
+    public void builder_makesTheSameTreeAsAddingOneByOne() {
+        RankedList.Builder<Integer> builder = new RankedList.Builder<>();
+        RankedList<Integer> added = RankedList.empty();
+        for (int i = 0; i < 5_000; i++) {
+            builder.add(i / 3, "t" + (i % 3), i);
+            added = added.with(i / 3, "t" + (i % 3), i);
+        }
+        RankedList<Integer> built = builder.build();
+        assertEquals(added, built);
+        List<Integer> byIndex = new ArrayList<>();
+        for (int i = 0; i < built.size(); i++) {
+            byIndex.add(built.get(i));
+        }
+        assertEquals(byIndex, new ArrayList<>(built));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builder_rejectsEntriesOutOfOrder() {
+        new RankedList.Builder<String>().add(2, "a", "A").add(1, "b", "B");
+    }
+}
@@ -0,0 +1,82 @@
+package com.app.task_manager;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ReminderQueueTest {
+
+    @Test
+    public void peekNext_returnsEarliestInOrderWithoutRemoving() {
+        ReminderQueue queue = new ReminderQueue();
+        queue.upsert("c", 300L);
+        queue.upsert("a", 100L);
+        queue.upsert("b", 200L);
+
+        List<ReminderQueue.Entry> next = queue.peekNext(2);
+        assertEquals(2, next.size());
+        assertEquals("a", next.get(0).taskId);
+        assertEquals("b", next.get(1).taskId);
+        assertEquals(3, queue.peekNext(5).size());
+    }
+
+    @Test
+    public void editsAndRemovals_skipStaleEntries() {
+        ReminderQueue queue = new ReminderQueue();
+        queue.upsert("a", 100L);
+        queue.upsert("b", 200L);
+        queue.upsert("a", 300L); // Moved after b
+        queue.remove("b");
+        queue.upsert("c", 0L); // No reminder
+
+        List<ReminderQueue.Entry> next = queue.peekNext(5);
+        assertEquals(1, next.size());
+        assertEquals(300L, next.get(0).remindAt);
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void pollDue_removesOnlyDueReminders() {
+        ReminderQueue queue = new ReminderQueue();
+        queue.upsert("a", 100L);
+        queue.upsert("b", 200L);
+        queue.upsert("c", 300L);
+
+        List<ReminderQueue.Entry> due = queue.pollDue(200L);
+        assertEquals(2, due.size());
+        assertEquals("c", queue.peekNext(1).get(0).taskId);
+        assertTrue(queue.pollDue(200L).isEmpty());
+    }
+
+    @Test
+    public void pollFired_handlesRemindersDueAtTheSameTime() {
+        ReminderQueue queue = new ReminderQueue();
+        queue.upsert("a", 100L);
+        queue.upsert("b", 100L);
+        queue.upsert("c", 300L);
+
+        List<ReminderQueue.Entry> fired = queue.pollFired("b", 100L, 150L);
+        assertEquals(2, fired.size());
+        assertEquals("b", fired.get(0).taskId);
+        assertEquals("a", fired.get(1).taskId);
+        assertEquals("c", queue.peekNext(5).get(0).taskId);
+        assertEquals(1, queue.size());
+
+        // Reloaded queue that no longer holds the fired reminder
+        assertEquals(1, queue.pollFired("d", 120L, 150L).size());
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void repeatedEdits_keepHeapBounded() {
+        ReminderQueue queue = new ReminderQueue();
+        for (int i = 1; i <= 10_000; i++) {
+            queue.upsert("a", i);
+        }
+        assertEquals(1, queue.size());
+        assertTrue(queue.heapSize() <= 2 * queue.size() + 17);
+        assertEquals(10_000L, queue.peekNext(1).get(0).remindAt);
+    }
+}
@@ -0,0 +1,87 @@
+package com.app.task_manager;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RowUpdatesTest {
+
+    @Test
+    public void changes_describeEachUpdate() {
+        RowUpdates<String> rows = new RowUpdates<>();
+        rows.put("a", 10, "A");
+        rows.put("b", 20, "B");
+        rows.put("c", 30, "C");
+        rows.takeChanges();
+
+        rows.put("b", 20, "B"); // The same row at the same key changes nothing
+        rows.put("b", 20, "B2");
+        rows.put("a", 40, "A"); // Moved after c
+        rows.remove("c");
+        rows.remove("missing");
+        assertEquals("[CHANGED 1, MOVED 0->2, REMOVED 1]", rows.takeChanges().toString());
+        assertEquals("[B2, A]", rows.getRows().toString());
+        assertEquals(1, rows.indexOf("a"));
+        assertEquals(-1, rows.indexOf("c"));
+        assertTrue(rows.takeChanges().isEmpty());
+    }
+
+    // Replaying the changes on a copy of the old rows, the way an adapter dispatches them,
+    // ends up with the new rows
+    @Test
+    public void replayedChanges_reproduceTheRows() {
+        Random random = new Random(7);
+        RowUpdates<String> rows = new RowUpdates<>();
+        RankedList.Builder<String> initial = new RankedList.Builder<>();
+        for (int i = 0; i < 200; i++) {
+            initial.add(i, "t" + i, "v0");
+        }
+        rows.reset(initial);
+        assertTrue(rows.takeChanges().isEmpty());
+
+        List<String> shown = new ArrayList<>(rows.getRows());
+        for (int round = 1; round <= 200; round++) {
+            for (int i = 0; i < 10; i++) {
+                String id = "t" + random.nextInt(250);
+                switch (random.nextInt(3)) {
+                    case 0:
+                        rows.remove(id);
+                        break;
+                    case 1:
+                        rows.put(id, random.nextInt(300), id + "@" + round);
+                        break;
+                    default:
+                        String row = rows.find(id);
+                        if (row != null) rows.put(id, rows.getRows().keyAt(rows.indexOf(id)), row + "'");
+                        break;
+                }
+            }
+            List<String> current = rows.getRows();
+            for (RowUpdates.Change change : rows.takeChanges()) {
+                switch (change.type) {
+                    case INSERTED:
+                        shown.add(change.position, null);
+                        break;
+                    case REMOVED:
+                        shown.remove(change.position);
+                        break;
+                    case MOVED:
+                        shown.add(change.toPosition, shown.remove(change.position));
+                        break;
+                    case CHANGED:
+                        shown.set(change.position, null);
+                        break;
+                }
+            }
+            // Rows the changes did not touch are still in place; the others are rebound
+            for (int i = 0; i < shown.size(); i++) {
+                if (shown.get(i) == null) shown.set(i, current.get(i));
+            }
+            assertEquals(current, shown);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.app.task_manager;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SingleFlightTest {
+
+    @Test
+    public void concurrentRequests_shareOneLoad() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        List<SingleFlight.Callback<Integer>> started = new ArrayList<>();
+        List<Integer> results = new ArrayList<>();
+
+        assertTrue(flight.run("a", started::add, results::add));
+        assertFalse(flight.run("a", started::add, results::add));
+        assertTrue(flight.run("b", started::add, results::add));
+        assertEquals(2, started.size());
+
+        started.get(0).onLoaded(1);
+        assertEquals(2, results.size());
+        assertEquals(Integer.valueOf(1), results.get(1));
+        assertFalse(flight.isInFlight("a"));
+        assertTrue(flight.isInFlight("b"));
+    }
+
+    @Test
+    public void completedLoad_isNotCached() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        int[] loads = new int[1];
+        SingleFlight.Loader<Integer> loader = done -> done.onLoaded(++loads[0]);
+
+        flight.run("a", loader, value -> { });
+        flight.run("a", loader, value -> { });
+        assertEquals(2, loads[0]);
+    }
+}
@@ -0,0 +1,59 @@
+package com.app.task_manager;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TaskChangeTrackerTest {
+
+    private static Task task(String title, int priority) {
+        Task task = new Task(title, "Notes", priority, 1000L, 1000L, "user");
+        task.setTaskId("t1");
+        task.setUpdatedAt(5L);
+        return task;
+    }
+
+    @Test
+    public void diff_containsOnlyChangedFields() {
+        Task edited = task("Pay rent", TaskPriority.HIGH);
+        edited.setUpdatedAt(9L);
+        Map<String, Object> fields = TaskChangeTracker.diff(task("Pay rent", TaskPriority.LOW), edited);
+        assertEquals(1, fields.size());
+        assertEquals(TaskPriority.HIGH, fields.get("priority"));
+    }
+
+    @Test
+    public void editsWithinWindow_mergeIntoOneWrite() {
+        TaskChangeTracker<String> tracker = new TaskChangeTracker<>();
+        Task base = task("Pay rent", TaskPriority.LOW);
+        assertTrue(tracker.edit(base, task("Pay rent", TaskPriority.HIGH), "w1"));
+        assertFalse(tracker.edit(base, task("Pay the rent", TaskPriority.HIGH), "w2"));
+
+        TaskChangeTracker.Write<String> write = tracker.flush("t1");
+        assertEquals(2, write.fields.size());
+        assertEquals("Pay the rent", write.fields.get("title"));
+        assertEquals(Arrays.asList("w1", "w2"), write.tokens);
+        assertFalse(tracker.hasPending());
+
+        TaskChangeTracker.Stats stats = tracker.getStats();
+        assertEquals(2, stats.edits);
+        assertEquals(1, stats.writes);
+        assertTrue(stats.bytesWritten < stats.bytesWithoutTracking);
+    }
+
+    @Test
+    public void editsThatCancelOut_writeNothing() {
+        TaskChangeTracker<String> tracker = new TaskChangeTracker<>();
+        Task base = task("Pay rent", TaskPriority.LOW);
+        tracker.edit(base, task("Pay rent", TaskPriority.HIGH), "w1");
+        tracker.edit(base, task("Pay rent", TaskPriority.LOW), "w2");
+
+        TaskChangeTracker.Write<String> write = tracker.flush("t1");
+        assertTrue(write.fields.isEmpty());
+        assertEquals(0, tracker.getStats().writes);
+        assertNull(tracker.flush("t1"));
+    }
+}
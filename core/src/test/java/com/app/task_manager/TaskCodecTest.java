@@ -0,0 +1,46 @@
+package com.app.task_manager;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TaskCodecTest {
+
+    @Test
+    public void encodeThenDecode_preservesEveryField() {
+        Task task = new Task("Pay rent", "Before noon", TaskPriority.HIGH, 1700000000000L, 1699990000000L, "user");
+        task.setUpdatedAt(1690000000000L);
+        task.setDeleted(true);
+
+        Map<String, Object> data = TaskCodec.encode(task);
+        assertFalse(data.containsKey("taskId"));
+        assertFalse(data.containsKey("description")); // Kept in the detail document
+        Task decoded = TaskCodec.decode("t1", data);
+
+        assertEquals("t1", decoded.getTaskId());
+        assertEquals("user", decoded.getUserId());
+        assertEquals("Pay rent", decoded.getTitle());
+        assertNull(decoded.getDescription());
+        assertEquals("Before noon", TaskCodec.encodeDetail(task).get("description"));
+        assertEquals(TaskPriority.HIGH, decoded.getPriority());
+        assertEquals(1700000000000L, decoded.getDueAt());
+        assertEquals(1699990000000L, decoded.getRemindAt());
+        assertEquals(1690000000000L, decoded.getUpdatedAt());
+        assertTrue(decoded.isDeleted());
+        assertEquals(TaskSchema.CURRENT_VERSION, decoded.getSchemaVersion());
+    }
+
+    @Test
+    public void firestoreLongs_areNarrowedToIntFields() {
+        Map<String, Object> data = TaskCodec.encode(new Task("A", "", TaskPriority.MEDIUM, 0, 0, "user"));
+        data.put("priority", 1L); // Firestore returns integers as Long
+        data.remove("remindAt");
+
+        Task decoded = TaskCodec.decode("t2", data);
+
+        assertEquals(TaskPriority.MEDIUM, decoded.getPriority());
+        assertEquals(0, decoded.getRemindAt());
+    }
+}
@@ -0,0 +1,167 @@
+package com.app.task_manager;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TaskCountsTest {
+
+    private static final long DAY = 86_400_000L;
+    private static final long TODAY = 100 * DAY;
+
+    private final TaskCounts counts = new TaskCounts();
+
+    @Before
+    public void setUp() {
+        counts.setDay(TODAY, TODAY + DAY);
+        for (TaskCounts.Key key : TaskCounts.Key.values()) {
+            counts.setServerCount(key, counts.version(key), 10, 1);
+        }
+    }
+
+    @Test
+    public void localWrites_showAtOnceAndAreFoldedInOnAck() {
+        Task task = task(TaskPriority.HIGH, TODAY + 1000);
+        TaskCounts.Delta create = counts.delta(null, null, task);
+        counts.applyPending(create);
+        assertEquals(11, counts.snapshot().get(TaskCounts.Key.ALL));
+        assertEquals(11, counts.snapshot().get(TaskCounts.Key.HIGH));
+        assertEquals(11, counts.snapshot().get(TaskCounts.Key.DUE_TODAY));
+        assertEquals(10, counts.snapshot().get(TaskCounts.Key.OVERDUE));
+
+        counts.confirm(create);
+        assertEquals(11, counts.getServerCount(TaskCounts.Key.ALL));
+        assertEquals(11, counts.snapshot().get(TaskCounts.Key.ALL));
+        assertTrue(counts.staleKeys(2).isEmpty()); // Nothing is read back
+
+        Task renamed = new Task(task);
+        renamed.setTitle("Renamed");
+        assertTrue(counts.delta(null, task, renamed).isEmpty());
+
+        Task deleted = new Task(task);
+        deleted.setDeleted(true);
+        TaskCounts.Delta delete = counts.delta(null, task, deleted);
+        counts.applyPending(delete);
+        counts.rollback(delete);
+        assertEquals(11, counts.snapshot().get(TaskCounts.Key.HIGH));
+    }
+
+    @Test
+    public void remoteChanges_invalidateOnlyTheCountsTheyMove() {
+        Task task = task(TaskPriority.LOW, TODAY - 1000);
+        Task raised = new Task(task);
+        raised.setPriority(TaskPriority.HIGH);
+        counts.onRemoteChange(task, raised);
+        assertEquals(EnumSet.of(TaskCounts.Key.LOW, TaskCounts.Key.HIGH), counts.staleKeys(2));
+
+        counts.onRemoteChange(null, raised);
+        assertEquals(TaskCounts.Key.values().length, counts.staleKeys(2).size());
+        assertEquals(10, counts.snapshot().get(TaskCounts.Key.ALL)); // Shown until refetched
+    }
+
+    @Test
+    public void resultsOfFetchesOverlappingAChange_areDropped() {
+        int version = counts.version(TaskCounts.Key.ALL);
+        TaskCounts.Delta create = counts.delta(null, null, task(TaskPriority.LOW, TODAY - 1000));
+        counts.applyPending(create);
+        counts.confirm(create);
+        assertFalse(counts.setServerCount(TaskCounts.Key.ALL, version, 10, 2));
+        assertEquals(11, counts.snapshot().get(TaskCounts.Key.ALL));
+    }
+
+    @Test
+    public void dayRollover_invalidatesTheDayRelativeCounts() {
+        TaskCounts.Delta create = counts.delta(null, null, task(TaskPriority.LOW, TODAY + 1000));
+        counts.applyPending(create);
+        counts.setDay(TODAY + DAY, TODAY + 2 * DAY);
+        assertEquals(EnumSet.of(TaskCounts.Key.OVERDUE, TaskCounts.Key.DUE_TODAY), counts.staleKeys(2));
+        counts.confirm(create); // Computed against the old day, ignored for the day counts
+        assertEquals(10, counts.snapshot().get(TaskCounts.Key.DUE_TODAY));
+        assertEquals(11, counts.snapshot().get(TaskCounts.Key.ALL));
+        assertTrue(counts.staleKeys(1 + TaskCounts.TTL_MS).contains(TaskCounts.Key.ALL));
+    }
+
+    @Test
+    public void dashboardTotals_equalTheListedRows() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2026, Calendar.OCTOBER, 14, 15, 0);
+        long now = calendar.getTimeInMillis();
+        long dayStart = TaskDates.startOfDay(now);
+        TaskCounts local = new TaskCounts();
+        local.setDay(dayStart, dayStart + DAY);
+
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(task(TaskPriority.LOW, dayStart - DAY));
+        tasks.add(task(TaskPriority.MEDIUM, dayStart + 1000));
+        tasks.add(task(TaskPriority.HIGH, dayStart + 2 * DAY));
+        Task noReminder = task(TaskPriority.HIGH, dayStart + 2000);
+        noReminder.setRemindAt(0);
+        tasks.add(noReminder);
+        Task tombstone = task(TaskPriority.MEDIUM, dayStart - 2 * DAY);
+        tombstone.setDeleted(true);
+        tasks.add(tombstone);
+        // v1 documents, with and without a reminder time
+        Map<String, Object> legacy = new HashMap<>();
+        legacy.put("priority", "High");
+        legacy.put(TaskSchema.LEGACY_REMINDER_DATE_TIME, "2026-10-14 09:30");
+        tasks.add(TaskSchema.fromLegacy("legacy", legacy));
+        Map<String, Object> legacyUndated = new HashMap<>();
+        legacyUndated.put("priority", "Low");
+        legacyUndated.put(TaskSchema.LEGACY_DUE_DATE, "2026-10-14");
+        tasks.add(TaskSchema.fromLegacy("legacyUndated", legacyUndated));
+
+        Map<TaskCounts.Key, TaskFilter> views = new HashMap<>();
+        views.put(TaskCounts.Key.ALL, new TaskFilter());
+        views.put(TaskCounts.Key.LOW, byPriority(TaskPriority.LOW));
+        views.put(TaskCounts.Key.MEDIUM, byPriority(TaskPriority.MEDIUM));
+        views.put(TaskCounts.Key.HIGH, byPriority(TaskPriority.HIGH));
+        TaskFilter overdue = new TaskFilter();
+        overdue.setOverdueOnly(true);
+        views.put(TaskCounts.Key.OVERDUE, overdue);
+        TaskFilter dueToday = new TaskFilter();
+        dueToday.setDueFrom(dayStart);
+        dueToday.setDueTo(dayStart + DAY);
+        views.put(TaskCounts.Key.DUE_TODAY, dueToday);
+
+        for (TaskCounts.Key key : TaskCounts.Key.values()) {
+            int counted = 0, rows = 0;
+            for (Task task : tasks) {
+                if (local.keysOf(task).contains(key)) counted++;
+                // What TaskSession lets into the list under that view
+                if (views.get(key).matches(task, now) && TaskFilter.isListed(task)) rows++;
+            }
+            assertEquals(key.name(), rows, counted);
+        }
+        assertEquals(4, count(local, tasks, TaskCounts.Key.ALL));
+        assertEquals(2, count(local, tasks, TaskCounts.Key.HIGH)); // The v1 "High" label included
+    }
+
+    private static int count(TaskCounts counts, List<Task> tasks, TaskCounts.Key key) {
+        int count = 0;
+        for (Task task : tasks) {
+            if (counts.keysOf(task).contains(key)) count++;
+        }
+        return count;
+    }
+
+    private static TaskFilter byPriority(int priority) {
+        TaskFilter filter = new TaskFilter();
+        filter.setPriorities(Collections.singleton(priority));
+        return filter;
+    }
+
+    private static Task task(int priority, long dueAt) {
+        Task task = new Task("Task", null, priority, dueAt, dueAt, "user");
+        task.setTaskId("t" + priority + dueAt);
+        return task;
+    }
+}
@@ -0,0 +1,69 @@
+package com.app.task_manager;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TaskFilterTest {
+
+    private static final long NOW = 1_000_000L;
+
+    private static Task task(String id, String title, int priority, long dueAt) {
+        Task task = new Task(title, "", priority, dueAt, dueAt, "user");
+        task.setTaskId(id);
+        return task;
+    }
+
+    @Test
+    public void overdueAndPriority_areCombined() {
+        TaskFilter filter = new TaskFilter();
+        filter.setPriorities(Arrays.asList(TaskPriority.HIGH));
+        filter.setOverdueOnly(true);
+
+        // Overdue is due before today; earlier today is not overdue yet
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2026, Calendar.OCTOBER, 14, 15, 0);
+        long now = calendar.getTimeInMillis();
+        long today = TaskDates.startOfDay(now);
+        assertTrue(filter.matches(task("a", "Rent", TaskPriority.HIGH, today - 1), now));
+        assertFalse(filter.matches(task("b", "Rent", TaskPriority.HIGH, now - 1), now));
+        assertFalse(filter.matches(task("c", "Rent", TaskPriority.LOW, today - 1), now));
+        assertEquals(today, filter.dueUpperBound(now));
+    }
+
+    @Test
+    public void titlePrefix_andDefaultDetection() {
+        TaskFilter filter = new TaskFilter();
+        assertTrue(filter.isDefault());
+        filter.setTitlePrefix("  ");
+        assertTrue(filter.isDefault());
+
+        filter.setTitlePrefix("Pay");
+        assertFalse(filter.isDefault());
+        assertTrue(filter.matches(task("a", "Pay rent", TaskPriority.LOW, NOW), NOW));
+        assertFalse(filter.matches(task("b", "Rent", TaskPriority.LOW, NOW), NOW));
+    }
+
+    @Test
+    public void prioritySort_putsHighFirstAndBreaksTiesById() {
+        TaskFilter filter = new TaskFilter();
+        filter.setSortKey(TaskFilter.SortKey.PRIORITY);
+        List<Task> tasks = new ArrayList<>(Arrays.asList(
+                task("b", "B", TaskPriority.LOW, NOW),
+                task("c", "C", TaskPriority.HIGH, NOW),
+                task("a", "A", TaskPriority.LOW, NOW)));
+
+        Collections.sort(tasks, filter.comparator());
+
+        assertEquals("c", tasks.get(0).getTaskId());
+        assertEquals("a", tasks.get(1).getTaskId());
+        assertEquals("b", tasks.get(2).getTaskId());
+    }
+}
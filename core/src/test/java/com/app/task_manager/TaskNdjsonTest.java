@@ -0,0 +1,75 @@
+package com.app.task_manager;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+import static org.junit.Assert.*;
+
+public class TaskNdjsonTest {
+
+    @Test
+    public void encodeDecode_roundTripsEscapesAndUnicode() {
+        Task task = new Task("Pay \"rent\"", "line 1\nline 2\t\\ caf\u00e9 \ud83d\ude00", 2, 1000L, 900L, "u1");
+        task.setTaskId("t1");
+        task.setUpdatedAt(1234L);
+
+        String line = TaskNdjson.encode(task);
+        assertFalse(line.contains("\n"));
+        Task decoded = TaskNdjson.decode(line);
+
+        assertEquals("t1", decoded.getTaskId());
+        assertEquals(task.getTitle(), decoded.getTitle());
+        assertEquals(task.getDescription(), decoded.getDescription());
+        assertEquals(2, decoded.getPriority());
+        assertEquals(1000L, decoded.getDueAt());
+        assertEquals(900L, decoded.getRemindAt());
+        assertEquals(1234L, decoded.getUpdatedAt());
+    }
+
+    @Test
+    public void header_isCheckedOnRead() {
+        TaskNdjson.Header header = TaskNdjson.parseHeader(TaskNdjson.header("u1", 5L));
+        assertEquals("u1", header.userId);
+        assertEquals(5L, header.exportedAt);
+        try {
+            TaskNdjson.parseHeader("{\"id\":\"t1\"}");
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void reader_returnsLinesAcrossBufferBoundariesAndResumesAtOffset() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        LineChannelWriter writer = new LineChannelWriter(Channels.newChannel(bytes), 16);
+        String[] lines = {"short", "a line longer than the sixteen byte buffer", "", "\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9 split"};
+        for (String line : lines) writer.writeLine(line);
+        writer.close();
+        byte[] file = bytes.toByteArray();
+        assertEquals(file.length, writer.getBytesWritten());
+
+        LineChannelReader reader = new LineChannelReader(channel(file, 0), 0, 7);
+        long[] offsets = new long[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(lines[i], reader.readLine());
+            offsets[i] = reader.getOffset();
+        }
+        assertNull(reader.readLine());
+        assertEquals(file.length, reader.getOffset());
+
+        // Carries on after the second line as a new reader would after a restart
+        LineChannelReader resumed = new LineChannelReader(channel(file, (int) offsets[1]), offsets[1], 7);
+        assertEquals("", resumed.readLine());
+        assertEquals(lines[3], resumed.readLine());
+        assertEquals(file.length, resumed.getOffset());
+    }
+
+    private static ReadableByteChannel channel(byte[] file, int from) {
+        return Channels.newChannel(new ByteArrayInputStream(file, from, file.length - from));
+    }
+}
@@ -0,0 +1,66 @@
+package com.app.task_manager;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TaskSchemaTest {
+
+    @Test
+    public void legacyDocument_isUpgradedToTypedFields() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("title", "Pay rent");
+        data.put("userId", "user");
+        data.put("priority", "High");
+        data.put("dueDate", "2024-1-5");
+        data.put("reminderDateTime", "2024-1-5 14:30");
+        assertEquals(1, TaskSchema.versionOf(data));
+
+        Task task = TaskSchema.fromLegacy("t1", data);
+
+        Calendar expected = Calendar.getInstance();
+        expected.clear();
+        expected.set(2024, Calendar.JANUARY, 5, 14, 30);
+        assertEquals("t1", task.getTaskId());
+        assertEquals(TaskPriority.HIGH, task.getPriority());
+        assertEquals(expected.getTimeInMillis(), task.getRemindAt());
+        assertEquals(expected.getTimeInMillis(), task.getDueAt());
+        assertEquals(TaskSchema.CURRENT_VERSION, task.getSchemaVersion());
+        assertEquals(TaskSchema.CURRENT_VERSION, TaskSchema.upgradeFields(task).get("schemaVersion"));
+    }
+
+    @Test
+    public void malformedLegacyValues_fallBackToDefaults() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("priority", "Urgent");
+        data.put("dueDate", "2024-1-5");
+        data.put("reminderDateTime", "soon");
+
+        Task task = TaskSchema.fromLegacy("t2", data);
+
+        Calendar expected = Calendar.getInstance();
+        expected.clear();
+        expected.set(2024, Calendar.JANUARY, 5);
+        assertEquals(TaskPriority.LOW, task.getPriority());
+        assertEquals(0, task.getRemindAt());
+        assertEquals(expected.getTimeInMillis(), task.getDueAt());
+    }
+
+    @Test
+    public void v2Document_keepsInlineDescriptionForTheMove() {
+        Task v2 = new Task("Pay rent", "Before noon", TaskPriority.HIGH, 1000L, 1000L, "user");
+        Map<String, Object> data = TaskCodec.encode(v2);
+        data.put("schemaVersion", 2);
+        data.put("description", "Before noon");
+
+        Task task = TaskSchema.fromOlder("t3", data);
+
+        assertEquals("Before noon", task.getDescription());
+        assertEquals(TaskPriority.HIGH, task.getPriority());
+        assertEquals(TaskSchema.CURRENT_VERSION, task.getSchemaVersion());
+    }
+}
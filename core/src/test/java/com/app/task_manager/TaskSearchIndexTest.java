@@ -0,0 +1,121 @@
+package com.app.task_manager;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class TaskSearchIndexTest {
+
+    private static Task task(String id, String title, String description, int priority, long dueAt) {
+        Task task = new Task(title, description, priority, dueAt, dueAt, "user");
+        task.setTaskId(id);
+        return task;
+    }
+
+    @Test
+    public void query_matchesPrefixesOfEveryToken() {
+        TaskSearchIndex index = new TaskSearchIndex();
+        index.build(Arrays.asList(
+                task("a", "Buy groceries", "Milk and bread", 0, 100L),
+                task("b", "Book flights", "Holiday in Lisbon", 0, 200L),
+                task("c", "Groceries for the party", null, 0, 300L)));
+
+        assertEquals(Arrays.asList("a", "c"), index.query("groc", 10));
+        assertEquals(Collections.singletonList("a"), index.query("GROC mil", 10));
+        assertEquals(Collections.singletonList("b"), index.query("lis", 10));
+        assertTrue(index.query("groc lis", 10).isEmpty());
+        assertTrue(index.query("  ", 10).isEmpty());
+    }
+
+    @Test
+    public void updates_areIncremental() {
+        TaskSearchIndex index = new TaskSearchIndex();
+        index.build(Collections.singletonList(task("a", "Call plumber", "Kitchen sink", 0, 100L)));
+
+        index.upsertAll(Collections.singletonList(task("a", "Call electrician", null, 0, 100L)));
+        assertTrue(index.query("plumb", 10).isEmpty());
+        assertEquals(Collections.singletonList("a"), index.query("elec", 10));
+        // A summary without a description keeps the indexed one
+        assertEquals(Collections.singletonList("a"), index.query("sink", 10));
+
+        index.indexDescription("a", "Bathroom light");
+        assertTrue(index.query("sink", 10).isEmpty());
+        assertEquals(Collections.singletonList("a"), index.query("light", 10));
+
+        Task tombstone = task("a", "Call electrician", null, 0, 100L);
+        tombstone.setDeleted(true);
+        index.upsertAll(Collections.singletonList(tombstone));
+        assertTrue(index.query("call", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void results_rankByDueTimeThenPriority() {
+        TaskSearchIndex index = new TaskSearchIndex();
+        index.build(Arrays.asList(
+                task("undated", "Report", null, 2, 0L),
+                task("late", "Report", null, 2, 500L),
+                task("early-low", "Report", null, 0, 100L),
+                task("early-high", "Report", null, 2, 100L)));
+
+        assertEquals(Arrays.asList("early-high", "early-low", "late", "undated"), index.query("rep", 10));
+        assertEquals(Arrays.asList("early-high", "early-low"), index.query("rep", 2));
+    }
+
+    // Timing is covered by TaskSearchBenchmark; this checks the hits against a full scan
+    @Test
+    public void query_matchesFullScanFor10kTasks() {
+        String[] words = {"buy", "call", "email", "report", "review", "plan", "book", "pay", "fix", "clean",
+                "meeting", "invoice", "groceries", "dentist", "project", "budget", "travel", "school"};
+        Random random = new Random(42);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String title = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+            String description = words[random.nextInt(words.length)] + " item " + i;
+            tasks.add(task("task" + i, title, description, random.nextInt(3), random.nextInt(20) == 0 ? 0 : random.nextInt(1_000_000)));
+        }
+        TaskSearchIndex index = new TaskSearchIndex();
+        index.build(tasks);
+
+        for (String query : new String[]{"b", "re", "pay inv", "meeting", "i", "item 12"}) {
+            assertEquals(query, scan(tasks, query, 500), index.query(query, 500));
+        }
+    }
+
+    private static List<String> scan(List<Task> tasks, String query, int limit) {
+        List<Task> hits = new ArrayList<>();
+        for (Task task : tasks) {
+            Set<String> tokens = new HashSet<>(TaskSearchIndex.tokenize(task.getTitle()));
+            tokens.addAll(TaskSearchIndex.tokenize(task.getDescription()));
+            boolean all = true;
+            for (String queryToken : TaskSearchIndex.tokenize(query)) {
+                boolean any = false;
+                for (String token : tokens) {
+                    any |= token.startsWith(queryToken);
+                }
+                all &= any;
+            }
+            if (all) hits.add(task);
+        }
+        hits.sort((a, b) -> {
+            int byDue = Long.compare(a.getDueAt() == 0 ? Long.MAX_VALUE : a.getDueAt(),
+                    b.getDueAt() == 0 ? Long.MAX_VALUE : b.getDueAt());
+            if (byDue != 0) return byDue;
+            int byPriority = Integer.compare(b.getPriority(), a.getPriority());
+            return byPriority != 0 ? byPriority : a.getTaskId().compareTo(b.getTaskId());
+        });
+        List<String> ids = new ArrayList<>();
+        for (Task task : hits.subList(0, Math.min(limit, hits.size()))) {
+            ids.add(task.getTaskId());
+        }
+        return ids;
+    }
+}
@@ -21,4 +21,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "task_manager"
 include(":app")
+include(":core")
  
\ No newline at end of file